@@ -0,0 +1,203 @@
+package net.talaatharb.survey.analytics;
+
+import lombok.RequiredArgsConstructor;
+import net.talaatharb.survey.entity.TimeOrderedUuidGenerator;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * JDBC access to the analytics aggregate tables.
+ * <p>
+ * Deltas are applied as a batch of increments per table followed by a batch of inserts for the
+ * rows that did not exist yet, so concurrent writers never overwrite each other's counts.
+ */
+@Component
+@RequiredArgsConstructor
+public class AggregateJdbcRepository {
+
+    private static final String SELECT_DAILY =
+            "SELECT submission_date, submission_count FROM survey_daily_counts WHERE survey_id = ?";
+    private static final String SELECT_ANSWERS =
+            "SELECT question_id, answer_count FROM question_answer_counts WHERE survey_id = ?";
+    private static final String SELECT_OPTIONS =
+            "SELECT question_id, option_id, label_snapshot, selection_count FROM option_selection_counts WHERE survey_id = ?";
+    private static final String SELECT_SCALE =
+            "SELECT question_id, scale_value, answer_count FROM scale_value_counts WHERE survey_id = ?";
+
+    private static final String UPDATE_DAILY =
+            "UPDATE survey_daily_counts SET submission_count = submission_count + ? " +
+            "WHERE survey_id = ? AND submission_date = ?";
+    private static final String UPDATE_ANSWERS =
+            "UPDATE question_answer_counts SET answer_count = answer_count + ? " +
+            "WHERE survey_id = ? AND question_id = ?";
+    private static final String UPDATE_OPTIONS =
+            "UPDATE option_selection_counts SET selection_count = selection_count + ?, label_snapshot = ? " +
+            "WHERE survey_id = ? AND question_id = ? AND option_id = ?";
+    private static final String UPDATE_SCALE =
+            "UPDATE scale_value_counts SET answer_count = answer_count + ? " +
+            "WHERE survey_id = ? AND question_id = ? AND scale_value = ?";
+
+    private static final String INSERT_DAILY =
+            "INSERT INTO survey_daily_counts (submission_count, survey_id, submission_date, id) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_ANSWERS =
+            "INSERT INTO question_answer_counts (answer_count, survey_id, question_id, id) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_OPTIONS =
+            "INSERT INTO option_selection_counts (selection_count, label_snapshot, survey_id, question_id, option_id, id) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_SCALE =
+            "INSERT INTO scale_value_counts (answer_count, survey_id, question_id, scale_value, id) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String SELECT_UNAGGREGATED_SURVEYS =
+            "SELECT s.id FROM surveys s " +
+            "WHERE EXISTS (SELECT 1 FROM survey_responses r WHERE r.survey_id = s.id) " +
+            "AND NOT EXISTS (SELECT 1 FROM survey_daily_counts d WHERE d.survey_id = s.id) " +
+            "UNION " +
+            "SELECT DISTINCT survey_id FROM option_selection_counts " +
+            "GROUP BY survey_id, question_id, option_id HAVING COUNT(*) > 1";
+    private static final String SELECT_RECORDED_SUBMISSIONS =
+            "SELECT id FROM survey_responses WHERE id IN (%s)";
+
+    private static final int MAX_IDS_PER_QUERY = 1000;
+
+    private static final List<String> TABLES = List.of(
+            "survey_daily_counts", "question_answer_counts", "option_selection_counts", "scale_value_counts");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Load the persisted aggregates of a survey.
+     */
+    @Transactional(readOnly = true)
+    public SurveyAggregates load(UUID surveyId) {
+        SurveyAggregates aggregates = new SurveyAggregates(surveyId);
+        jdbcTemplate.query(SELECT_DAILY, (RowCallbackHandler) rs ->
+                aggregates.addSubmissions(rs.getObject(1, LocalDate.class), rs.getLong(2)), surveyId);
+        jdbcTemplate.query(SELECT_ANSWERS, (RowCallbackHandler) rs ->
+                aggregates.addAnswers(rs.getObject(1, UUID.class), rs.getLong(2)), surveyId);
+        jdbcTemplate.query(SELECT_OPTIONS, (RowCallbackHandler) rs ->
+                aggregates.addSelections(rs.getObject(1, UUID.class), rs.getObject(2, UUID.class),
+                        rs.getString(3), rs.getLong(4)), surveyId);
+        jdbcTemplate.query(SELECT_SCALE, (RowCallbackHandler) rs ->
+                aggregates.addScaleValue(rs.getObject(1, UUID.class), rs.getInt(2), rs.getLong(3)), surveyId);
+        return aggregates;
+    }
+
+    /**
+     * Find the surveys with responses but no aggregates, answered before aggregates were maintained,
+     * and those whose option counts are still split by label, as they were before being kept per option.
+     */
+    @Transactional(readOnly = true)
+    public List<UUID> findUnaggregatedSurveyIds() {
+        return jdbcTemplate.queryForList(SELECT_UNAGGREGATED_SURVEYS, UUID.class);
+    }
+
+    /**
+     * Find which of the given submissions are in the response tables, as seen by the current transaction.
+     */
+    public Set<UUID> findRecordedSubmissionIds(List<UUID> submissionIds) {
+        Set<UUID> recorded = new HashSet<>();
+        for (int from = 0; from < submissionIds.size(); from += MAX_IDS_PER_QUERY) {
+            List<UUID> chunk = submissionIds.subList(from, Math.min(from + MAX_IDS_PER_QUERY, submissionIds.size()));
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            recorded.addAll(jdbcTemplate.queryForList(
+                    SELECT_RECORDED_SUBMISSIONS.formatted(placeholders), UUID.class, chunk.toArray()));
+        }
+        return recorded;
+    }
+
+    /**
+     * Add deltas to the persisted aggregates.
+     */
+    @Transactional
+    public void add(Collection<SurveyAggregates> deltas) {
+        List<Object[]> daily = new ArrayList<>();
+        List<Object[]> answers = new ArrayList<>();
+        List<Object[]> options = new ArrayList<>();
+        List<Object[]> scale = new ArrayList<>();
+        for (SurveyAggregates delta : deltas) {
+            collectRows(delta, daily, answers, options, scale);
+        }
+
+        upsert(UPDATE_DAILY, INSERT_DAILY, daily);
+        upsert(UPDATE_ANSWERS, INSERT_ANSWERS, answers);
+        upsert(UPDATE_OPTIONS, INSERT_OPTIONS, options);
+        upsert(UPDATE_SCALE, INSERT_SCALE, scale);
+    }
+
+    /**
+     * Replace the persisted aggregates of a survey.
+     */
+    @Transactional
+    public void replace(SurveyAggregates aggregates) {
+        for (String table : TABLES) {
+            jdbcTemplate.update("DELETE FROM " + table + " WHERE survey_id = ?", aggregates.getSurveyId());
+        }
+
+        List<Object[]> daily = new ArrayList<>();
+        List<Object[]> answers = new ArrayList<>();
+        List<Object[]> options = new ArrayList<>();
+        List<Object[]> scale = new ArrayList<>();
+        collectRows(aggregates, daily, answers, options, scale);
+
+        insert(INSERT_DAILY, daily);
+        insert(INSERT_ANSWERS, answers);
+        insert(INSERT_OPTIONS, options);
+        insert(INSERT_SCALE, scale);
+    }
+
+    /**
+     * Collect rows as (count, key columns...) so the same parameters serve updates and inserts.
+     */
+    private static void collectRows(SurveyAggregates aggregates, List<Object[]> daily, List<Object[]> answers,
+                                    List<Object[]> options, List<Object[]> scale) {
+        UUID surveyId = aggregates.getSurveyId();
+        aggregates.getSubmissionsPerDay().forEach((date, count) ->
+                daily.add(new Object[]{count, surveyId, Date.valueOf(date)}));
+        aggregates.getAnswerCounts().forEach((questionId, count) ->
+                answers.add(new Object[]{count, surveyId, questionId}));
+        aggregates.getOptionCounts().forEach((questionId, counts) -> counts.forEach((optionId, count) ->
+                options.add(new Object[]{count, aggregates.getOptionLabel(optionId), surveyId, questionId, optionId})));
+        aggregates.getScaleCounts().forEach((questionId, values) -> values.forEach((value, count) ->
+                scale.add(new Object[]{count, surveyId, questionId, value})));
+    }
+
+    private void upsert(String update, String insert, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        int[] updated = jdbcTemplate.batchUpdate(update, rows);
+        List<Object[]> missing = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                missing.add(rows.get(i));
+            }
+        }
+        insert(insert, missing);
+    }
+
+    private void insert(String insert, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<Object[]> withIds = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Object[] withId = Arrays.copyOf(row, row.length + 1);
+            withId[row.length] = TimeOrderedUuidGenerator.nextUuid();
+            withIds.add(withId);
+        }
+        jdbcTemplate.batchUpdate(insert, withIds);
+    }
+}
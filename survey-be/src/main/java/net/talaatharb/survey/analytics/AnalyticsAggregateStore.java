@@ -0,0 +1,388 @@
+package net.talaatharb.survey.analytics;
+
+import net.talaatharb.survey.event.SubmissionsCountedEvent;
+import net.talaatharb.survey.event.SubmissionsRecordedEvent;
+import net.talaatharb.survey.ingestion.SubmissionRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Analytics aggregates maintained incrementally as submissions are committed.
+ * <p>
+ * Committed submissions are folded into in-memory deltas per survey, which a background thread
+ * periodically adds to the aggregate tables in one transaction. Reads combine the persisted
+ * aggregates with the deltas not flushed yet, and are serialized against flushes so a delta is
+ * never counted twice or missed. Deltas not flushed when the process dies are lost; rebuilding
+ * recomputes a survey's aggregates from the response tables, and keeps apart the submissions
+ * recorded meanwhile until it knows whether it counted them.
+ * <p>
+ * Surveys answered before aggregates were maintained have responses but no aggregates. They are
+ * found on start and backfilled in the background; until then {@link #isAggregated(UUID)} tells
+ * readers to compute their analytics from the responses instead.
+ * <p>
+ * Every batch of recorded submissions is numbered with a sequence, also when aggregates are not
+ * maintained, and announced with a {@link SubmissionsCountedEvent}. Aggregates read from the store
+ * carry the sequence of the last batch they include, so live results clients can tell which
+ * announced batches a loaded result already counts.
+ * <p>
+ * The store starts before and stops after the ingestion pipeline, so replayed and drained
+ * submissions are counted.
+ */
+@Component
+public class AnalyticsAggregateStore implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsAggregateStore.class);
+
+    private final AggregateJdbcRepository aggregateRepository;
+    private final AnalyticsProperties.Aggregates properties;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Guards swapping {@link #pending} and reading it with {@link #sequence}: shared by recorders,
+     * which hold it from recording a batch to numbering it, exclusive otherwise.
+     */
+    private final ReadWriteLock pendingLock = new ReentrantReadWriteLock();
+
+    /**
+     * Serializes reads of persisted plus pending aggregates against flushes and rebuilds.
+     */
+    private final ReadWriteLock flushLock = new ReentrantReadWriteLock();
+
+    private ConcurrentMap<UUID, SurveyAggregates> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Submissions recorded while their survey is rebuilt, instead of being added to {@link #pending}.
+     */
+    private final ConcurrentMap<UUID, List<SubmissionRecord>> rebuilding = new ConcurrentHashMap<>();
+
+    /**
+     * Surveys whose aggregates are not backfilled yet.
+     */
+    private final Set<UUID> unaggregated = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Number of the last recorded batch of submissions.
+     */
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final TransactionTemplate snapshotTransaction;
+
+    private ScheduledExecutorService flusher;
+    private volatile boolean running;
+
+    public AnalyticsAggregateStore(AggregateJdbcRepository aggregateRepository, AnalyticsProperties properties,
+                                   PlatformTransactionManager transactionManager,
+                                   ApplicationEventPublisher eventPublisher) {
+        this.aggregateRepository = aggregateRepository;
+        this.properties = properties.getAggregates();
+        this.eventPublisher = eventPublisher;
+        // Serializable so that all queries of a rebuild read the same snapshot
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setReadOnly(true);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_SERIALIZABLE);
+    }
+
+    @TransactionalEventListener
+    public void onSubmissionsRecorded(SubmissionsRecordedEvent event) {
+        long recorded;
+        pendingLock.readLock().lock();
+        try {
+            if (properties.isEnabled()) {
+                for (SubmissionRecord submission : event.submissions()) {
+                    List<SubmissionRecord> rebuildWindow = rebuilding.get(submission.getSurveyId());
+                    if (rebuildWindow != null) {
+                        rebuildWindow.add(submission);
+                        continue;
+                    }
+                    SurveyAggregates delta = pending.computeIfAbsent(submission.getSurveyId(), SurveyAggregates::new);
+                    synchronized (delta) {
+                        delta.record(submission);
+                    }
+                }
+            }
+            recorded = sequence.incrementAndGet();
+        } finally {
+            pendingLock.readLock().unlock();
+        }
+        eventPublisher.publishEvent(new SubmissionsCountedEvent(recorded, event.submissions()));
+    }
+
+    /**
+     * Number of the last recorded batch of submissions. Aggregates computed from the response tables
+     * after reading it include at least the batches up to it.
+     */
+    public long getSequence() {
+        return sequence.get();
+    }
+
+    /**
+     * Whether the aggregates of a survey cover all its responses, so it can be read from the store.
+     */
+    public boolean isAggregated(UUID surveyId) {
+        return !unaggregated.contains(surveyId);
+    }
+
+    /**
+     * Get the current aggregates of a survey, carrying the sequence of the last batch they include.
+     */
+    public SurveyAggregates get(UUID surveyId) {
+        flushLock.readLock().lock();
+        try {
+            SurveyAggregates aggregates = aggregateRepository.load(surveyId);
+            // No batch is between being recorded and numbered, so the pending deltas hold exactly those up to the sequence
+            pendingLock.writeLock().lock();
+            try {
+                SurveyAggregates delta = pending.get(surveyId);
+                if (delta != null) {
+                    synchronized (delta) {
+                        aggregates.addAll(delta);
+                    }
+                }
+                aggregates.setSequence(sequence.get());
+            } finally {
+                pendingLock.writeLock().unlock();
+            }
+            return aggregates;
+        } finally {
+            flushLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Outcome of a rebuild: the recomputed aggregates and how many entries differed from them.
+     */
+    public record RebuildResult(SurveyAggregates aggregates, int correctedEntries) {
+    }
+
+    /**
+     * Replace the aggregates of a survey with freshly computed ones.
+     * <p>
+     * The computation reads one snapshot of the response tables. Deltas pending when it starts
+     * are of submissions in that snapshot, so they are dropped. Submissions recorded while it
+     * runs stay pending only if the snapshot does not contain them. The new aggregates are
+     * committed before reads and flushes resume, so these never see old rows with new deltas.
+     *
+     * @param compute computes the aggregates from the response tables, in the snapshot transaction
+     */
+    public RebuildResult rebuild(UUID surveyId, Supplier<SurveyAggregates> compute) {
+        flushLock.writeLock().lock();
+        try {
+            SurveyAggregates current = get(surveyId);
+            List<SubmissionRecord> recorded = Collections.synchronizedList(new ArrayList<>());
+            SurveyAggregates dropped;
+            pendingLock.writeLock().lock();
+            try {
+                dropped = pending.remove(surveyId);
+                rebuilding.put(surveyId, recorded);
+            } finally {
+                pendingLock.writeLock().unlock();
+            }
+
+            // Everything the new aggregates cover that is no longer pending
+            SurveyAggregates counted = dropped != null ? dropped : new SurveyAggregates(surveyId);
+            SurveyAggregates uncounted = new SurveyAggregates(surveyId);
+            RebuildSnapshot snapshot;
+            try {
+                snapshot = snapshotTransaction.execute(status -> {
+                    SurveyAggregates aggregates = compute.get();
+                    List<SubmissionRecord> submissions = closeRebuildWindow(surveyId, recorded);
+                    return new RebuildSnapshot(aggregates, submissions, aggregateRepository.findRecordedSubmissionIds(
+                            submissions.stream().map(SubmissionRecord::getId).toList()));
+                });
+            } catch (RuntimeException | Error e) {
+                closeRebuildWindow(surveyId, recorded).forEach(counted::record);
+                restore(Map.of(surveyId, counted));
+                throw e;
+            }
+
+            for (SubmissionRecord submission : snapshot.submissions()) {
+                (snapshot.recordedIds().contains(submission.getId()) ? counted : uncounted).record(submission);
+            }
+            try {
+                aggregateRepository.replace(snapshot.aggregates());
+            } catch (RuntimeException e) {
+                // The old aggregates stay, so none of it is covered
+                uncounted.addAll(counted);
+                restore(Map.of(surveyId, uncounted));
+                throw e;
+            }
+            if (!uncounted.isEmpty()) {
+                restore(Map.of(surveyId, uncounted));
+            }
+            unaggregated.remove(surveyId);
+            return new RebuildResult(snapshot.aggregates(), current.countDifferences(snapshot.aggregates()));
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuild the surveys answered before aggregates were maintained, one at a time on the flusher
+     * thread. Surveys failing to rebuild stay unaggregated until the next start.
+     *
+     * @param compute computes the aggregates of a survey from the response tables
+     */
+    public void backfill(Function<UUID, SurveyAggregates> compute) {
+        if (!running || unaggregated.isEmpty()) {
+            return;
+        }
+        flusher.execute(() -> {
+            log.info("Backfilling the analytics aggregates of {} surveys", unaggregated.size());
+            for (UUID surveyId : List.copyOf(unaggregated)) {
+                if (!running) {
+                    return;
+                }
+                try {
+                    rebuild(surveyId, () -> compute.apply(surveyId));
+                } catch (RuntimeException e) {
+                    log.warn("Failed to backfill the analytics aggregates of survey {}", surveyId, e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Add all pending deltas to the aggregate tables. Deltas are kept for the next attempt if that fails.
+     */
+    public void flush() {
+        flushLock.writeLock().lock();
+        try {
+            Map<UUID, SurveyAggregates> deltas;
+            pendingLock.writeLock().lock();
+            try {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                deltas = pending;
+                pending = new ConcurrentHashMap<>();
+            } finally {
+                pendingLock.writeLock().unlock();
+            }
+
+            try {
+                aggregateRepository.add(deltas.values());
+            } catch (RuntimeException e) {
+                log.warn("Failed to flush analytics aggregates of {} surveys, retrying later", deltas.size(), e);
+                restore(deltas);
+            }
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isEnabled() || running) {
+            return;
+        }
+        unaggregated.addAll(aggregateRepository.findUnaggregatedSurveyIds());
+        long interval = properties.getFlushInterval().toMillis();
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "analytics-aggregate-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushSafely, interval, interval, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(properties.getFlushInterval().toMillis() * 2, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Start before and stop after the ingestion pipeline.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 8192;
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Unexpected error while flushing analytics aggregates", e);
+        }
+    }
+
+    /**
+     * Stop keeping apart the submissions of a survey being rebuilt, returning those recorded so far.
+     */
+    private List<SubmissionRecord> closeRebuildWindow(UUID surveyId, List<SubmissionRecord> recorded) {
+        pendingLock.writeLock().lock();
+        try {
+            rebuilding.remove(surveyId, recorded);
+            synchronized (recorded) {
+                return List.copyOf(recorded);
+            }
+        } finally {
+            pendingLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Put deltas back in front of anything recorded since.
+     */
+    private void restore(Map<UUID, SurveyAggregates> deltas) {
+        pendingLock.readLock().lock();
+        try {
+            deltas.forEach((surveyId, delta) -> {
+                SurveyAggregates current = pending.computeIfAbsent(surveyId, SurveyAggregates::new);
+                synchronized (current) {
+                    current.addAll(delta);
+                }
+            });
+        } finally {
+            pendingLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * What a rebuild read in its snapshot: the aggregates, the submissions recorded while computing
+     * them and which of those the snapshot contains.
+     */
+    private record RebuildSnapshot(SurveyAggregates aggregates, List<SubmissionRecord> submissions,
+                                   Set<UUID> recordedIds) {
+    }
+}
@@ -0,0 +1,81 @@
+package net.talaatharb.survey.analytics;
+
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded thread pool computing the analytics of survey questions in parallel.
+ * <p>
+ * Kept apart from the servlet threads, so however many dashboards are open, analytics never run on
+ * more than a fixed number of threads, and hold no more database connections than that, besides
+ * the requests waiting for them. When the pool and its queue are full, the waiting request computes
+ * the task itself instead, which slows that dashboard down rather than failing it.
+ */
+@Component
+public class AnalyticsExecutor implements Executor, SmartLifecycle {
+
+    private final AnalyticsProperties.Executor properties;
+
+    private ThreadPoolExecutor pool;
+    private volatile boolean running;
+
+    public AnalyticsExecutor(AnalyticsProperties properties) {
+        this.properties = properties.getExecutor();
+    }
+
+    /**
+     * Run a task on the pool, or on the calling thread if the pool is full or not running.
+     */
+    @Override
+    public void execute(Runnable task) {
+        if (!running) {
+            task.run();
+            return;
+        }
+        pool.execute(task);
+    }
+
+    @Override
+    public void start() {
+        if (running) {
+            return;
+        }
+        AtomicInteger threads = new AtomicInteger();
+        int size = properties.getThreads();
+        pool = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "analytics-worker-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // Also covers tasks submitted while shutting down, which must not be dropped
+                (task, executor) -> task.run());
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        pool.shutdown();
+        try {
+            pool.awaitTermination(properties.getShutdownTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
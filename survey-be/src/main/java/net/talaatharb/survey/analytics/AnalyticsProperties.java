@@ -0,0 +1,137 @@
+package net.talaatharb.survey.analytics;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration of survey analytics.
+ */
+@Data
+@Validated
+@ConfigurationProperties(prefix = "survey.analytics")
+public class AnalyticsProperties {
+
+    /**
+     * Percentiles, between 0 and 100, reported for linear scale questions.
+     */
+    private List<@DecimalMin("0") @DecimalMax("100") Double> percentiles = new ArrayList<>(List.of(10.0, 25.0, 75.0, 90.0));
+
+    private Aggregates aggregates = new Aggregates();
+
+    @Valid
+    private TextSamples textSamples = new TextSamples();
+
+    @Valid
+    private Cache cache = new Cache();
+
+    @Valid
+    private Live live = new Live();
+
+    @Valid
+    private Executor executor = new Executor();
+
+    @Data
+    public static class Aggregates {
+
+        /**
+         * Serve counts from aggregates maintained at submit time instead of scanning responses.
+         */
+        private boolean enabled = true;
+
+        /**
+         * How often aggregated deltas are added to the aggregate tables.
+         */
+        private Duration flushInterval = Duration.ofSeconds(1);
+    }
+
+    @Data
+    public static class TextSamples {
+
+        /**
+         * Maximum number of text answers sampled per SHORT_ANSWER or PARAGRAPH question.
+         */
+        @Min(0)
+        private int size = 10;
+
+        /**
+         * Which text answers are sampled.
+         */
+        private TextSampleStrategy strategy = TextSampleStrategy.LATEST;
+    }
+
+    @Data
+    public static class Cache {
+
+        /**
+         * Share computations and cache computed analytics per survey.
+         */
+        private boolean enabled = true;
+
+        /**
+         * How long analytics stay fresh while the survey's response count does not change.
+         */
+        private Duration ttl = Duration.ofSeconds(5);
+
+        /**
+         * How long past the TTL stale analytics are still served while they are recomputed.
+         */
+        private Duration staleWhileRevalidate = Duration.ofMinutes(1);
+
+        /**
+         * Number of threads recomputing stale analytics in the background.
+         */
+        @Min(1)
+        private int refreshThreads = 2;
+    }
+
+    @Data
+    public static class Live {
+
+        /**
+         * How often idle live results streams get a heartbeat, keeping proxies from closing them.
+         */
+        private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+        /**
+         * How long a live results stream stays open before the client has to reconnect.
+         */
+        private Duration timeout = Duration.ofMinutes(30);
+
+        /**
+         * Events queued per client before a client too slow to keep up is disconnected.
+         */
+        @Min(1)
+        private int subscriberQueueCapacity = 256;
+    }
+
+    @Data
+    public static class Executor {
+
+        /**
+         * Number of threads computing question analytics, and so the most database connections
+         * they hold at once.
+         */
+        @Min(1)
+        private int threads = 4;
+
+        /**
+         * Question analytics waiting for a thread before requests compute them themselves.
+         */
+        @Min(1)
+        private int queueCapacity = 256;
+
+        /**
+         * How long shutdown waits for running analytics to finish.
+         */
+        private Duration shutdownTimeout = Duration.ofSeconds(10);
+    }
+}
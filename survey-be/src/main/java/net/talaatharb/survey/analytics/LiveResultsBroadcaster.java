@@ -0,0 +1,234 @@
+package net.talaatharb.survey.analytics;
+
+import net.talaatharb.survey.dto.SurveyAnalyticsDto.DailySubmissionCount;
+import net.talaatharb.survey.dto.SurveyResultsDeltaDto;
+import net.talaatharb.survey.dto.SurveyResultsDeltaDto.OptionDelta;
+import net.talaatharb.survey.dto.SurveyResultsDeltaDto.QuestionDelta;
+import net.talaatharb.survey.event.SubmissionsCountedEvent;
+import net.talaatharb.survey.ingestion.SubmissionRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes analytics deltas of committed submissions to clients watching survey results live.
+ * <p>
+ * Each batch of committed submissions is folded into one delta per watched survey, so the work per
+ * submission does not depend on the number of watchers. Publishing only queues the delta for each
+ * watcher; a per-watcher sender, running on a virtual thread, writes the queue out to the client,
+ * so a slow client never holds up submissions or other watchers. A client whose queue overflows is
+ * disconnected, as it has missed deltas and has to reload the results anyway.
+ * <p>
+ * Deltas carry the sequence the aggregate store numbered their submissions with. A client loading
+ * the results after subscribing applies only the deltas numbered above the sequence of the loaded
+ * results, as those below are already counted in them.
+ */
+@Component
+public class LiveResultsBroadcaster implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(LiveResultsBroadcaster.class);
+
+    static final String DELTA_EVENT = "delta";
+
+    private final AnalyticsProperties.Live properties;
+
+    private final ConcurrentMap<UUID, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    private ExecutorService senders;
+    private ScheduledExecutorService heartbeat;
+    private volatile boolean running;
+
+    public LiveResultsBroadcaster(AnalyticsProperties properties) {
+        this.properties = properties.getLive();
+    }
+
+    /**
+     * Start streaming the deltas of a survey to a new client.
+     */
+    public SseEmitter subscribe(UUID surveyId) {
+        SseEmitter emitter = new SseEmitter(properties.getTimeout().toMillis());
+        Subscriber subscriber = new Subscriber(surveyId, emitter,
+                new ArrayBlockingQueue<>(properties.getSubscriberQueueCapacity()));
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+        subscribers.compute(surveyId, (id, watchers) -> {
+            Set<Subscriber> updated = watchers != null ? watchers : ConcurrentHashMap.newKeySet();
+            updated.add(subscriber);
+            return updated;
+        });
+
+        // Lets the client know it is subscribed, so it can load the results the deltas apply to
+        offer(subscriber, SseEmitter.event().comment("subscribed"));
+        return emitter;
+    }
+
+    @EventListener
+    public void onSubmissionsCounted(SubmissionsCountedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        Map<UUID, SurveyAggregates> deltas = new HashMap<>();
+        for (SubmissionRecord submission : event.submissions()) {
+            if (subscribers.containsKey(submission.getSurveyId())) {
+                deltas.computeIfAbsent(submission.getSurveyId(), SurveyAggregates::new).record(submission);
+            }
+        }
+        deltas.values().forEach(delta -> {
+            delta.setSequence(event.sequence());
+            publish(delta.getSurveyId(), toDelta(delta));
+        });
+    }
+
+    /**
+     * Queue a delta for every client watching a survey.
+     */
+    void publish(UUID surveyId, SurveyResultsDeltaDto delta) {
+        Set<Subscriber> watchers = subscribers.get(surveyId);
+        if (watchers == null) {
+            return;
+        }
+        for (Subscriber subscriber : watchers) {
+            offer(subscriber, SseEmitter.event().name(DELTA_EVENT).data(delta, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    private void offer(Subscriber subscriber, SseEventBuilder event) {
+        if (!subscriber.queue().offer(event)) {
+            log.debug("Disconnecting a slow live results client of survey {}", subscriber.surveyId());
+            remove(subscriber);
+            subscriber.emitter().complete();
+            return;
+        }
+        if (running && subscriber.sending().compareAndSet(false, true)) {
+            senders.execute(() -> send(subscriber));
+        }
+    }
+
+    /**
+     * Write out the queue of a client. Runs for one client at a time, so events keep their order.
+     */
+    private void send(Subscriber subscriber) {
+        do {
+            SseEventBuilder event;
+            while ((event = subscriber.queue().poll()) != null) {
+                try {
+                    subscriber.emitter().send(event);
+                } catch (IOException | IllegalStateException e) {
+                    remove(subscriber);
+                    subscriber.emitter().completeWithError(e);
+                    return;
+                }
+            }
+            subscriber.sending().set(false);
+            // An event queued after the last poll but before the flag was cleared has no sender yet
+        } while (!subscriber.queue().isEmpty() && subscriber.sending().compareAndSet(false, true));
+    }
+
+    private void sendHeartbeats() {
+        subscribers.values().forEach(watchers ->
+                watchers.forEach(subscriber -> offer(subscriber, SseEmitter.event().comment("heartbeat"))));
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.surveyId(), (id, watchers) -> {
+            watchers.remove(subscriber);
+            return watchers.isEmpty() ? null : watchers;
+        });
+    }
+
+    static SurveyResultsDeltaDto toDelta(SurveyAggregates delta) {
+        List<QuestionDelta> questions = new ArrayList<>();
+        delta.getAnswerCounts().forEach((questionId, count) -> questions.add(QuestionDelta.builder()
+                .questionId(questionId)
+                .newResponses(count)
+                .optionCounts(delta.getOptionCounts().containsKey(questionId)
+                        ? delta.getOptionCounts(questionId).entrySet().stream()
+                                .map(entry -> OptionDelta.builder()
+                                        .optionId(entry.getKey())
+                                        .label(delta.getOptionLabel(entry.getKey()))
+                                        .count(entry.getValue())
+                                        .build())
+                                .toList()
+                        : null)
+                .scaleDistribution(delta.getScaleCounts().containsKey(questionId)
+                        ? delta.getScaleCounts(questionId)
+                        : null)
+                .build()));
+
+        return SurveyResultsDeltaDto.builder()
+                .surveyId(delta.getSurveyId())
+                .sequence(delta.getSequence())
+                .newSubmissions(delta.getTotalSubmissions())
+                .submissionsOverTime(delta.getSubmissionsPerDay().entrySet().stream()
+                        .map(entry -> DailySubmissionCount.builder()
+                                .date(entry.getKey().toString())
+                                .count(entry.getValue())
+                                .build())
+                        .toList())
+                .questions(questions)
+                .build();
+    }
+
+    @Override
+    public void start() {
+        if (running) {
+            return;
+        }
+        senders = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("live-results-sender-", 0).factory());
+        heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "live-results-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getHeartbeatInterval().toMillis();
+        heartbeat.scheduleWithFixedDelay(this::sendHeartbeats, interval, interval, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        heartbeat.shutdownNow();
+        senders.shutdownNow();
+        subscribers.values().forEach(watchers -> watchers.forEach(subscriber -> subscriber.emitter().complete()));
+        subscribers.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private record Subscriber(UUID surveyId, SseEmitter emitter, Queue<SseEventBuilder> queue, AtomicBoolean sending) {
+
+        Subscriber(UUID surveyId, SseEmitter emitter, Queue<SseEventBuilder> queue) {
+            this(surveyId, emitter, queue, new AtomicBoolean());
+        }
+    }
+}
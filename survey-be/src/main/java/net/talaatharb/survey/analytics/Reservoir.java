@@ -0,0 +1,58 @@
+package net.talaatharb.survey.analytics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Uniform random sample of a stream of unknown length, holding at most {@code size} elements.
+ * <p>
+ * Uses reservoir sampling: the first {@code size} elements are kept, and the n-th element after
+ * that replaces a random kept element with probability {@code size / n}.
+ */
+public final class Reservoir<T> {
+
+    private final int size;
+    private final RandomGenerator random;
+    private final List<T> sample;
+    private long seen;
+
+    public Reservoir(int size, RandomGenerator random) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Reservoir size must not be negative");
+        }
+        this.size = size;
+        this.random = random;
+        this.sample = new ArrayList<>(size);
+    }
+
+    /**
+     * Offer the next element of the stream.
+     */
+    public void offer(T element) {
+        seen++;
+        if (sample.size() < size) {
+            sample.add(element);
+            return;
+        }
+        long slot = random.nextLong(seen);
+        if (slot < size) {
+            sample.set((int) slot, element);
+        }
+    }
+
+    /**
+     * Number of elements offered so far.
+     */
+    public long getSeen() {
+        return seen;
+    }
+
+    /**
+     * The sampled elements, in no particular order.
+     */
+    public List<T> getSample() {
+        return Collections.unmodifiableList(sample);
+    }
+}
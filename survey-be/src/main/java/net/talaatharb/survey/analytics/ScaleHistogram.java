@@ -0,0 +1,138 @@
+package net.talaatharb.survey.analytics;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Distribution of integer answers held as sorted value/count pairs.
+ * <p>
+ * All statistics are computed from the counts, so the cost depends on the number of distinct
+ * values rather than on the number of answers. Quantiles interpolate linearly between the two
+ * closest ranks, which makes the median the mean of the two middle answers for an even count.
+ */
+public final class ScaleHistogram {
+
+    private final int[] values;
+    private final long[] counts;
+    private final long total;
+
+    private ScaleHistogram(int[] values, long[] counts) {
+        this.values = values;
+        this.counts = counts;
+        long sum = 0;
+        for (long count : counts) {
+            sum += count;
+        }
+        this.total = sum;
+    }
+
+    /**
+     * Build a histogram from a value to count distribution. Values with no answers are ignored.
+     */
+    public static ScaleHistogram of(Map<Integer, Long> distribution) {
+        int size = 0;
+        int[] values = new int[distribution.size()];
+        for (Map.Entry<Integer, Long> entry : distribution.entrySet()) {
+            if (entry.getKey() != null && entry.getValue() != null && entry.getValue() > 0) {
+                values[size++] = entry.getKey();
+            }
+        }
+        values = Arrays.copyOf(values, size);
+        Arrays.sort(values);
+
+        long[] counts = new long[size];
+        for (int i = 0; i < size; i++) {
+            counts[i] = distribution.get(values[i]);
+        }
+        return new ScaleHistogram(values, counts);
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return total == 0;
+    }
+
+    /**
+     * Arithmetic mean, or null if there are no answers.
+     */
+    public Double mean() {
+        if (isEmpty()) {
+            return null;
+        }
+        double sum = 0;
+        for (int i = 0; i < values.length; i++) {
+            sum += (double) values[i] * counts[i];
+        }
+        return sum / total;
+    }
+
+    /**
+     * Population standard deviation, or null if there are no answers.
+     */
+    public Double standardDeviation() {
+        if (isEmpty()) {
+            return null;
+        }
+        double mean = mean();
+        double squares = 0;
+        for (int i = 0; i < values.length; i++) {
+            double deviation = values[i] - mean;
+            squares += deviation * deviation * counts[i];
+        }
+        return Math.sqrt(squares / total);
+    }
+
+    public Double median() {
+        return quantile(0.5);
+    }
+
+    /**
+     * Quantile for a fraction between 0 and 1, or null if there are no answers.
+     */
+    public Double quantile(double fraction) {
+        if (fraction < 0 || fraction > 1) {
+            throw new IllegalArgumentException("Quantile fraction must be between 0 and 1: " + fraction);
+        }
+        if (isEmpty()) {
+            return null;
+        }
+        double rank = fraction * (total - 1);
+        long lowerRank = (long) Math.floor(rank);
+        int lower = valueAt(lowerRank);
+        if (rank == lowerRank) {
+            return (double) lower;
+        }
+        int upper = valueAt(lowerRank + 1);
+        return lower + (rank - lowerRank) * (upper - lower);
+    }
+
+    /**
+     * Number of answers with a value between {@code min} and {@code max}, inclusive.
+     */
+    public long countBetween(int min, int max) {
+        long count = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] >= min && values[i] <= max) {
+                count += counts[i];
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Value of the answer at a zero-based rank in sorted order.
+     */
+    private int valueAt(long rank) {
+        long seen = 0;
+        for (int i = 0; i < values.length; i++) {
+            seen += counts[i];
+            if (rank < seen) {
+                return values[i];
+            }
+        }
+        return values[values.length - 1];
+    }
+}
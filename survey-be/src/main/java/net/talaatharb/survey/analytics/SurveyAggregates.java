@@ -0,0 +1,196 @@
+package net.talaatharb.survey.analytics;
+
+import net.talaatharb.survey.ingestion.SubmissionRecord;
+import net.talaatharb.survey.ingestion.SubmissionRecord.AnswerRecord;
+import net.talaatharb.survey.ingestion.SubmissionRecord.SelectedOptionRecord;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Pre-aggregated analytics of a survey: submissions per day, answers per question, selections per
+ * option and answers per linear scale value.
+ * <p>
+ * Selections are counted per option ID, whatever label the option was selected under, so that
+ * relabelling an option keeps its counts together. The latest label recorded for each option is
+ * kept alongside, for options no longer on their question.
+ * <p>
+ * Used both for the persisted totals and for deltas not yet persisted. Instances are not
+ * thread-safe.
+ */
+public class SurveyAggregates {
+
+    private final UUID surveyId;
+    private final SortedMap<LocalDate, Long> submissionsPerDay = new TreeMap<>();
+    private final Map<UUID, Long> answerCounts = new HashMap<>();
+    private final Map<UUID, Map<UUID, Long>> optionCounts = new HashMap<>();
+    private final Map<UUID, String> optionLabels = new HashMap<>();
+    private final Map<UUID, SortedMap<Integer, Long>> scaleCounts = new HashMap<>();
+    private long sequence;
+
+    public SurveyAggregates(UUID surveyId) {
+        this.surveyId = surveyId;
+    }
+
+    public UUID getSurveyId() {
+        return surveyId;
+    }
+
+    /**
+     * Sequence number of the last batch of submissions these aggregates include, as numbered by the
+     * {@link AnalyticsAggregateStore}.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public long getTotalSubmissions() {
+        long total = 0;
+        for (long count : submissionsPerDay.values()) {
+            total += count;
+        }
+        return total;
+    }
+
+    public SortedMap<LocalDate, Long> getSubmissionsPerDay() {
+        return Collections.unmodifiableSortedMap(submissionsPerDay);
+    }
+
+    public Map<UUID, Long> getAnswerCounts() {
+        return Collections.unmodifiableMap(answerCounts);
+    }
+
+    public long getAnswerCount(UUID questionId) {
+        return answerCounts.getOrDefault(questionId, 0L);
+    }
+
+    public Map<UUID, Map<UUID, Long>> getOptionCounts() {
+        return Collections.unmodifiableMap(optionCounts);
+    }
+
+    /**
+     * Selections per option ID of a question.
+     */
+    public Map<UUID, Long> getOptionCounts(UUID questionId) {
+        return Collections.unmodifiableMap(optionCounts.getOrDefault(questionId, Map.of()));
+    }
+
+    /**
+     * The latest label an option was recorded with.
+     */
+    public String getOptionLabel(UUID optionId) {
+        return optionLabels.get(optionId);
+    }
+
+    public Map<UUID, SortedMap<Integer, Long>> getScaleCounts() {
+        return Collections.unmodifiableMap(scaleCounts);
+    }
+
+    public SortedMap<Integer, Long> getScaleCounts(UUID questionId) {
+        return Collections.unmodifiableSortedMap(scaleCounts.getOrDefault(questionId, Collections.emptySortedMap()));
+    }
+
+    public boolean isEmpty() {
+        return submissionsPerDay.isEmpty() && answerCounts.isEmpty() && optionCounts.isEmpty() && scaleCounts.isEmpty();
+    }
+
+    /**
+     * Add a submission to this survey's aggregates.
+     */
+    public void record(SubmissionRecord submission) {
+        addSubmissions(submission.getSubmittedAt().toLocalDate(), 1);
+        for (AnswerRecord answer : submission.getAnswers()) {
+            addAnswers(answer.getQuestionId(), 1);
+            if (answer.getNumericAnswer() != null) {
+                addScaleValue(answer.getQuestionId(), answer.getNumericAnswer(), 1);
+            }
+            for (SelectedOptionRecord option : answer.getSelectedOptions()) {
+                addSelections(answer.getQuestionId(), option.getOptionId(), option.getLabel(), 1);
+            }
+        }
+    }
+
+    public void addSubmissions(LocalDate date, long count) {
+        submissionsPerDay.merge(date, count, Long::sum);
+    }
+
+    public void addAnswers(UUID questionId, long count) {
+        answerCounts.merge(questionId, count, Long::sum);
+    }
+
+    /**
+     * Add selections of an option, recording the label as its latest one.
+     */
+    public void addSelections(UUID questionId, UUID optionId, String label, long count) {
+        optionCounts.computeIfAbsent(questionId, id -> new HashMap<>()).merge(optionId, count, Long::sum);
+        if (label != null) {
+            optionLabels.put(optionId, label);
+        }
+    }
+
+    public void addScaleValue(UUID questionId, int value, long count) {
+        scaleCounts.computeIfAbsent(questionId, id -> new TreeMap<>()).merge(value, count, Long::sum);
+    }
+
+    /**
+     * Add all counts of another instance to this one, taking its labels as the latest.
+     */
+    public void addAll(SurveyAggregates other) {
+        other.submissionsPerDay.forEach(this::addSubmissions);
+        other.answerCounts.forEach(this::addAnswers);
+        other.optionCounts.forEach((questionId, options) -> options.forEach((optionId, count) ->
+                addSelections(questionId, optionId, other.optionLabels.get(optionId), count)));
+        other.scaleCounts.forEach((questionId, values) ->
+                values.forEach((value, count) -> addScaleValue(questionId, value, count)));
+    }
+
+    public SurveyAggregates copy() {
+        SurveyAggregates copy = new SurveyAggregates(surveyId);
+        copy.addAll(this);
+        copy.sequence = sequence;
+        return copy;
+    }
+
+    /**
+     * Count the entries whose value differs from the corresponding entry of another instance,
+     * including entries present in only one of them.
+     */
+    public int countDifferences(SurveyAggregates other) {
+        int differences = countDifferences(submissionsPerDay, other.submissionsPerDay)
+                + countDifferences(answerCounts, other.answerCounts);
+        Set<UUID> questionIds = new HashSet<>(optionCounts.keySet());
+        questionIds.addAll(other.optionCounts.keySet());
+        for (UUID questionId : questionIds) {
+            differences += countDifferences(getOptionCounts(questionId), other.getOptionCounts(questionId));
+        }
+        questionIds = new HashSet<>(scaleCounts.keySet());
+        questionIds.addAll(other.scaleCounts.keySet());
+        for (UUID questionId : questionIds) {
+            differences += countDifferences(getScaleCounts(questionId), other.getScaleCounts(questionId));
+        }
+        return differences;
+    }
+
+    private static <K> int countDifferences(Map<K, Long> left, Map<K, Long> right) {
+        Set<K> keys = new HashSet<>(left.keySet());
+        keys.addAll(right.keySet());
+        int differences = 0;
+        for (K key : keys) {
+            if (left.getOrDefault(key, 0L).longValue() != right.getOrDefault(key, 0L).longValue()) {
+                differences++;
+            }
+        }
+        return differences;
+    }
+}
@@ -0,0 +1,22 @@
+package net.talaatharb.survey.analytics;
+
+/**
+ * How text answers are picked as samples for SHORT_ANSWER and PARAGRAPH questions.
+ */
+public enum TextSampleStrategy {
+
+    /**
+     * The most recently submitted answers.
+     */
+    LATEST,
+
+    /**
+     * A uniformly random selection of all answers.
+     */
+    RANDOM,
+
+    /**
+     * The longest answers.
+     */
+    LONGEST
+}
@@ -0,0 +1,79 @@
+package net.talaatharb.survey.cache;
+
+import lombok.Builder;
+import lombok.Value;
+import net.talaatharb.survey.entity.AnswerType;
+import net.talaatharb.survey.entity.QuestionType;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Immutable, pre-resolved view of a published survey used to validate and persist submissions
+ * without touching the database.
+ */
+@Value
+@Builder
+public class CompiledSurveySchema {
+
+    UUID surveyId;
+
+    /**
+     * Snapshot version the schema was compiled from.
+     */
+    int version;
+
+    /**
+     * Visible questions keyed by question ID, in survey order.
+     */
+    Map<UUID, CompiledQuestion> questions;
+
+    public CompiledQuestion getQuestion(UUID questionId) {
+        return questions.get(questionId);
+    }
+
+    public Collection<CompiledQuestion> getQuestionList() {
+        return questions.values();
+    }
+
+    /**
+     * Immutable, pre-resolved view of a single question within a survey.
+     */
+    @Value
+    @Builder
+    public static class CompiledQuestion {
+
+        UUID questionId;
+
+        /**
+         * Label shown in this survey, considering the link override.
+         */
+        String effectiveLabel;
+
+        QuestionType type;
+
+        AnswerType answerType;
+
+        boolean required;
+
+        Integer maxLength;
+
+        Integer scaleMinValue;
+
+        Integer scaleMaxValue;
+
+        /**
+         * Option labels keyed by option ID, in option order.
+         */
+        Map<UUID, String> optionLabels;
+
+        public boolean hasOption(UUID optionId) {
+            return optionLabels.containsKey(optionId);
+        }
+
+        public String getOptionLabel(UUID optionId) {
+            return optionLabels.get(optionId);
+        }
+    }
+}
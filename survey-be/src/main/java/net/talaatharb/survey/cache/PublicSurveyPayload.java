@@ -0,0 +1,7 @@
+package net.talaatharb.survey.cache;
+
+/**
+ * Rendered JSON of a public survey together with its strong entity tag.
+ */
+public record PublicSurveyPayload(byte[] body, String etag) {
+}
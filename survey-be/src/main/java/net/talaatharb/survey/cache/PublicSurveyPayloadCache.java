@@ -0,0 +1,64 @@
+package net.talaatharb.survey.cache;
+
+import lombok.RequiredArgsConstructor;
+import net.talaatharb.survey.entity.SurveySnapshotEntity;
+import net.talaatharb.survey.event.SurveyDefinitionChangedEvent;
+import net.talaatharb.survey.exception.ForbiddenException;
+import net.talaatharb.survey.service.SurveySnapshotService;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-process cache of the serialized public view of published surveys.
+ * <p>
+ * The published snapshot already holds the rendered JSON, so it is served as-is, with an entity
+ * tag derived from its content so clients can revalidate with {@code If-None-Match}. Entries are
+ * dropped once a transaction that changed the survey definition commits.
+ */
+@Component
+@RequiredArgsConstructor
+public class PublicSurveyPayloadCache {
+
+    private static final int ETAG_BYTES = 16;
+
+    private final SurveySnapshotService snapshotService;
+
+    private final ConcurrentMap<UUID, PublicSurveyPayload> payloads = new ConcurrentHashMap<>();
+
+    /**
+     * Get the rendered public view of a published survey.
+     *
+     * @throws net.talaatharb.survey.exception.ForbiddenException if the survey is not available
+     */
+    public PublicSurveyPayload get(UUID surveyId) {
+        return payloads.computeIfAbsent(surveyId, this::render);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSurveyDefinitionChanged(SurveyDefinitionChangedEvent event) {
+        payloads.remove(event.surveyId());
+    }
+
+    private PublicSurveyPayload render(UUID surveyId) {
+        byte[] body = snapshotService.getPublishedSnapshot(surveyId)
+                .map(SurveySnapshotEntity::getDefinition)
+                .orElseThrow(() -> new ForbiddenException("Survey is not available"));
+        return new PublicSurveyPayload(body, etag(body));
+    }
+
+    private static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + HexFormat.of().formatHex(digest, 0, ETAG_BYTES) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
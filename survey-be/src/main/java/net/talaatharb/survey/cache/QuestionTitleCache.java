@@ -0,0 +1,131 @@
+package net.talaatharb.survey.cache;
+
+import lombok.RequiredArgsConstructor;
+import net.talaatharb.survey.dto.PublicSurveyDto.PublicQuestionDto;
+import net.talaatharb.survey.event.QuestionChangedEvent;
+import net.talaatharb.survey.repository.QuestionRepository;
+import net.talaatharb.survey.repository.SurveySnapshotRepository;
+import net.talaatharb.survey.service.SurveySnapshotService;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process dictionary of question titles used to label answers.
+ * <p>
+ * Titles as respondents saw them are read from survey snapshots. Snapshots are immutable, so these
+ * are never stale; only the most recently used snapshots are kept. Titles from the question bank
+ * serve as a fallback for answers that predate snapshots; they are loaded in bulk on a miss and
+ * dropped once a transaction that changed the question commits. A load that raced such an eviction
+ * is not kept, as it may have read the title from before the change.
+ */
+@Component
+@RequiredArgsConstructor
+public class QuestionTitleCache {
+
+    private static final int MAX_SNAPSHOTS = 1024;
+
+    private final SurveySnapshotRepository snapshotRepository;
+    private final SurveySnapshotService snapshotService;
+    private final QuestionRepository questionRepository;
+
+    private final Map<SnapshotKey, Map<UUID, String>> snapshotTitles = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<SnapshotKey, Map<UUID, String>> eldest) {
+            return size() > MAX_SNAPSHOTS;
+        }
+    };
+    private final ConcurrentMap<UUID, String> bankTitles = new ConcurrentHashMap<>();
+    private final AtomicLong bankEvictions = new AtomicLong();
+
+    /**
+     * Get the titles of the questions of a survey snapshot, keyed by question ID.
+     * Empty if the snapshot does not exist.
+     */
+    public Map<UUID, String> getSnapshotTitles(UUID surveyId, int version) {
+        SnapshotKey key = new SnapshotKey(surveyId, version);
+        Map<UUID, String> titles;
+        synchronized (snapshotTitles) {
+            titles = snapshotTitles.get(key);
+        }
+        if (titles == null) {
+            // Loaded outside the lock; concurrent loads of a snapshot read the same titles
+            titles = loadSnapshotTitles(key);
+            synchronized (snapshotTitles) {
+                snapshotTitles.putIfAbsent(key, titles);
+            }
+        }
+        return titles;
+    }
+
+    /**
+     * Get the current question bank titles of the given questions, loading the missing ones in one query.
+     * Unknown questions are left out.
+     */
+    public Map<UUID, String> getBankTitles(Collection<UUID> questionIds) {
+        Map<UUID, String> titles = new HashMap<>();
+        List<UUID> missing = questionIds.stream()
+                .distinct()
+                .filter(questionId -> {
+                    String title = bankTitles.get(questionId);
+                    if (title != null) {
+                        titles.put(questionId, title);
+                    }
+                    return title == null;
+                })
+                .toList();
+
+        if (!missing.isEmpty()) {
+            long evictions = bankEvictions.get();
+            Map<UUID, String> loaded = new HashMap<>();
+            for (Object[] row : questionRepository.findTitlesByIdIn(missing)) {
+                loaded.put((UUID) row[0], (String) row[1]);
+            }
+            bankTitles.putAll(loaded);
+            // An eviction since the query may have been for a title it read before the change
+            if (bankEvictions.get() != evictions) {
+                loaded.forEach(bankTitles::remove);
+            }
+            titles.putAll(loaded);
+        }
+        return titles;
+    }
+
+    /**
+     * Drop the cached bank title of a question.
+     */
+    public void evict(UUID questionId) {
+        bankEvictions.incrementAndGet();
+        bankTitles.remove(questionId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onQuestionChanged(QuestionChangedEvent event) {
+        evict(event.questionId());
+    }
+
+    private Map<UUID, String> loadSnapshotTitles(SnapshotKey key) {
+        return snapshotRepository.findBySurveyIdAndVersion(key.surveyId(), key.version())
+                .map(snapshot -> {
+                    Map<UUID, String> titles = new LinkedHashMap<>();
+                    for (PublicQuestionDto question : snapshotService.readDefinition(snapshot).getQuestions()) {
+                        titles.put(question.getQuestionId(), question.getTitle());
+                    }
+                    return Collections.unmodifiableMap(titles);
+                })
+                .orElse(Map.of());
+    }
+
+    private record SnapshotKey(UUID surveyId, int version) {
+    }
+}
@@ -0,0 +1,199 @@
+package net.talaatharb.survey.cache;
+
+import net.talaatharb.survey.analytics.AnalyticsProperties;
+import net.talaatharb.survey.dto.SurveyAnalyticsDto;
+import net.talaatharb.survey.event.SurveyDefinitionChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * In-process cache of computed survey analytics.
+ * <p>
+ * Concurrent requests for the analytics of a survey share a single computation. A result is fresh
+ * while the survey's response count is the one it was computed for and it is younger than the
+ * TTL; past that it is still served for a while, stale, while a background thread recomputes it.
+ * Results too old to serve stale are recomputed before answering. Entries are dropped once a
+ * transaction that changed the survey definition commits.
+ */
+@Component
+public class SurveyAnalyticsCache implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(SurveyAnalyticsCache.class);
+
+    private static final int REFRESH_QUEUE_CAPACITY = 1024;
+
+    private final AnalyticsProperties.Cache properties;
+
+    private final ConcurrentMap<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentMap<UUID, CompletableFuture<Entry>> inFlight = new ConcurrentHashMap<>();
+    private final Set<UUID> queuedRefreshes = ConcurrentHashMap.newKeySet();
+
+    private ThreadPoolExecutor refresher;
+    private volatile boolean running;
+
+    public SurveyAnalyticsCache(AnalyticsProperties properties) {
+        this.properties = properties.getCache();
+    }
+
+    /**
+     * Get the analytics of a survey, computing them if there is no result fit to serve.
+     *
+     * @param responseCount the current number of responses to the survey
+     * @param compute       computes the analytics; runs on a background thread for refreshes
+     */
+    public SurveyAnalyticsDto get(UUID surveyId, long responseCount, Supplier<SurveyAnalyticsDto> compute) {
+        if (!properties.isEnabled()) {
+            return compute.get();
+        }
+
+        Entry entry = entries.get(surveyId);
+        if (entry != null) {
+            long age = System.nanoTime() - entry.computedAt();
+            if (entry.responseCount() == responseCount && age < properties.getTtl().toNanos()) {
+                return entry.analytics();
+            }
+            if (age < properties.getTtl().plus(properties.getStaleWhileRevalidate()).toNanos()) {
+                refreshInBackground(surveyId, responseCount, compute);
+                return entry.analytics();
+            }
+        }
+        return load(surveyId, responseCount, compute).analytics();
+    }
+
+    /**
+     * Compute the analytics of a survey now, for callers that must not see a result computed before
+     * the call, such as clients resynchronizing with the results stream. Only computations started
+     * after this call are shared with it, and the result replaces the cached one.
+     */
+    public SurveyAnalyticsDto refresh(UUID surveyId, long responseCount, Supplier<SurveyAnalyticsDto> compute) {
+        if (!properties.isEnabled()) {
+            return compute.get();
+        }
+        // A computation already running may predate the call; it is not cached and not waited for
+        inFlight.remove(surveyId);
+        return load(surveyId, responseCount, compute).analytics();
+    }
+
+    /**
+     * Drop the cached analytics of a survey. A computation already running for it is not cached,
+     * and later requests do not wait for it.
+     */
+    public void evict(UUID surveyId) {
+        inFlight.remove(surveyId);
+        entries.remove(surveyId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSurveyDefinitionChanged(SurveyDefinitionChangedEvent event) {
+        evict(event.surveyId());
+    }
+
+    /**
+     * Compute the analytics of a survey, or wait for the computation already running for it.
+     */
+    private Entry load(UUID surveyId, long responseCount, Supplier<SurveyAnalyticsDto> compute) {
+        CompletableFuture<Entry> flight = new CompletableFuture<>();
+        CompletableFuture<Entry> current = inFlight.putIfAbsent(surveyId, flight);
+        if (current != null) {
+            return await(current);
+        }
+        try {
+            Entry entry = new Entry(compute.get(), responseCount, System.nanoTime());
+            inFlight.computeIfPresent(surveyId, (id, registered) -> {
+                if (registered == flight) {
+                    entries.put(surveyId, entry);
+                }
+                return registered;
+            });
+            flight.complete(entry);
+            return entry;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(surveyId, flight);
+        }
+    }
+
+    private void refreshInBackground(UUID surveyId, long responseCount, Supplier<SurveyAnalyticsDto> compute) {
+        if (!running || inFlight.containsKey(surveyId) || !queuedRefreshes.add(surveyId)) {
+            return;
+        }
+        try {
+            refresher.execute(() -> {
+                queuedRefreshes.remove(surveyId);
+                try {
+                    if (!inFlight.containsKey(surveyId)) {
+                        load(surveyId, responseCount, compute);
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Failed to refresh the analytics of survey {}", surveyId, e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Keep serving the stale result; a later request queues the refresh again
+            queuedRefreshes.remove(surveyId);
+        }
+    }
+
+    private static Entry await(CompletableFuture<Entry> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isEnabled() || running) {
+            return;
+        }
+        AtomicInteger threads = new AtomicInteger();
+        int size = properties.getRefreshThreads();
+        refresher = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(REFRESH_QUEUE_CAPACITY), runnable -> {
+                    Thread thread = new Thread(runnable, "analytics-cache-refresher-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        refresher.shutdownNow();
+        queuedRefreshes.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private record Entry(SurveyAnalyticsDto analytics, long responseCount, long computedAt) {
+    }
+}
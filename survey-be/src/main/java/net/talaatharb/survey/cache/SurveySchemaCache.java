@@ -0,0 +1,100 @@
+package net.talaatharb.survey.cache;
+
+import lombok.RequiredArgsConstructor;
+import net.talaatharb.survey.cache.CompiledSurveySchema.CompiledQuestion;
+import net.talaatharb.survey.dto.LinearScaleConfigDto;
+import net.talaatharb.survey.dto.PublicSurveyDto.PublicOptionDto;
+import net.talaatharb.survey.dto.PublicSurveyDto.PublicQuestionDto;
+import net.talaatharb.survey.entity.AnswerType;
+import net.talaatharb.survey.entity.SurveySnapshotEntity;
+import net.talaatharb.survey.event.SurveyDefinitionChangedEvent;
+import net.talaatharb.survey.service.SurveySnapshotService;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-process cache of compiled schemas for published surveys.
+ * <p>
+ * Schemas are compiled from the published snapshot on first use and dropped once a transaction that changed the survey
+ * definition commits. Loading happens inside {@link ConcurrentMap#computeIfAbsent}, so an
+ * eviction racing with a load waits for it and removes whatever the load produced.
+ */
+@Component
+@RequiredArgsConstructor
+public class SurveySchemaCache {
+
+    private final SurveySnapshotService snapshotService;
+
+    private final ConcurrentMap<UUID, CompiledSurveySchema> schemas = new ConcurrentHashMap<>();
+
+    /**
+     * Get the compiled schema of a survey that is accepting responses.
+     * Empty if the survey does not exist, is not published or is archived.
+     */
+    public Optional<CompiledSurveySchema> get(UUID surveyId) {
+        return Optional.ofNullable(schemas.computeIfAbsent(surveyId, this::compile));
+    }
+
+    /**
+     * Drop the compiled schema of a survey.
+     */
+    public void evict(UUID surveyId) {
+        schemas.remove(surveyId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSurveyDefinitionChanged(SurveyDefinitionChangedEvent event) {
+        evict(event.surveyId());
+    }
+
+    /**
+     * Compile the schema of a survey from its published snapshot, or return null if it is not
+     * accepting responses.
+     */
+    private CompiledSurveySchema compile(UUID surveyId) {
+        Optional<SurveySnapshotEntity> snapshot = snapshotService.getPublishedSnapshot(surveyId);
+        if (snapshot.isEmpty()) {
+            return null;
+        }
+
+        Map<UUID, CompiledQuestion> questions = new LinkedHashMap<>();
+        for (PublicQuestionDto question : snapshotService.readDefinition(snapshot.get()).getQuestions()) {
+            questions.put(question.getQuestionId(), compileQuestion(question));
+        }
+
+        return CompiledSurveySchema.builder()
+                .surveyId(surveyId)
+                .version(snapshot.get().getVersion())
+                .questions(Collections.unmodifiableMap(questions))
+                .build();
+    }
+
+    private CompiledQuestion compileQuestion(PublicQuestionDto question) {
+        Map<UUID, String> optionLabels = new LinkedHashMap<>();
+        for (PublicOptionDto option : question.getOptions()) {
+            optionLabels.put(option.getId(), option.getLabel());
+        }
+
+        LinearScaleConfigDto scale = question.getLinearScaleConfig();
+
+        return CompiledQuestion.builder()
+                .questionId(question.getQuestionId())
+                .effectiveLabel(question.getTitle())
+                .type(question.getType())
+                .answerType(AnswerType.forQuestionType(question.getType()))
+                .required(Boolean.TRUE.equals(question.getRequired()))
+                .maxLength(question.getMaxLength())
+                .scaleMinValue(scale != null ? scale.getMinValue() : null)
+                .scaleMaxValue(scale != null ? scale.getMaxValue() : null)
+                .optionLabels(Collections.unmodifiableMap(optionLabels))
+                .build();
+    }
+}
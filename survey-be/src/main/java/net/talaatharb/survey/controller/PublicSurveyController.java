@@ -3,11 +3,15 @@ package net.talaatharb.survey.controller;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import net.talaatharb.survey.dto.PublicSurveyDto;
+import net.talaatharb.survey.cache.PublicSurveyPayload;
+import net.talaatharb.survey.cache.PublicSurveyPayloadCache;
 import net.talaatharb.survey.dto.SubmitSurveyResponseDto;
 import net.talaatharb.survey.dto.SurveyResponseDto;
+import net.talaatharb.survey.ingestion.IngestionProperties;
 import net.talaatharb.survey.service.ResponseService;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
@@ -24,18 +28,25 @@ import java.util.UUID;
 public class PublicSurveyController {
 
     private final ResponseService responseService;
+    private final PublicSurveyPayloadCache publicSurveyPayloadCache;
+    private final IngestionProperties ingestionProperties;
 
     /**
-     * Get a published survey for responding.
+     * Get a published survey for responding. Serves the pre-rendered JSON; a request whose
+     * {@code If-None-Match} matches the current entity tag is answered with 304 Not Modified.
      */
-    @GetMapping("/{surveyId}")
-    public ResponseEntity<PublicSurveyDto> getPublicSurvey(@PathVariable UUID surveyId) {
-        PublicSurveyDto survey = responseService.getPublicSurvey(surveyId);
-        return ResponseEntity.ok(survey);
+    @GetMapping(value = "/{surveyId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getPublicSurvey(@PathVariable UUID surveyId) {
+        PublicSurveyPayload payload = publicSurveyPayloadCache.get(surveyId);
+        return ResponseEntity.ok()
+                .eTag(payload.etag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(payload.body());
     }
 
     /**
-     * Submit a response to a survey.
+     * Submit a response to a survey. Answers 202 Accepted when submissions are written behind.
      */
     @PostMapping("/{surveyId}/responses")
     public ResponseEntity<SurveyResponseDto> submitResponse(
@@ -54,7 +65,8 @@ public class PublicSurveyController {
                 .buildAndExpand(response.getId())
                 .toUri();
         
-        return ResponseEntity.status(HttpStatus.CREATED)
+        HttpStatus status = ingestionProperties.isWriteBehind() ? HttpStatus.ACCEPTED : HttpStatus.CREATED;
+        return ResponseEntity.status(status)
                 .location(location)
                 .body(response);
     }
@@ -3,6 +3,7 @@ package net.talaatharb.survey.controller;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import net.talaatharb.survey.dto.QuestionDto;
+import net.talaatharb.survey.exception.ValidationException;
 import net.talaatharb.survey.service.QuestionService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -12,6 +13,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -22,6 +24,8 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class QuestionController {
 
+    private static final int MAX_RANKED_RESULTS = 100;
+
     private final QuestionService questionService;
 
     /**
@@ -35,6 +39,20 @@ public class QuestionController {
         return ResponseEntity.ok(questions);
     }
 
+    /**
+     * Rank questions against a search, best matches first, optionally including misspelled matches.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<QuestionDto>> rankQuestions(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "false") boolean fuzzy,
+            @RequestParam(defaultValue = "20") int limit) {
+        if (limit < 1 || limit > MAX_RANKED_RESULTS) {
+            throw new ValidationException("Limit must be between 1 and " + MAX_RANKED_RESULTS);
+        }
+        return ResponseEntity.ok(questionService.rankQuestions(q, fuzzy, limit));
+    }
+
     /**
      * Get a question by ID.
      */
@@ -1,25 +1,36 @@
 package net.talaatharb.survey.controller;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import net.talaatharb.survey.dto.*;
 import net.talaatharb.survey.exception.ValidationException;
+import net.talaatharb.survey.export.ExportColumn;
+import net.talaatharb.survey.export.SubmissionExportFormat;
 import net.talaatharb.survey.service.AnalyticsService;
+import net.talaatharb.survey.service.AnswerSearchService;
 import net.talaatharb.survey.service.ResponseService;
+import net.talaatharb.survey.service.SubmissionExportService;
+import net.talaatharb.survey.service.SurveyImportService;
 import net.talaatharb.survey.service.SurveyService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * REST controller for managing surveys (admin/editor APIs).
@@ -29,9 +40,14 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class SurveyController {
 
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
     private final SurveyService surveyService;
     private final ResponseService responseService;
     private final AnalyticsService analyticsService;
+    private final SubmissionExportService submissionExportService;
+    private final AnswerSearchService answerSearchService;
+    private final SurveyImportService surveyImportService;
 
     // ==================== Survey CRUD ====================
 
@@ -118,6 +134,17 @@ public class SurveyController {
         return ResponseEntity.ok(link);
     }
 
+    /**
+     * Reorder all question links of a survey.
+     */
+    @PutMapping("/{surveyId}/links/order")
+    public ResponseEntity<Void> reorderQuestionLinks(
+            @PathVariable UUID surveyId,
+            @Valid @RequestBody SurveyQuestionLinkOrderDto dto) {
+        surveyService.reorderQuestionLinks(surveyId, dto);
+        return ResponseEntity.noContent().build();
+    }
+
     /**
      * Remove a question from a survey.
      */
@@ -132,14 +159,51 @@ public class SurveyController {
     // ==================== Results & Analytics ====================
 
     /**
-     * Get analytics for a survey.
+     * Get analytics for a survey. With {@code fresh}, results cached before the request are not served.
      */
     @GetMapping("/{surveyId}/results")
-    public ResponseEntity<SurveyAnalyticsDto> getSurveyAnalytics(@PathVariable UUID surveyId) {
-        SurveyAnalyticsDto analytics = analyticsService.getSurveyAnalytics(surveyId);
+    public ResponseEntity<SurveyAnalyticsDto> getSurveyAnalytics(
+            @PathVariable UUID surveyId,
+            @RequestParam(defaultValue = "false") boolean fresh) {
+        SurveyAnalyticsDto analytics = analyticsService.getSurveyAnalytics(surveyId, fresh);
         return ResponseEntity.ok(analytics);
     }
 
+    /**
+     * Stream analytics deltas as new submissions to a survey are committed (Server-Sent Events).
+     */
+    @GetMapping(value = "/{surveyId}/results/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSurveyResults(@PathVariable UUID surveyId) {
+        return analyticsService.streamResults(surveyId);
+    }
+
+    /**
+     * Recompute the analytics aggregates of a survey from its responses.
+     */
+    @PostMapping("/{surveyId}/results/rebuild")
+    public ResponseEntity<AnalyticsRebuildDto> rebuildSurveyAnalytics(@PathVariable UUID surveyId) {
+        return ResponseEntity.ok(analyticsService.rebuildAggregates(surveyId));
+    }
+
+    /**
+     * Find submissions whose text answers match a query, with highlighted passages.
+     */
+    @GetMapping("/{surveyId}/results/search")
+    public ResponseEntity<AnswerSearchResultDto> searchSubmissions(
+            @PathVariable UUID surveyId,
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(answerSearchService.search(surveyId, q, limit));
+    }
+
+    /**
+     * Recreate the text answer index of a survey from its responses.
+     */
+    @PostMapping("/{surveyId}/results/search/rebuild")
+    public ResponseEntity<AnswerIndexRebuildDto> rebuildSubmissionSearch(@PathVariable UUID surveyId) {
+        return ResponseEntity.ok(answerSearchService.rebuildIndex(surveyId));
+    }
+
     /**
      * Get all submissions for a survey.
      */
@@ -151,6 +215,29 @@ public class SurveyController {
         return ResponseEntity.ok(submissions);
     }
 
+    /**
+     * Get submissions for a survey, newest first, continuing after a cursor from the previous page.
+     * Unlike the paged listing, the cost of a page does not grow with its depth.
+     */
+    @GetMapping("/{surveyId}/results/submissions/scroll")
+    public ResponseEntity<CursorPageDto<SurveyResponseSummaryDto>> scrollSubmissions(
+            @PathVariable UUID surveyId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(responseService.scrollResponsesForSurvey(surveyId, cursor, size, includeTotal));
+    }
+
+    /**
+     * Get several submissions by ID, in the requested order, with their answers and question titles.
+     */
+    @PostMapping("/{surveyId}/results/submissions/batch")
+    public ResponseEntity<List<SurveyResponseDto>> getSubmissionsByIds(
+            @PathVariable UUID surveyId,
+            @RequestBody List<UUID> submissionIds) {
+        return ResponseEntity.ok(responseService.getResponsesByIds(surveyId, submissionIds));
+    }
+
     /**
      * Get a single submission.
      */
@@ -162,6 +249,35 @@ public class SurveyController {
         return ResponseEntity.ok(submission);
     }
 
+    /**
+     * Stream all submissions of a survey as CSV or newline delimited JSON, optionally gzip compressed.
+     */
+    @GetMapping("/{surveyId}/results/export")
+    public ResponseEntity<StreamingResponseBody> exportSubmissions(
+            @PathVariable UUID surveyId,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        SubmissionExportFormat exportFormat = parseExportFormat(format);
+        List<ExportColumn> columns = submissionExportService.getColumns(surveyId);
+
+        StreamingResponseBody body = output -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(output, GZIP_BUFFER_SIZE);
+                submissionExportService.export(surveyId, columns, exportFormat, compressed);
+                compressed.finish();
+            } else {
+                submissionExportService.export(surveyId, columns, exportFormat, output);
+            }
+        };
+
+        String filename = "survey-" + surveyId + "-submissions." + exportFormat.getExtension() + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+
     // ==================== Import/Export ====================
 
     /**
@@ -178,17 +294,26 @@ public class SurveyController {
      * updates existing questions if they do (matched by ID).
      */
     @PostMapping(value = "/import", consumes = "multipart/form-data")
-    public ResponseEntity<SurveyDto> importSurvey(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<SurveyDto> importSurvey(@RequestParam("file") MultipartFile file) throws IOException {
+        SurveyDto survey = surveyImportService.importSurvey(file.getInputStream());
+        return ResponseEntity.status(HttpStatus.CREATED).body(survey);
+    }
+
+    /**
+     * Import a bundle of surveys from a JSON file holding an array of survey exports.
+     */
+    @PostMapping(value = "/import/bundle", consumes = "multipart/form-data")
+    public ResponseEntity<SurveyImportResultDto> importSurveyBundle(@RequestParam("file") MultipartFile file)
+            throws IOException {
+        SurveyImportResultDto result = surveyImportService.importBundle(file.getInputStream());
+        return ResponseEntity.status(HttpStatus.CREATED).body(result);
+    }
+
+    private static SubmissionExportFormat parseExportFormat(String format) {
         try {
-            // Parse JSON from file
-            ObjectMapper objectMapper = new ObjectMapper();
-            SurveyExportDto importData = objectMapper.readValue(file.getInputStream(), SurveyExportDto.class);
-            
-            // Import the survey
-            SurveyDto survey = surveyService.importSurvey(importData);
-            return ResponseEntity.status(HttpStatus.CREATED).body(survey);
-        } catch (IOException e) {
-            throw new ValidationException("Invalid JSON file: " + e.getMessage());
+            return SubmissionExportFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Unsupported export format: " + format);
         }
     }
 }
@@ -0,0 +1,27 @@
+package net.talaatharb.survey.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * DTO for the outcome of recomputing a survey's analytics aggregates from its responses.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsRebuildDto {
+    
+    private UUID surveyId;
+    
+    private Long totalSubmissions;
+    
+    /**
+     * Number of aggregate entries that did not match the responses and were corrected.
+     */
+    private Integer correctedEntries;
+}
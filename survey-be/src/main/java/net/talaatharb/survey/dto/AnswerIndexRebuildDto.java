@@ -0,0 +1,22 @@
+package net.talaatharb.survey.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * DTO for the outcome of rebuilding a survey's text answer index from its responses.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnswerIndexRebuildDto {
+    
+    private UUID surveyId;
+    
+    private Integer indexedAnswers;
+}
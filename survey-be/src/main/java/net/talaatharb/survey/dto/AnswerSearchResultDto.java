@@ -0,0 +1,57 @@
+package net.talaatharb.survey.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO for the submissions of a survey whose text answers match a search query.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnswerSearchResultDto {
+    
+    private UUID surveyId;
+    
+    private String query;
+    
+    /**
+     * Whether the survey's existing answers are still being indexed, so matches may be missing.
+     */
+    private Boolean indexing;
+    
+    /**
+     * Matching submissions, best match first.
+     */
+    private List<SubmissionMatch> submissions;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SubmissionMatch {
+        private UUID submissionId;
+        private Float score;
+        private List<AnswerHighlight> highlights;
+    }
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class AnswerHighlight {
+        private UUID questionId;
+        private String questionTitle;
+        
+        /**
+         * Best passage of the answer, HTML-escaped, with matched terms wrapped in {@code <mark>}.
+         */
+        private String snippet;
+    }
+}
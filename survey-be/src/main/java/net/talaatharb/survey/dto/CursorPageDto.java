@@ -0,0 +1,34 @@
+package net.talaatharb.survey.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for a page of results reached through a continuation cursor instead of an offset.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDto<T> {
+    
+    private List<T> content;
+    
+    private Integer size;
+    
+    /**
+     * Opaque cursor of the next page, or null on the last page.
+     */
+    private String nextCursor;
+    
+    private Boolean hasNext;
+    
+    /**
+     * Total number of elements, only counted when requested.
+     */
+    private Long totalElements;
+}
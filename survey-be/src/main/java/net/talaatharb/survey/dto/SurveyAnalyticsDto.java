@@ -23,6 +23,11 @@ public class SurveyAnalyticsDto {
     
     private String surveyTitle;
     
+    /**
+     * Sequence of the last submissions included; live results deltas up to it are already counted.
+     */
+    private Long sequence;
+    
     private Long totalSubmissions;
     
     /**
@@ -65,6 +70,17 @@ public class SurveyAnalyticsDto {
         private Map<Integer, Long> scaleDistribution;
         private Double scaleAverage;
         private Double scaleMedian;
+        private Double scaleStandardDeviation;
+        
+        /**
+         * For LINEAR_SCALE: configured percentiles keyed by name, e.g. "p90".
+         */
+        private Map<String, Double> scalePercentiles;
+        
+        /**
+         * For LINEAR_SCALE questions on a 0-10 scale: Net Promoter Score breakdown.
+         */
+        private NpsScore nps;
         
         /**
          * For SHORT_ANSWER, PARAGRAPH: sample responses.
@@ -81,5 +97,20 @@ public class SurveyAnalyticsDto {
             private Long count;
             private Double percentage;
         }
+        
+        @Data
+        @Builder
+        @NoArgsConstructor
+        @AllArgsConstructor
+        public static class NpsScore {
+            private Long promoters;
+            private Long passives;
+            private Long detractors;
+            
+            /**
+             * Percentage of promoters minus percentage of detractors, from -100 to 100.
+             */
+            private Double score;
+        }
     }
 }
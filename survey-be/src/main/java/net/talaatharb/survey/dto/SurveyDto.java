@@ -33,10 +33,16 @@ public class SurveyDto {
     
     private Boolean archived;
     
+    private Integer publishedVersion;
+    
     private List<SurveyQuestionLinkDto> questionLinks;
     
     private Integer questionCount;
     
+    private Long responseCount;
+    
+    private LocalDateTime lastSubmittedAt;
+    
     private LocalDateTime createdAt;
     
     private LocalDateTime updatedAt;
@@ -0,0 +1,26 @@
+package net.talaatharb.survey.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO for the outcome of importing a bundle of surveys.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SurveyImportResultDto {
+    
+    private Integer importedSurveys;
+    
+    /**
+     * IDs of the imported surveys, in file order.
+     */
+    private List<UUID> surveyIds;
+}
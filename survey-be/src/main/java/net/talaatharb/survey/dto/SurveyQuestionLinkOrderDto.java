@@ -0,0 +1,26 @@
+package net.talaatharb.survey.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO for reordering all question links of a survey at once.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SurveyQuestionLinkOrderDto {
+
+    /**
+     * IDs of every link of the survey, in their new order.
+     */
+    @NotNull(message = "Link IDs are required")
+    private List<@NotNull UUID> linkIds;
+}
@@ -22,6 +22,8 @@ public class SurveyResponseDto {
     
     private UUID surveyId;
     
+    private Integer snapshotVersion;
+    
     private LocalDateTime submittedAt;
     
     private String submitterId;
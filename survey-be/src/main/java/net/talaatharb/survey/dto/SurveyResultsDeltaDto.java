@@ -0,0 +1,70 @@
+package net.talaatharb.survey.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import net.talaatharb.survey.dto.SurveyAnalyticsDto.DailySubmissionCount;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * DTO for the change to survey analytics made by newly recorded submissions. All counts are
+ * increments, to be added to the analytics a client already holds.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SurveyResultsDeltaDto {
+
+    private UUID surveyId;
+
+    /**
+     * Sequence of the submissions in this delta; analytics with this sequence or a later one include them.
+     */
+    private Long sequence;
+
+    private Long newSubmissions;
+
+    /**
+     * New submissions per day.
+     */
+    private List<DailySubmissionCount> submissionsOverTime;
+
+    /**
+     * Changes per answered question.
+     */
+    private List<QuestionDelta> questions;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class QuestionDelta {
+        private UUID questionId;
+        private Long newResponses;
+
+        /**
+         * For MULTIPLE_CHOICE, CHECKBOXES, DROPDOWN: new selections per option.
+         */
+        private List<OptionDelta> optionCounts;
+
+        /**
+         * For LINEAR_SCALE: new answers per value.
+         */
+        private Map<Integer, Long> scaleDistribution;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class OptionDelta {
+        private UUID optionId;
+        private String label;
+        private Long count;
+    }
+}
@@ -8,5 +8,18 @@ public enum AnswerType {
     SELECTION,
     NUMERIC,
     DATE,
-    TIME
+    TIME;
+
+    /**
+     * Determine the answer type based on question type.
+     */
+    public static AnswerType forQuestionType(QuestionType questionType) {
+        return switch (questionType) {
+            case SHORT_ANSWER, PARAGRAPH -> TEXT;
+            case MULTIPLE_CHOICE, CHECKBOXES, DROPDOWN -> SELECTION;
+            case LINEAR_SCALE -> NUMERIC;
+            case DATE -> DATE;
+            case TIME -> TIME;
+        };
+    }
 }
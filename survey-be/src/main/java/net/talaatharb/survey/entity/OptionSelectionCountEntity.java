@@ -0,0 +1,41 @@
+package net.talaatharb.survey.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.UUID;
+
+/**
+ * Aggregate entity holding how often an option was selected within a survey, whatever its label,
+ * with the latest label it was selected under. Maintained by the analytics aggregate store, not
+ * through JPA.
+ */
+@Entity
+@Table(name = "option_selection_counts",
+       uniqueConstraints = @UniqueConstraint(name = "uk_option_selection_counts_option", columnNames = {"survey_id", "question_id", "option_id"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(of = "id")
+public class OptionSelectionCountEntity {
+
+    @Id
+    @TimeOrderedUuid
+    private UUID id;
+
+    @Column(name = "survey_id", nullable = false)
+    private UUID surveyId;
+
+    @Column(name = "question_id", nullable = false)
+    private UUID questionId;
+
+    @Column(name = "option_id", nullable = false)
+    private UUID optionId;
+
+    @Column(name = "label_snapshot", nullable = false)
+    private String labelSnapshot;
+
+    @Column(name = "selection_count", nullable = false)
+    private long selectionCount;
+}
@@ -0,0 +1,34 @@
+package net.talaatharb.survey.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.UUID;
+
+/**
+ * Aggregate entity holding the number of answers to a question within a survey.
+ * Maintained by the analytics aggregate store, not through JPA.
+ */
+@Entity
+@Table(name = "question_answer_counts",
+       uniqueConstraints = @UniqueConstraint(name = "uk_question_answer_counts", columnNames = {"survey_id", "question_id"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(of = "id")
+public class QuestionAnswerCountEntity {
+
+    @Id
+    @TimeOrderedUuid
+    private UUID id;
+
+    @Column(name = "survey_id", nullable = false)
+    private UUID surveyId;
+
+    @Column(name = "question_id", nullable = false)
+    private UUID questionId;
+
+    @Column(name = "answer_count", nullable = false)
+    private long answerCount;
+}
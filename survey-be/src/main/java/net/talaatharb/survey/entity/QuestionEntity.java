@@ -24,7 +24,7 @@ import java.util.UUID;
 public class QuestionEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     private UUID id;
 
     @Column(nullable = false)
@@ -21,7 +21,7 @@ import java.util.UUID;
 public class QuestionOptionEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
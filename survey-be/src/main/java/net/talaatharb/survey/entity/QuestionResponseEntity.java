@@ -2,6 +2,7 @@ package net.talaatharb.survey.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
@@ -16,7 +17,9 @@ import java.util.UUID;
 @Table(name = "question_responses",
        indexes = {
            @Index(name = "idx_question_responses_question", columnList = "question_id"),
-           @Index(name = "idx_question_responses_survey_response", columnList = "survey_response_id")
+           @Index(name = "idx_question_responses_survey_response", columnList = "survey_response_id"),
+           @Index(name = "idx_question_responses_survey_question_numeric",
+                  columnList = "survey_id, question_id, numeric_answer")
        })
 @Data
 @Builder
@@ -27,13 +30,20 @@ import java.util.UUID;
 public class QuestionResponseEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "survey_response_id", nullable = false)
     private SurveyResponseEntity surveyResponse;
 
+    /**
+     * Survey of the owning submission, copied at submit time so analytics can filter
+     * without joining survey_responses. Backfilled for rows written before it existed.
+     */
+    @Column(name = "survey_id")
+    private UUID surveyId;
+
     @Column(name = "question_id", nullable = false)
     private UUID questionId;
 
@@ -63,6 +73,7 @@ public class QuestionResponseEntity {
      * Stored with label snapshot for historical accuracy.
      */
     @Builder.Default
+    @BatchSize(size = 100)
     @OneToMany(mappedBy = "questionResponse", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<QuestionResponseSelectedOptionEntity> selectedOptions = new ArrayList<>();
 
@@ -13,7 +13,9 @@ import java.util.UUID;
 @Table(name = "question_response_selected_options",
        indexes = {
            @Index(name = "idx_qrso_question_response", columnList = "question_response_id"),
-           @Index(name = "idx_qrso_option", columnList = "option_id")
+           @Index(name = "idx_qrso_option", columnList = "option_id"),
+           @Index(name = "idx_qrso_survey_question_option",
+                  columnList = "survey_id, question_id, option_id, label_snapshot")
        })
 @Data
 @Builder
@@ -24,13 +26,23 @@ import java.util.UUID;
 public class QuestionResponseSelectedOptionEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "question_response_id", nullable = false)
     private QuestionResponseEntity questionResponse;
 
+    /**
+     * Survey and question of the owning answer, copied at submit time so analytics can filter
+     * without joining the answer and submission tables. Backfilled for rows written before they existed.
+     */
+    @Column(name = "survey_id")
+    private UUID surveyId;
+
+    @Column(name = "question_id")
+    private UUID questionId;
+
     /**
      * Reference to the original option.
      */
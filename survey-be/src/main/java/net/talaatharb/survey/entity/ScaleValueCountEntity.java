@@ -0,0 +1,37 @@
+package net.talaatharb.survey.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.UUID;
+
+/**
+ * Aggregate entity holding how often a linear scale value was answered within a survey.
+ * Maintained by the analytics aggregate store, not through JPA.
+ */
+@Entity
+@Table(name = "scale_value_counts",
+       uniqueConstraints = @UniqueConstraint(name = "uk_scale_value_counts", columnNames = {"survey_id", "question_id", "scale_value"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(of = "id")
+public class ScaleValueCountEntity {
+
+    @Id
+    @TimeOrderedUuid
+    private UUID id;
+
+    @Column(name = "survey_id", nullable = false)
+    private UUID surveyId;
+
+    @Column(name = "question_id", nullable = false)
+    private UUID questionId;
+
+    @Column(name = "scale_value", nullable = false)
+    private int scaleValue;
+
+    @Column(name = "answer_count", nullable = false)
+    private long answerCount;
+}
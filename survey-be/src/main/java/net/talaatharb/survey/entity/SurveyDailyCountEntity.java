@@ -0,0 +1,35 @@
+package net.talaatharb.survey.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Aggregate entity holding the number of submissions to a survey per day.
+ * Maintained by the analytics aggregate store, not through JPA.
+ */
+@Entity
+@Table(name = "survey_daily_counts",
+       uniqueConstraints = @UniqueConstraint(name = "uk_survey_daily_counts", columnNames = {"survey_id", "submission_date"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(of = "id")
+public class SurveyDailyCountEntity {
+
+    @Id
+    @TimeOrderedUuid
+    private UUID id;
+
+    @Column(name = "survey_id", nullable = false)
+    private UUID surveyId;
+
+    @Column(name = "submission_date", nullable = false)
+    private LocalDate submissionDate;
+
+    @Column(name = "submission_count", nullable = false)
+    private long submissionCount;
+}
@@ -24,7 +24,7 @@ import java.util.UUID;
 public class SurveyEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     private UUID id;
 
     @Column(nullable = false)
@@ -41,6 +41,12 @@ public class SurveyEntity {
     @Column(nullable = false)
     private boolean archived = false;
 
+    /**
+     * Version of the snapshot served to respondents, null until the survey is first published.
+     */
+    @Column(name = "published_version")
+    private Integer publishedVersion;
+
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
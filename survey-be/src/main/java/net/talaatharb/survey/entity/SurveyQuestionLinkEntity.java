@@ -27,7 +27,7 @@ import java.util.UUID;
 public class SurveyQuestionLinkEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
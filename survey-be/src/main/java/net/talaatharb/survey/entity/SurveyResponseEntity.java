@@ -2,6 +2,7 @@ package net.talaatharb.survey.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
@@ -26,12 +27,15 @@ import java.util.UUID;
 public class SurveyResponseEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     private UUID id;
 
     @Column(name = "survey_id", nullable = false)
     private UUID surveyId;
 
+    @Column(name = "snapshot_version")
+    private Integer snapshotVersion;
+
     @CreationTimestamp
     @Column(name = "submitted_at", nullable = false, updatable = false)
     private LocalDateTime submittedAt;
@@ -42,7 +46,15 @@ public class SurveyResponseEntity {
     @Column(name = "submitter_id")
     private String submitterId;
 
+    /**
+     * Number of answers, written at submit time so listings need not count them.
+     * Backfilled for submissions written before it existed.
+     */
+    @Column(name = "answer_count")
+    private Integer answerCount;
+
     @Builder.Default
+    @BatchSize(size = 100)
     @OneToMany(mappedBy = "surveyResponse", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<QuestionResponseEntity> questionResponses = new ArrayList<>();
 
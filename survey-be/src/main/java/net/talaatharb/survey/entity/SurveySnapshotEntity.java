@@ -0,0 +1,45 @@
+package net.talaatharb.survey.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Entity representing an immutable, versioned snapshot of a published survey definition.
+ * The definition is stored serialized, exactly as it is served to respondents.
+ */
+@Entity
+@Immutable
+@Table(name = "survey_snapshots",
+       uniqueConstraints = @UniqueConstraint(name = "uk_survey_snapshots_survey_version",
+                                             columnNames = {"survey_id", "version"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(of = "id")
+@ToString(exclude = "definition")
+public class SurveySnapshotEntity {
+
+    @Id
+    @TimeOrderedUuid
+    private UUID id;
+
+    @Column(name = "survey_id", nullable = false, updatable = false)
+    private UUID surveyId;
+
+    @Column(nullable = false, updatable = false)
+    private Integer version;
+
+    @Lob
+    @Column(nullable = false, updatable = false)
+    private byte[] definition;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
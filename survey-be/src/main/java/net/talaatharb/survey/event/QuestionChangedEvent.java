@@ -0,0 +1,10 @@
+package net.talaatharb.survey.event;
+
+import java.util.UUID;
+
+/**
+ * Published whenever a question of the question bank was created, saved or archived. Listeners
+ * holding cached views of the question, such as its title or search entry, should drop or refresh them.
+ */
+public record QuestionChangedEvent(UUID questionId) {
+}
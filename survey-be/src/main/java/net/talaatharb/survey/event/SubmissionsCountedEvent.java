@@ -0,0 +1,12 @@
+package net.talaatharb.survey.event;
+
+import net.talaatharb.survey.ingestion.SubmissionRecord;
+
+import java.util.List;
+
+/**
+ * Published by the analytics aggregate store once committed submissions are counted, numbered with
+ * the store's sequence. Analytics carrying a sequence at least this one already include them.
+ */
+public record SubmissionsCountedEvent(long sequence, List<SubmissionRecord> submissions) {
+}
@@ -0,0 +1,12 @@
+package net.talaatharb.survey.event;
+
+import net.talaatharb.survey.ingestion.SubmissionRecord;
+
+import java.util.List;
+
+/**
+ * Published when submissions are written to the response tables, within the writing transaction.
+ * Listeners interested in committed submissions only should listen after commit.
+ */
+public record SubmissionsRecordedEvent(List<SubmissionRecord> submissions) {
+}
@@ -0,0 +1,11 @@
+package net.talaatharb.survey.event;
+
+import java.util.UUID;
+
+/**
+ * Published whenever what respondents see of a survey may have changed: it was saved, and possibly
+ * re-published with a new snapshot, archived or imported. Listeners holding derived, cached views
+ * of the published survey should drop them.
+ */
+public record SurveyDefinitionChangedEvent(UUID surveyId) {
+}
@@ -0,0 +1,74 @@
+package net.talaatharb.survey.export;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Writes submissions as RFC 4180 CSV. Selected option labels are joined with {@value #LABEL_SEPARATOR}.
+ */
+class CsvSubmissionRowWriter implements SubmissionRowWriter {
+
+    private static final String LABEL_SEPARATOR = "; ";
+
+    private static final String LINE_BREAK = "\r\n";
+
+    private static final List<String> FIXED_HEADERS =
+            List.of("submission_id", "submitted_at", "snapshot_version", "submitter_id");
+
+    private final Writer writer;
+    private final List<ExportColumn> columns;
+
+    CsvSubmissionRowWriter(Writer writer, List<ExportColumn> columns) {
+        this.writer = writer;
+        this.columns = columns;
+    }
+
+    @Override
+    public void writeHeader() throws IOException {
+        List<String> headers = new ArrayList<>(FIXED_HEADERS);
+        columns.forEach(column -> headers.add(column.label()));
+        for (int i = 0; i < headers.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeField(headers.get(i));
+        }
+        writer.write(LINE_BREAK);
+    }
+
+    @Override
+    public void write(ExportedSubmission submission) throws IOException {
+        writeField(submission.getId().toString());
+        writer.write(',');
+        writeField(Objects.toString(submission.getSubmittedAt(), ""));
+        writer.write(',');
+        writeField(Objects.toString(submission.getSnapshotVersion(), ""));
+        writer.write(',');
+        writeField(Objects.toString(submission.getSubmitterId(), ""));
+        for (ExportColumn column : columns) {
+            writer.write(',');
+            Object answer = submission.getAnswers().get(column.questionId());
+            if (answer instanceof List<?> labels) {
+                writeField(String.join(LABEL_SEPARATOR, labels.stream().map(String::valueOf).toList()));
+            } else {
+                writeField(Objects.toString(answer, ""));
+            }
+        }
+        writer.write(LINE_BREAK);
+    }
+
+    private void writeField(String value) throws IOException {
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,9 @@
+package net.talaatharb.survey.export;
+
+import java.util.UUID;
+
+/**
+ * A linked question exported as a column, in survey order.
+ */
+public record ExportColumn(UUID questionId, String label) {
+}
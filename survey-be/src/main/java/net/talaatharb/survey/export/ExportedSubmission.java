@@ -0,0 +1,48 @@
+package net.talaatharb.survey.export;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A single submission assembled from the rows of the export cursor. Answers hold the text,
+ * the numeric value or the list of selected option labels of each answered question.
+ */
+@Getter
+public class ExportedSubmission {
+
+    private final UUID id;
+    private final LocalDateTime submittedAt;
+    private final Integer snapshotVersion;
+    private final String submitterId;
+    private final Map<UUID, Object> answers = new HashMap<>();
+
+    public ExportedSubmission(UUID id, LocalDateTime submittedAt, Integer snapshotVersion, String submitterId) {
+        this.id = id;
+        this.submittedAt = submittedAt;
+        this.snapshotVersion = snapshotVersion;
+        this.submitterId = submitterId;
+    }
+
+    /**
+     * Record a text or numeric answer.
+     */
+    public void putAnswer(UUID questionId, Object value) {
+        if (value != null) {
+            answers.putIfAbsent(questionId, value);
+        }
+    }
+
+    /**
+     * Record a selected option of an answer.
+     */
+    @SuppressWarnings("unchecked")
+    public void addSelectedLabel(UUID questionId, String label) {
+        ((List<String>) answers.computeIfAbsent(questionId, id -> new ArrayList<String>())).add(label);
+    }
+}
@@ -0,0 +1,51 @@
+package net.talaatharb.survey.export;
+
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes submissions as newline delimited JSON. Answers are keyed by question ID, in survey order;
+ * selections are written as arrays of option labels.
+ */
+class NdjsonSubmissionRowWriter implements SubmissionRowWriter {
+
+    private final Writer writer;
+    private final List<ExportColumn> columns;
+    private final JsonMapper jsonMapper;
+
+    NdjsonSubmissionRowWriter(Writer writer, List<ExportColumn> columns, JsonMapper jsonMapper) {
+        this.writer = writer;
+        this.columns = columns;
+        this.jsonMapper = jsonMapper;
+    }
+
+    @Override
+    public void writeHeader() {
+        // Every line is self-describing
+    }
+
+    @Override
+    public void write(ExportedSubmission submission) throws IOException {
+        Map<String, Object> answers = new LinkedHashMap<>();
+        for (ExportColumn column : columns) {
+            Object answer = submission.getAnswers().get(column.questionId());
+            if (answer != null) {
+                answers.put(column.questionId().toString(), answer);
+            }
+        }
+
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("submissionId", submission.getId());
+        line.put("submittedAt", submission.getSubmittedAt() != null ? submission.getSubmittedAt().toString() : null);
+        line.put("snapshotVersion", submission.getSnapshotVersion());
+        line.put("submitterId", submission.getSubmitterId());
+        line.put("answers", answers);
+        writer.write(jsonMapper.writeValueAsString(line));
+        writer.write('\n');
+    }
+}
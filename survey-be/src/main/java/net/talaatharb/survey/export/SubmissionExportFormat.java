@@ -0,0 +1,25 @@
+package net.talaatharb.survey.export;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Output formats of the submission export.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum SubmissionExportFormat {
+
+    /**
+     * Comma separated values with a header row and one column per linked question.
+     */
+    CSV("text/csv", "csv"),
+
+    /**
+     * One JSON object per line, answers keyed by question ID.
+     */
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String extension;
+}
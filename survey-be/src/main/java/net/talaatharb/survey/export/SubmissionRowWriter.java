@@ -0,0 +1,31 @@
+package net.talaatharb.survey.export;
+
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Writes exported submissions one at a time in a specific format.
+ */
+public interface SubmissionRowWriter {
+
+    /**
+     * Write anything that precedes the first submission.
+     */
+    void writeHeader() throws IOException;
+
+    /**
+     * Write a single submission.
+     */
+    void write(ExportedSubmission submission) throws IOException;
+
+    static SubmissionRowWriter create(SubmissionExportFormat format, Writer writer, List<ExportColumn> columns,
+                                      JsonMapper jsonMapper) {
+        return switch (format) {
+            case CSV -> new CsvSubmissionRowWriter(writer, columns);
+            case NDJSON -> new NdjsonSubmissionRowWriter(writer, columns, jsonMapper);
+        };
+    }
+}
@@ -0,0 +1,15 @@
+package net.talaatharb.survey.ingestion;
+
+/**
+ * How accepted survey submissions are persisted.
+ */
+public enum IngestionMode {
+    /**
+     * Submissions are written in the request transaction before responding.
+     */
+    SYNC,
+    /**
+     * Submissions are queued and written by background writers in group commits.
+     */
+    WRITE_BEHIND
+}
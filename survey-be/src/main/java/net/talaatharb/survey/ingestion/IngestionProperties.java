@@ -0,0 +1,93 @@
+package net.talaatharb.survey.ingestion;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Configuration of the survey submission ingestion pipeline.
+ */
+@Data
+@ConfigurationProperties(prefix = "survey.ingestion")
+public class IngestionProperties {
+
+    private IngestionMode mode = IngestionMode.SYNC;
+
+    /**
+     * Maximum number of submissions waiting to be written.
+     */
+    private int queueCapacity = 10_000;
+
+    /**
+     * Maximum number of submissions written in one group commit.
+     */
+    private int batchSize = 500;
+
+    /**
+     * How long a writer waits for a batch to fill up before committing it.
+     */
+    private Duration linger = Duration.ofMillis(20);
+
+    /**
+     * Number of background writer threads.
+     */
+    private int writerThreads = 2;
+
+    /**
+     * How long a request waits for queue space before writing its submission itself.
+     */
+    private Duration enqueueTimeout = Duration.ofMillis(100);
+
+    /**
+     * Maximum time to wait for the queue to drain on shutdown.
+     */
+    private Duration shutdownTimeout = Duration.ofSeconds(30);
+
+    private Retry retry = new Retry();
+
+    private Journal journal = new Journal();
+
+    /**
+     * Directory of the file collecting submissions the database rejected.
+     */
+    private Path deadLetterDirectory = Path.of("dead-letter");
+
+    public boolean isWriteBehind() {
+        return mode == IngestionMode.WRITE_BEHIND;
+    }
+
+    /**
+     * Backoff between attempts to write submissions while the database is unavailable.
+     */
+    @Data
+    public static class Retry {
+
+        private Duration initialBackoff = Duration.ofMillis(100);
+
+        private Duration maxBackoff = Duration.ofSeconds(10);
+
+        /**
+         * How long journaled submissions are retried on startup before the application fails to start.
+         */
+        private Duration replayTimeout = Duration.ofMinutes(2);
+    }
+
+    /**
+     * Local journal making write-behind submissions durable before they are acknowledged.
+     */
+    @Data
+    public static class Journal {
+
+        private boolean enabled = false;
+
+        private Path directory = Path.of("journal");
+
+        /**
+         * Size of each memory-mapped segment file; must exceed the largest encoded submission.
+         */
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+    }
+}
@@ -0,0 +1,7 @@
+package net.talaatharb.survey.ingestion;
+
+/**
+ * A submission waiting to be written, with its journal sequence (0 when not journaled).
+ */
+record PendingSubmission(long sequence, SubmissionRecord submission) {
+}
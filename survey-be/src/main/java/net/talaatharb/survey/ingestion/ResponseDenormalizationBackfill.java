@@ -0,0 +1,75 @@
+package net.talaatharb.survey.ingestion;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills denormalized columns of response rows written before those columns existed: the survey
+ * and question identifiers of answers and selected options, so that analytics can filter them
+ * without joins, and the answer count of submissions, so that listings need not count answers.
+ * <p>
+ * Rows are updated in bounded batches, each committed on its own, so the backfill neither holds
+ * long locks nor has to start over when interrupted.
+ */
+@Component
+@RequiredArgsConstructor
+public class ResponseDenormalizationBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(ResponseDenormalizationBackfill.class);
+
+    private static final int BATCH_SIZE = 5000;
+
+    private static final String BACKFILL_ANSWERS =
+            "UPDATE question_responses SET survey_id = (" +
+            "SELECT sr.survey_id FROM survey_responses sr WHERE sr.id = question_responses.survey_response_id) " +
+            "WHERE id IN (SELECT id FROM question_responses WHERE survey_id IS NULL FETCH FIRST ? ROWS ONLY)";
+
+    private static final String BACKFILL_SELECTED_OPTIONS =
+            "UPDATE question_response_selected_options SET " +
+            "survey_id = (SELECT qr.survey_id FROM question_responses qr " +
+            "WHERE qr.id = question_response_selected_options.question_response_id), " +
+            "question_id = (SELECT qr.question_id FROM question_responses qr " +
+            "WHERE qr.id = question_response_selected_options.question_response_id) " +
+            "WHERE id IN (SELECT id FROM question_response_selected_options WHERE survey_id IS NULL " +
+            "FETCH FIRST ? ROWS ONLY)";
+
+    private static final String BACKFILL_ANSWER_COUNTS =
+            "UPDATE survey_responses SET answer_count = (" +
+            "SELECT COUNT(*) FROM question_responses qr WHERE qr.survey_response_id = survey_responses.id) " +
+            "WHERE id IN (SELECT id FROM survey_responses WHERE answer_count IS NULL FETCH FIRST ? ROWS ONLY)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Runs before other startup work that reads the denormalized columns, such as aggregate backfills.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void backfill() {
+        // Answers first, selected options copy their survey from them
+        long answers = backfill(BACKFILL_ANSWERS);
+        long selectedOptions = backfill(BACKFILL_SELECTED_OPTIONS);
+        long submissions = backfill(BACKFILL_ANSWER_COUNTS);
+        if (answers > 0 || selectedOptions > 0 || submissions > 0) {
+            log.info("Backfilled survey ids of {} answers and {} selected options, answer counts of {} submissions",
+                    answers, selectedOptions, submissions);
+        }
+    }
+
+    private long backfill(String sql) {
+        long total = 0;
+        int updated;
+        do {
+            updated = jdbcTemplate.update(sql, BATCH_SIZE);
+            total += updated;
+        } while (updated == BATCH_SIZE);
+        return total;
+    }
+}
@@ -0,0 +1,106 @@
+package net.talaatharb.survey.ingestion;
+
+import lombok.RequiredArgsConstructor;
+import net.talaatharb.survey.event.SubmissionsRecordedEvent;
+import net.talaatharb.survey.ingestion.SubmissionRecord.AnswerRecord;
+import net.talaatharb.survey.ingestion.SubmissionRecord.SelectedOptionRecord;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Writes survey submissions to the response tables using JDBC batch inserts,
+ * one batch per table regardless of how many submissions are written.
+ * Publishes a {@link SubmissionsRecordedEvent} for every write.
+ */
+@Component
+@RequiredArgsConstructor
+public class SubmissionBatchWriter {
+
+    private static final String INSERT_RESPONSE =
+            "INSERT INTO survey_responses (id, survey_id, snapshot_version, submitted_at, submitter_ip, submitter_id, " +
+            "answer_count) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_ANSWER =
+            "INSERT INTO question_responses (id, survey_response_id, survey_id, question_id, answer_type, " +
+            "text_answer, numeric_answer, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_SELECTED_OPTION =
+            "INSERT INTO question_response_selected_options (id, question_response_id, survey_id, question_id, " +
+            "option_id, label_snapshot) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String SELECT_EXISTING_RESPONSE_IDS =
+            "SELECT id FROM survey_responses WHERE id IN (%s)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Write the submissions that are not in the database yet, so replaying is idempotent.
+     */
+    @Transactional
+    public void writeMissing(List<SubmissionRecord> submissions) {
+        if (submissions.isEmpty()) {
+            return;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(submissions.size(), "?"));
+        Set<UUID> existing = new HashSet<>(jdbcTemplate.queryForList(
+                SELECT_EXISTING_RESPONSE_IDS.formatted(placeholders), UUID.class,
+                submissions.stream().map(SubmissionRecord::getId).toArray()));
+
+        List<SubmissionRecord> missing = submissions.stream()
+                .filter(submission -> !existing.contains(submission.getId()))
+                .toList();
+        if (!missing.isEmpty()) {
+            write(missing);
+        }
+    }
+
+    /**
+     * Write submissions in a single transaction, joining the current one if present.
+     */
+    @Transactional
+    public void write(List<SubmissionRecord> submissions) {
+        List<Object[]> responseRows = new ArrayList<>(submissions.size());
+        List<Object[]> answerRows = new ArrayList<>();
+        List<Object[]> selectedOptionRows = new ArrayList<>();
+
+        for (SubmissionRecord submission : submissions) {
+            Timestamp submittedAt = Timestamp.valueOf(submission.getSubmittedAt());
+            responseRows.add(new Object[]{
+                    submission.getId(), submission.getSurveyId(), submission.getSnapshotVersion(), submittedAt,
+                    submission.getSubmitterIp(), submission.getSubmitterId(), submission.getAnswers().size()});
+
+            for (AnswerRecord answer : submission.getAnswers()) {
+                answerRows.add(new Object[]{
+                        answer.getId(), submission.getId(), submission.getSurveyId(), answer.getQuestionId(),
+                        answer.getAnswerType().name(),
+                        answer.getTextAnswer(), answer.getNumericAnswer(), submittedAt});
+
+                for (SelectedOptionRecord option : answer.getSelectedOptions()) {
+                    selectedOptionRows.add(new Object[]{
+                            option.getId(), answer.getId(), submission.getSurveyId(), answer.getQuestionId(),
+                            option.getOptionId(), option.getLabel()});
+                }
+            }
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_RESPONSE, responseRows);
+        if (!answerRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_ANSWER, answerRows);
+        }
+        if (!selectedOptionRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SELECTED_OPTION, selectedOptionRows);
+        }
+        eventPublisher.publishEvent(new SubmissionsRecordedEvent(submissions));
+    }
+}
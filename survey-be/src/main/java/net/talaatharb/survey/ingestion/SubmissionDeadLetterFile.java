@@ -0,0 +1,50 @@
+package net.talaatharb.survey.ingestion;
+
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only file of accepted submissions the database rejected, one JSON document per line.
+ * <p>
+ * Parking a submission here takes it out of the write path, so it neither blocks a writer nor pins
+ * the journal checkpoint, while keeping it on disk for an operator to inspect and re-submit.
+ */
+class SubmissionDeadLetterFile {
+
+    static final String FILE_NAME = "submissions.ndjson";
+
+    private final Path file;
+    private final JsonMapper jsonMapper;
+
+    SubmissionDeadLetterFile(Path directory, JsonMapper jsonMapper) {
+        this.file = directory.resolve(FILE_NAME);
+        this.jsonMapper = jsonMapper;
+    }
+
+    /**
+     * Append a submission and wait until it is on stable storage.
+     */
+    synchronized void append(SubmissionRecord submission) throws IOException {
+        byte[] line = (jsonMapper.writeValueAsString(submission) + "\n").getBytes(StandardCharsets.UTF_8);
+        Files.createDirectories(file.getParent());
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+
+    Path getFile() {
+        return file;
+    }
+}
@@ -0,0 +1,403 @@
+package net.talaatharb.survey.ingestion;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind pipeline for survey submissions.
+ * <p>
+ * Accepted submissions are put on a bounded queue and drained by a small set of writer threads
+ * that group many submissions into one JDBC batch per table and one commit. When the queue is
+ * full, the submitting thread writes its own submission instead of failing, which throttles
+ * producers to the speed of the database.
+ * <p>
+ * While the database is unavailable, writers keep retrying their batch with capped exponential
+ * backoff. Submissions the database rejects are isolated and parked in a
+ * {@link SubmissionDeadLetterFile}, so one bad submission does not hold up the others.
+ * <p>
+ * With the journal enabled, a submission is appended to the {@link SubmissionJournal} and
+ * flushed to disk before it is acknowledged, and the journal checkpoint advances as batches
+ * commit. Submissions journaled but not committed when the process died are replayed
+ * idempotently before the pipeline accepts new ones; if the database stays unavailable for the
+ * replay timeout, startup fails and the journal is kept as it is for the next start.
+ * <p>
+ * The pipeline stops after the web server, so it drains everything accepted before shutdown.
+ * Submissions still unwritten when the shutdown timeout expires are left to the journal, if
+ * enabled, or parked in the dead-letter file.
+ */
+@Component
+public class SubmissionIngestionPipeline implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(SubmissionIngestionPipeline.class);
+
+    private static final long POLL_INTERVAL_MILLIS = 200;
+
+    private final IngestionProperties properties;
+    private final SubmissionBatchWriter writer;
+    private final MeterRegistry meterRegistry;
+    private final BlockingQueue<PendingSubmission> queue;
+    private final DistributionSummary batchSizes;
+    private final SubmissionDeadLetterFile deadLetters;
+
+    private volatile boolean running;
+    private ExecutorService writers;
+    private SubmissionJournal journal;
+
+    public SubmissionIngestionPipeline(IngestionProperties properties, SubmissionBatchWriter writer,
+                                       MeterRegistry meterRegistry, JsonMapper jsonMapper) {
+        this.properties = properties;
+        this.writer = writer;
+        this.meterRegistry = meterRegistry;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.deadLetters = new SubmissionDeadLetterFile(properties.getDeadLetterDirectory(), jsonMapper);
+        Gauge.builder("survey.ingestion.queue.depth", queue, BlockingQueue::size)
+                .description("Submissions accepted but not yet written")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("survey.ingestion.batch.size")
+                .description("Submissions written per group commit")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Accept a submission for writing. Returns once the submission is either durably queued
+     * or, when the pipeline is saturated or not running, written by the calling thread.
+     */
+    public void submit(SubmissionRecord submission) {
+        if (!running) {
+            writer.write(List.of(submission));
+            return;
+        }
+
+        PendingSubmission pending = new PendingSubmission(journal(submission), submission);
+        try {
+            if (queue.offer(pending, properties.getEnqueueTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            writer.write(List.of(submission));
+        } finally {
+            // On failure the caller reports the error, so the journaled copy must not be replayed either
+            markCommitted(List.of(pending));
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isWriteBehind() || running) {
+            return;
+        }
+        if (properties.getJournal().isEnabled()) {
+            openJournal();
+        }
+        running = true;
+        writers = Executors.newFixedThreadPool(properties.getWriterThreads(), Thread.ofPlatform()
+                .name("submission-writer-", 0)
+                .factory());
+        for (int i = 0; i < properties.getWriterThreads(); i++) {
+            writers.execute(this::drainLoop);
+        }
+        log.info("Write-behind ingestion started with {} writers", properties.getWriterThreads());
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        writers.shutdown();
+        try {
+            if (!writers.awaitTermination(properties.getShutdownTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                log.error("Ingestion queue did not drain in time, {} submissions were not written", queue.size());
+                writers.shutdownNow();
+                // Let interrupted writers park the batches they were retrying
+                writers.awaitTermination(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writers.shutdownNow();
+        }
+        List<PendingSubmission> unwritten = new ArrayList<>();
+        queue.drainTo(unwritten);
+        park(unwritten);
+        closeJournal();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stop after the web server has stopped accepting requests.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    /**
+     * Open the journal and replay what was accepted but not committed before the last shutdown.
+     * Replayed submissions are checkpointed only once written or moved to the dead-letter file.
+     */
+    private void openJournal() {
+        IngestionProperties.Journal config = properties.getJournal();
+        List<PendingSubmission> pending = new ArrayList<>();
+        try {
+            journal = SubmissionJournal.open(config.getDirectory(), (int) config.getSegmentSize().toBytes(), pending);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open the submission journal", e);
+        }
+        Gauge.builder("survey.ingestion.journal.lag", journal, SubmissionJournal::getLag)
+                .description("Journaled submissions not yet committed to the database")
+                .register(meterRegistry);
+
+        long deadline = System.nanoTime() + properties.getRetry().getReplayTimeout().toNanos();
+        try {
+            for (int from = 0; from < pending.size(); from += properties.getBatchSize()) {
+                replay(pending.subList(from, Math.min(from + properties.getBatchSize(), pending.size())), deadline);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            closeJournal();
+            throw new IllegalStateException("Interrupted while replaying the submission journal", e);
+        } catch (RuntimeException e) {
+            closeJournal();
+            throw e;
+        }
+    }
+
+    /**
+     * Write a batch of journaled submissions, retrying with backoff until the deadline while the
+     * database is unavailable.
+     */
+    private void replay(List<PendingSubmission> batch, long deadline) throws InterruptedException {
+        long backoff = properties.getRetry().getInitialBackoff().toMillis();
+        List<PendingSubmission> remaining = tryWrite(batch, true);
+        while (!remaining.isEmpty()) {
+            if (System.nanoTime() - deadline >= 0) {
+                throw new IllegalStateException("Database unavailable, " + remaining.size()
+                        + " journaled submissions could not be replayed");
+            }
+            log.warn("Failed to replay {} journaled submissions, retrying in {} ms", remaining.size(), backoff);
+            TimeUnit.MILLISECONDS.sleep(backoff);
+            backoff = nextBackoff(backoff);
+            remaining = tryWrite(remaining, true);
+        }
+    }
+
+    private void closeJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            log.warn("Failed to close the submission journal", e);
+        }
+        journal = null;
+    }
+
+    /**
+     * Append a submission to the journal and wait until it is durable. Returns its sequence.
+     */
+    private long journal(SubmissionRecord submission) {
+        if (journal == null) {
+            return 0;
+        }
+        long sequence = journal.append(submission);
+        journal.awaitDurable(sequence);
+        return sequence;
+    }
+
+    private void markCommitted(List<PendingSubmission> submissions) {
+        if (journal == null) {
+            return;
+        }
+        for (PendingSubmission pending : submissions) {
+            journal.markCommitted(pending.sequence());
+        }
+    }
+
+    private void drainLoop() {
+        List<PendingSubmission> batch = new ArrayList<>(properties.getBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                if (!fillBatch(batch)) {
+                    continue;
+                }
+            } catch (InterruptedException e) {
+                park(batch);
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Wait for a first submission, then collect more until the batch is full or the linger time passed.
+     */
+    private boolean fillBatch(List<PendingSubmission> batch) throws InterruptedException {
+        PendingSubmission first = queue.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return false;
+        }
+        batch.add(first);
+
+        int batchSize = properties.getBatchSize();
+        long deadline = System.nanoTime() + properties.getLinger().toNanos();
+        while (batch.size() < batchSize) {
+            if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            PendingSubmission next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        return true;
+    }
+
+    /**
+     * Write a batch, retrying with capped exponential backoff while the database is unavailable.
+     * When interrupted, the submissions not written yet are parked.
+     */
+    private void writeBatch(List<PendingSubmission> batch) throws InterruptedException {
+        long backoff = properties.getRetry().getInitialBackoff().toMillis();
+        List<PendingSubmission> remaining = tryWrite(batch, false);
+        while (!remaining.isEmpty()) {
+            log.warn("Failed to write batch of {} submissions, retrying in {} ms", remaining.size(), backoff);
+            try {
+                TimeUnit.MILLISECONDS.sleep(backoff);
+            } catch (InterruptedException e) {
+                park(remaining);
+                throw e;
+            }
+            backoff = nextBackoff(backoff);
+            // An earlier attempt may have committed without telling us
+            remaining = tryWrite(remaining, true);
+        }
+    }
+
+    /**
+     * Write a batch once. If the database rejects it, its submissions are written one by one and
+     * those rejected again are moved to the dead-letter file. Returns the submissions that could
+     * not be written because the database is unavailable.
+     */
+    private List<PendingSubmission> tryWrite(List<PendingSubmission> batch, boolean missingOnly) {
+        try {
+            List<SubmissionRecord> submissions = batch.stream().map(PendingSubmission::submission).toList();
+            if (missingOnly) {
+                writer.writeMissing(submissions);
+            } else {
+                writer.write(submissions);
+            }
+            batchSizes.record(batch.size());
+            markCommitted(batch);
+            return List.of();
+        } catch (RuntimeException e) {
+            if (isTransient(e)) {
+                log.warn("Database unavailable for a batch of {} submissions", batch.size(), e);
+                return batch;
+            }
+            log.warn("Database rejected batch of {} submissions, writing them one by one", batch.size(), e);
+            return writeIndividually(batch);
+        }
+    }
+
+    /**
+     * Write submissions one by one, moving those the database rejects to the dead-letter file.
+     * Returns the submissions that could not be written because the database is unavailable.
+     */
+    private List<PendingSubmission> writeIndividually(List<PendingSubmission> batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            PendingSubmission pending = batch.get(i);
+            try {
+                writer.writeMissing(List.of(pending.submission()));
+                markCommitted(List.of(pending));
+            } catch (RuntimeException e) {
+                if (isTransient(e)) {
+                    return batch.subList(i, batch.size());
+                }
+                log.error("Database rejected submission {} of survey {}, moving it to the dead-letter file",
+                        pending.submission().getId(), pending.submission().getSurveyId(), e);
+                deadLetter(pending);
+            }
+        }
+        return List.of();
+    }
+
+    /**
+     * Keep submissions that could not be written before shutdown. Journaled submissions are
+     * replayed on the next start; the others are moved to the dead-letter file.
+     */
+    private void park(List<PendingSubmission> submissions) {
+        if (journal != null || submissions.isEmpty()) {
+            return;
+        }
+        log.error("Moving {} unwritten submissions to the dead-letter file", submissions.size());
+        submissions.forEach(this::deadLetter);
+    }
+
+    private void deadLetter(PendingSubmission pending) {
+        try {
+            deadLetters.append(pending.submission());
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to write submission {} of survey {} to the dead-letter file {}",
+                    pending.submission().getId(), pending.submission().getSurveyId(), deadLetters.getFile(), e);
+            return;
+        }
+        markCommitted(List.of(pending));
+    }
+
+    private long nextBackoff(long backoff) {
+        return Math.min(backoff * 2, properties.getRetry().getMaxBackoff().toMillis());
+    }
+
+    /**
+     * Whether a write failed because the database is unavailable rather than because it rejected
+     * the data, so that the same write may succeed later.
+     */
+    static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof TransactionException;
+    }
+}
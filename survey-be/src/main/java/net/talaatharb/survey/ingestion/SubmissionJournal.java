@@ -0,0 +1,310 @@
+package net.talaatharb.survey.ingestion;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Local append-only journal of accepted submissions, written through memory-mapped segment files.
+ * <p>
+ * Each record is laid out as {@code [int length][int crc32c][long sequence][payload]}; a zero
+ * length marks the end of the data in a segment. A record is acknowledged only after
+ * {@link #awaitDurable(long)} returned, and concurrent callers share a single {@code force()},
+ * so acknowledgements are fsync-batched.
+ * <p>
+ * Once the records are in the database the committer reports their sequences through
+ * {@link #markCommitted(long)}. The checkpoint advances over the contiguous committed prefix,
+ * and segments entirely below it are deleted. On open, every intact record past the
+ * checkpoint is returned for replay and appending continues in a fresh segment.
+ */
+class SubmissionJournal implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(SubmissionJournal.class);
+
+    private static final int HEADER_SIZE = Integer.BYTES + Integer.BYTES + Long.BYTES;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final Object syncLock = new Object();
+    private final Object commitLock = new Object();
+
+    private Segment current;
+    private volatile long lastSequence;
+    private volatile long durableSequence;
+
+    private final NavigableSet<Long> committedAhead = new TreeSet<>();
+    private volatile long checkpoint;
+
+    private SubmissionJournal(Path directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Open the journal in a directory, collecting the records that still have to be replayed.
+     */
+    static SubmissionJournal open(Path directory, int segmentSize, List<PendingSubmission> pending) throws IOException {
+        Files.createDirectories(directory);
+        SubmissionJournal journal = new SubmissionJournal(directory, segmentSize);
+        journal.recover(pending);
+        return journal;
+    }
+
+    /**
+     * Append a submission, returning its sequence. The record is not durable until
+     * {@link #awaitDurable(long)} returns for that sequence.
+     */
+    synchronized long append(SubmissionRecord submission) {
+        byte[] payload = SubmissionRecordCodec.encode(submission);
+        int size = HEADER_SIZE + payload.length;
+        if (size + Integer.BYTES > segmentSize) {
+            throw new IllegalStateException("Submission " + submission.getId() + " does not fit in a journal segment");
+        }
+        if (current.buffer.remaining() < size + Integer.BYTES) {
+            roll();
+        }
+
+        long sequence = ++lastSequence;
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        crc.update(ByteBuffer.allocate(Long.BYTES).putLong(0, sequence));
+
+        MappedByteBuffer buffer = current.buffer;
+        int start = buffer.position();
+        buffer.position(start + Integer.BYTES);
+        buffer.putInt((int) crc.getValue());
+        buffer.putLong(sequence);
+        buffer.put(payload);
+        // Publish the length last so a torn record is never read as complete
+        buffer.putInt(start, payload.length);
+        return sequence;
+    }
+
+    /**
+     * Block until the record with the given sequence is on stable storage.
+     */
+    void awaitDurable(long sequence) {
+        if (durableSequence >= sequence) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (durableSequence >= sequence) {
+                return;
+            }
+            MappedByteBuffer buffer;
+            long target;
+            synchronized (this) {
+                buffer = current.buffer;
+                target = lastSequence;
+            }
+            buffer.force();
+            durableSequence = target;
+        }
+    }
+
+    /**
+     * Record that a submission is in the database, advancing the checkpoint when possible.
+     */
+    void markCommitted(long sequence) {
+        synchronized (commitLock) {
+            if (sequence <= checkpoint) {
+                return;
+            }
+            committedAhead.add(sequence);
+            long advanced = checkpoint;
+            while (!committedAhead.isEmpty() && committedAhead.first() == advanced + 1) {
+                advanced = committedAhead.pollFirst();
+            }
+            if (advanced == checkpoint) {
+                return;
+            }
+            checkpoint = advanced;
+            writeCheckpoint();
+        }
+        deleteCommittedSegments();
+    }
+
+    /**
+     * Number of journaled submissions not yet known to be in the database.
+     */
+    long getLag() {
+        return lastSequence - checkpoint;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        current.buffer.force();
+        synchronized (commitLock) {
+            writeCheckpoint();
+        }
+        for (Segment segment : segments) {
+            if (segment.channel != null) {
+                segment.channel.close();
+            }
+        }
+    }
+
+    private void recover(List<PendingSubmission> pending) throws IOException {
+        checkpoint = readCheckpoint();
+        lastSequence = checkpoint;
+
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream.filter(SubmissionJournal::isSegment).sorted().toList();
+        }
+
+        for (Path file : files) {
+            int records;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                records = readSegment(file, buffer, pending);
+            }
+            // A segment without records was opened but never written to, and its name is taken by the next one
+            if (records == 0 || lastSequence <= checkpoint) {
+                Files.delete(file);
+            } else {
+                segments.add(new Segment(segmentFirstSequence(file), file, null, null));
+            }
+        }
+
+        durableSequence = lastSequence;
+        openSegment(lastSequence + 1);
+        log.info("Submission journal opened at {} with checkpoint {}, {} submissions to replay",
+                directory, checkpoint, pending.size());
+    }
+
+    /**
+     * Read the intact records of a segment, returning how many there are.
+     */
+    private int readSegment(Path file, ByteBuffer buffer, List<PendingSubmission> pending) {
+        int records = 0;
+        while (buffer.remaining() >= HEADER_SIZE) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining() - HEADER_SIZE + Integer.BYTES) {
+                return records;
+            }
+            int crc = buffer.getInt();
+            long sequence = buffer.getLong();
+            ByteBuffer payload = buffer.slice(buffer.position(), length);
+
+            CRC32C actual = new CRC32C();
+            actual.update(payload.duplicate());
+            actual.update(ByteBuffer.allocate(Long.BYTES).putLong(0, sequence));
+            if ((int) actual.getValue() != crc) {
+                log.warn("Discarding torn journal record at offset {} of {}", start, file);
+                return records;
+            }
+
+            buffer.position(buffer.position() + length);
+            records++;
+            lastSequence = Math.max(lastSequence, sequence);
+            if (sequence > checkpoint) {
+                pending.add(new PendingSubmission(sequence, SubmissionRecordCodec.decode(payload)));
+            }
+        }
+        return records;
+    }
+
+    private void roll() {
+        current.buffer.force();
+        try {
+            openSegment(lastSequence + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to roll the submission journal", e);
+        }
+    }
+
+    private void openSegment(long firstSequence) throws IOException {
+        Path file = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        current = new Segment(firstSequence, file, channel, buffer);
+        segments.add(current);
+    }
+
+    /**
+     * Delete the oldest segments whose records are all at or below the checkpoint.
+     */
+    private void deleteCommittedSegments() {
+        List<Segment> deletable = new ArrayList<>();
+        synchronized (this) {
+            while (segments.size() > 1) {
+                Segment oldest = segments.pollFirst();
+                if (segments.peekFirst().firstSequence - 1 > checkpoint) {
+                    segments.addFirst(oldest);
+                    break;
+                }
+                deletable.add(oldest);
+            }
+        }
+        for (Segment segment : deletable) {
+            try {
+                if (segment.channel != null) {
+                    segment.channel.close();
+                }
+                Files.deleteIfExists(segment.file);
+            } catch (IOException e) {
+                log.warn("Failed to delete journal segment {}", segment.file, e);
+            }
+        }
+    }
+
+    private long readCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        return ByteBuffer.wrap(Files.readAllBytes(file)).getLong();
+    }
+
+    /**
+     * Replace the checkpoint atomically. It is not fsynced: a lagging checkpoint only causes
+     * already committed records to be replayed, which is idempotent.
+     */
+    private void writeCheckpoint() {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try {
+            Files.write(temp, ByteBuffer.allocate(Long.BYTES).putLong(0, checkpoint).array());
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to write journal checkpoint {}", checkpoint, e);
+        }
+    }
+
+    private static boolean isSegment(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    private static long segmentFirstSequence(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private record Segment(long firstSequence, Path file, FileChannel channel, MappedByteBuffer buffer) {
+    }
+}
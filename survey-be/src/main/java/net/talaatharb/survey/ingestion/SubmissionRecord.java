@@ -0,0 +1,66 @@
+package net.talaatharb.survey.ingestion;
+
+import lombok.Builder;
+import lombok.Value;
+import net.talaatharb.survey.entity.AnswerType;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Validated, fully resolved survey submission with all identifiers pre-assigned,
+ * ready to be written to the response tables.
+ */
+@Value
+@Builder
+public class SubmissionRecord {
+
+    UUID id;
+
+    UUID surveyId;
+
+    Integer snapshotVersion;
+
+    LocalDateTime submittedAt;
+
+    String submitterIp;
+
+    String submitterId;
+
+    List<AnswerRecord> answers;
+
+    /**
+     * A single answer within a submission.
+     */
+    @Value
+    @Builder
+    public static class AnswerRecord {
+
+        UUID id;
+
+        UUID questionId;
+
+        AnswerType answerType;
+
+        String textAnswer;
+
+        Integer numericAnswer;
+
+        List<SelectedOptionRecord> selectedOptions;
+    }
+
+    /**
+     * A selected option within an answer, with the label captured at submission time.
+     */
+    @Value
+    @Builder
+    public static class SelectedOptionRecord {
+
+        UUID id;
+
+        UUID optionId;
+
+        String label;
+    }
+}
@@ -0,0 +1,141 @@
+package net.talaatharb.survey.ingestion;
+
+import net.talaatharb.survey.entity.AnswerType;
+import net.talaatharb.survey.ingestion.SubmissionRecord.AnswerRecord;
+import net.talaatharb.survey.ingestion.SubmissionRecord.SelectedOptionRecord;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Compact binary encoding of {@link SubmissionRecord} for the submission journal.
+ * <p>
+ * UUIDs are written as two longs, timestamps as epoch seconds and nanos, strings as
+ * length-prefixed UTF-8 (length -1 for null) and collections as a count followed by their elements.
+ */
+final class SubmissionRecordCodec {
+
+    private static final byte FORMAT_VERSION = 2;
+
+    private static final AnswerType[] ANSWER_TYPES = AnswerType.values();
+
+    private SubmissionRecordCodec() {
+    }
+
+    static byte[] encode(SubmissionRecord submission) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            writeUuid(out, submission.getId());
+            writeUuid(out, submission.getSurveyId());
+            out.writeInt(submission.getSnapshotVersion() != null ? submission.getSnapshotVersion() : -1);
+            out.writeLong(submission.getSubmittedAt().toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(submission.getSubmittedAt().getNano());
+            writeString(out, submission.getSubmitterIp());
+            writeString(out, submission.getSubmitterId());
+
+            out.writeInt(submission.getAnswers().size());
+            for (AnswerRecord answer : submission.getAnswers()) {
+                writeUuid(out, answer.getId());
+                writeUuid(out, answer.getQuestionId());
+                out.writeByte(answer.getAnswerType().ordinal());
+                writeString(out, answer.getTextAnswer());
+                out.writeBoolean(answer.getNumericAnswer() != null);
+                if (answer.getNumericAnswer() != null) {
+                    out.writeInt(answer.getNumericAnswer());
+                }
+
+                out.writeInt(answer.getSelectedOptions().size());
+                for (SelectedOptionRecord option : answer.getSelectedOptions()) {
+                    writeUuid(out, option.getId());
+                    writeUuid(out, option.getOptionId());
+                    writeString(out, option.getLabel());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static SubmissionRecord decode(ByteBuffer in) {
+        byte version = in.get();
+        if (version < 1 || version > FORMAT_VERSION) {
+            throw new IllegalStateException("Unsupported journal record format: " + version);
+        }
+
+        SubmissionRecord.SubmissionRecordBuilder submission = SubmissionRecord.builder()
+                .id(readUuid(in))
+                .surveyId(readUuid(in));
+        if (version >= 2) {
+            int snapshotVersion = in.getInt();
+            submission.snapshotVersion(snapshotVersion >= 0 ? snapshotVersion : null);
+        }
+        submission
+                .submittedAt(LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC))
+                .submitterIp(readString(in))
+                .submitterId(readString(in));
+
+        int answerCount = in.getInt();
+        List<AnswerRecord> answers = new ArrayList<>(answerCount);
+        for (int i = 0; i < answerCount; i++) {
+            AnswerRecord.AnswerRecordBuilder answer = AnswerRecord.builder()
+                    .id(readUuid(in))
+                    .questionId(readUuid(in))
+                    .answerType(ANSWER_TYPES[in.get()])
+                    .textAnswer(readString(in))
+                    .numericAnswer(in.get() != 0 ? in.getInt() : null);
+
+            int optionCount = in.getInt();
+            List<SelectedOptionRecord> options = new ArrayList<>(optionCount);
+            for (int j = 0; j < optionCount; j++) {
+                options.add(SelectedOptionRecord.builder()
+                        .id(readUuid(in))
+                        .optionId(readUuid(in))
+                        .label(readString(in))
+                        .build());
+            }
+            answers.add(answer.selectedOptions(options).build());
+        }
+
+        return submission.answers(answers).build();
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID uuid) throws IOException {
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(ByteBuffer in) {
+        return new UUID(in.getLong(), in.getLong());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
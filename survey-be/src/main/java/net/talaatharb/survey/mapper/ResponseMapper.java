@@ -6,6 +6,7 @@ import net.talaatharb.survey.dto.SurveyResponseSummaryDto;
 import net.talaatharb.survey.entity.QuestionResponseEntity;
 import net.talaatharb.survey.entity.QuestionResponseSelectedOptionEntity;
 import net.talaatharb.survey.entity.SurveyResponseEntity;
+import net.talaatharb.survey.ingestion.SubmissionRecord;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -22,7 +23,6 @@ public interface ResponseMapper {
 
     List<SurveyResponseDto> toDtoList(List<SurveyResponseEntity> entities);
 
-    @Mapping(target = "answerCount", expression = "java(entity.getQuestionResponses() != null ? entity.getQuestionResponses().size() : 0)")
     SurveyResponseSummaryDto toSummaryDto(SurveyResponseEntity entity);
 
     List<SurveyResponseSummaryDto> toSummaryDtoList(List<SurveyResponseEntity> entities);
@@ -34,4 +34,11 @@ public interface ResponseMapper {
     @Mapping(target = "optionId", source = "optionId")
     @Mapping(target = "label", source = "labelSnapshot")
     QuestionResponseDetailDto.SelectedOptionDto toSelectedOptionDto(QuestionResponseSelectedOptionEntity entity);
+
+    SurveyResponseDto toDto(SubmissionRecord submission);
+
+    @Mapping(target = "questionTitle", ignore = true)
+    QuestionResponseDetailDto toQuestionResponseDetailDto(SubmissionRecord.AnswerRecord answer);
+
+    QuestionResponseDetailDto.SelectedOptionDto toSelectedOptionDto(SubmissionRecord.SelectedOptionRecord option);
 }
@@ -4,6 +4,7 @@ import net.talaatharb.survey.dto.SurveyDto;
 import net.talaatharb.survey.dto.SurveyQuestionLinkDto;
 import net.talaatharb.survey.entity.SurveyEntity;
 import net.talaatharb.survey.entity.SurveyQuestionLinkEntity;
+import net.talaatharb.survey.repository.SurveySummary;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
@@ -17,20 +18,27 @@ import java.util.List;
 public interface SurveyMapper {
 
     @Mapping(target = "questionCount", expression = "java(entity.getQuestionLinks() != null ? entity.getQuestionLinks().size() : 0)")
+    @Mapping(target = "responseCount", ignore = true)
+    @Mapping(target = "lastSubmittedAt", ignore = true)
     SurveyDto toDto(SurveyEntity entity);
 
     List<SurveyDto> toDtoList(List<SurveyEntity> entities);
 
+    @Mapping(target = "questionLinks", ignore = true)
+    SurveyDto toDto(SurveySummary summary);
+
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
     @Mapping(target = "questionLinks", ignore = true)
+    @Mapping(target = "publishedVersion", ignore = true)
     SurveyEntity toEntity(SurveyDto dto);
 
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
     @Mapping(target = "questionLinks", ignore = true)
+    @Mapping(target = "publishedVersion", ignore = true)
     void updateEntity(SurveyDto dto, @MappingTarget SurveyEntity entity);
 
     @Mapping(target = "surveyId", source = "survey.id")
@@ -9,6 +9,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -36,6 +38,20 @@ public interface QuestionRepository extends JpaRepository<QuestionEntity, UUID>
            "LOWER(q.description) LIKE LOWER(CONCAT('%', :search, '%')))")
     Page<QuestionEntity> searchByTitleOrDescription(@Param("search") String search, Pageable pageable);
 
+    /**
+     * Find the ID, title, description, creation and update time of every non-archived question,
+     * the fields held by the search index.
+     */
+    @Query("SELECT q.id, q.title, q.description, q.createdAt, q.updatedAt FROM QuestionEntity q " +
+           "WHERE q.archived = false")
+    List<Object[]> findSearchFieldsByArchivedFalse();
+
+    /**
+     * Find the ID and title of each of the given questions, archived or not.
+     */
+    @Query("SELECT q.id, q.title FROM QuestionEntity q WHERE q.id IN :ids")
+    List<Object[]> findTitlesByIdIn(@Param("ids") Collection<UUID> ids);
+
     /**
      * Find questions by type.
      */
@@ -1,13 +1,18 @@
 package net.talaatharb.survey.repository;
 
+import jakarta.persistence.QueryHint;
 import net.talaatharb.survey.entity.QuestionResponseEntity;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Repository for QuestionResponse entities.
@@ -26,46 +31,54 @@ public interface QuestionResponseRepository extends JpaRepository<QuestionRespon
     List<QuestionResponseEntity> findByQuestionId(UUID questionId);
 
     /**
-     * Find all responses for a specific question in a specific survey.
+     * Find the most recent non-blank text answers for a question in a survey.
      */
-    @Query("SELECT qr FROM QuestionResponseEntity qr " +
-           "JOIN qr.surveyResponse sr " +
-           "WHERE sr.surveyId = :surveyId AND qr.questionId = :questionId")
-    List<QuestionResponseEntity> findBySurveyIdAndQuestionId(
+    @Query("SELECT qr.textAnswer FROM QuestionResponseEntity qr " +
+           "WHERE qr.surveyId = :surveyId AND qr.questionId = :questionId " +
+           "AND qr.textAnswer IS NOT NULL AND TRIM(qr.textAnswer) <> '' " +
+           "ORDER BY qr.createdAt DESC, qr.id DESC")
+    List<String> findLatestTextAnswers(
             @Param("surveyId") UUID surveyId,
-            @Param("questionId") UUID questionId);
+            @Param("questionId") UUID questionId,
+            Limit limit);
 
     /**
-     * Count responses for a question in a survey.
+     * Find the longest non-blank text answers for a question in a survey.
      */
-    @Query("SELECT COUNT(qr) FROM QuestionResponseEntity qr " +
-           "JOIN qr.surveyResponse sr " +
-           "WHERE sr.surveyId = :surveyId AND qr.questionId = :questionId")
-    long countBySurveyIdAndQuestionId(
+    @Query("SELECT qr.textAnswer FROM QuestionResponseEntity qr " +
+           "WHERE qr.surveyId = :surveyId AND qr.questionId = :questionId " +
+           "AND qr.textAnswer IS NOT NULL AND TRIM(qr.textAnswer) <> '' " +
+           "ORDER BY LENGTH(qr.textAnswer) DESC, qr.id DESC")
+    List<String> findLongestTextAnswers(
             @Param("surveyId") UUID surveyId,
-            @Param("questionId") UUID questionId);
+            @Param("questionId") UUID questionId,
+            Limit limit);
 
     /**
-     * Get average numeric answer for a question (for linear scale).
+     * Stream all non-blank text answers for a question in a survey, fetching them in batches.
+     * Must be consumed, and closed, inside a transaction.
      */
-    @Query("SELECT AVG(qr.numericAnswer) FROM QuestionResponseEntity qr " +
-           "JOIN qr.surveyResponse sr " +
-           "WHERE sr.surveyId = :surveyId AND qr.questionId = :questionId " +
-           "AND qr.numericAnswer IS NOT NULL")
-    Double getAverageNumericAnswer(
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT qr.textAnswer FROM QuestionResponseEntity qr " +
+           "WHERE qr.surveyId = :surveyId AND qr.questionId = :questionId " +
+           "AND qr.textAnswer IS NOT NULL AND TRIM(qr.textAnswer) <> ''")
+    Stream<String> streamTextAnswers(
             @Param("surveyId") UUID surveyId,
             @Param("questionId") UUID questionId);
 
     /**
-     * Count numeric answers by value (for linear scale distribution).
+     * Count answers per question across a survey.
      */
-    @Query("SELECT qr.numericAnswer, COUNT(qr) FROM QuestionResponseEntity qr " +
-           "JOIN qr.surveyResponse sr " +
-           "WHERE sr.surveyId = :surveyId AND qr.questionId = :questionId " +
-           "AND qr.numericAnswer IS NOT NULL " +
-           "GROUP BY qr.numericAnswer " +
-           "ORDER BY qr.numericAnswer")
-    List<Object[]> countNumericAnswersByValue(
-            @Param("surveyId") UUID surveyId,
-            @Param("questionId") UUID questionId);
+    @Query("SELECT qr.questionId, COUNT(qr) FROM QuestionResponseEntity qr " +
+           "WHERE qr.surveyId = :surveyId " +
+           "GROUP BY qr.questionId")
+    List<Object[]> countAnswersPerQuestion(@Param("surveyId") UUID surveyId);
+
+    /**
+     * Count numeric answers per question and value across a survey.
+     */
+    @Query("SELECT qr.questionId, qr.numericAnswer, COUNT(qr) FROM QuestionResponseEntity qr " +
+           "WHERE qr.surveyId = :surveyId AND qr.numericAnswer IS NOT NULL " +
+           "GROUP BY qr.questionId, qr.numericAnswer")
+    List<Object[]> countNumericAnswersPerQuestionAndValue(@Param("surveyId") UUID surveyId);
 }
@@ -21,16 +21,12 @@ public interface QuestionResponseSelectedOptionRepository extends JpaRepository<
     List<QuestionResponseSelectedOptionEntity> findByQuestionResponseId(UUID questionResponseId);
 
     /**
-     * Count selections per option for a question in a survey.
+     * Count selections per question and option across a survey, whatever label the option was
+     * selected under, with one of its label snapshots.
      */
-    @Query("SELECT so.optionId, so.labelSnapshot, COUNT(so) " +
+    @Query("SELECT so.questionId, so.optionId, MAX(so.labelSnapshot), COUNT(so) " +
            "FROM QuestionResponseSelectedOptionEntity so " +
-           "JOIN so.questionResponse qr " +
-           "JOIN qr.surveyResponse sr " +
-           "WHERE sr.surveyId = :surveyId AND qr.questionId = :questionId " +
-           "GROUP BY so.optionId, so.labelSnapshot " +
-           "ORDER BY COUNT(so) DESC")
-    List<Object[]> countSelectionsPerOption(
-            @Param("surveyId") UUID surveyId,
-            @Param("questionId") UUID questionId);
+           "WHERE so.surveyId = :surveyId " +
+           "GROUP BY so.questionId, so.optionId")
+    List<Object[]> countSelectionsPerQuestionAndOption(@Param("surveyId") UUID surveyId);
 }
@@ -1,6 +1,7 @@
 package net.talaatharb.survey.repository;
 
 import net.talaatharb.survey.entity.SurveyQuestionLinkEntity;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -18,8 +19,9 @@ import java.util.UUID;
 public interface SurveyQuestionLinkRepository extends JpaRepository<SurveyQuestionLinkEntity, UUID> {
 
     /**
-     * Find all links for a survey, ordered by orderIndex.
+     * Find all links for a survey, ordered by orderIndex, with their questions and options.
      */
+    @EntityGraph(attributePaths = {"question", "question.options"})
     List<SurveyQuestionLinkEntity> findBySurveyIdOrderByOrderIndexAsc(UUID surveyId);
 
     /**
@@ -45,21 +47,14 @@ public interface SurveyQuestionLinkRepository extends JpaRepository<SurveyQuesti
     long countBySurveyId(UUID surveyId);
 
     /**
-     * Get the maximum order index for a survey.
+     * Find all links for a survey in order, without their questions.
      */
-    @Query("SELECT COALESCE(MAX(l.orderIndex), -1) FROM SurveyQuestionLinkEntity l WHERE l.survey.id = :surveyId")
-    int getMaxOrderIndex(@Param("surveyId") UUID surveyId);
+    @Query("SELECT l FROM SurveyQuestionLinkEntity l WHERE l.survey.id = :surveyId ORDER BY l.orderIndex, l.id")
+    List<SurveyQuestionLinkEntity> findOrderedBySurveyId(@Param("surveyId") UUID surveyId);
 
     /**
-     * Update order indices for links with indices greater than the given value.
-     */
-    @Modifying
-    @Query("UPDATE SurveyQuestionLinkEntity l SET l.orderIndex = l.orderIndex - 1 " +
-           "WHERE l.survey.id = :surveyId AND l.orderIndex > :orderIndex")
-    void decrementOrderIndicesAfter(@Param("surveyId") UUID surveyId, @Param("orderIndex") int orderIndex);
-
-    /**
-     * Find non-hidden links for a survey (for public display).
+     * Find non-hidden links for a survey (for public display), with their questions and options.
      */
+    @EntityGraph(attributePaths = {"question", "question.options"})
     List<SurveyQuestionLinkEntity> findBySurveyIdAndHiddenFalseOrderByOrderIndexAsc(UUID surveyId);
 }
@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -17,10 +18,21 @@ import java.util.UUID;
 @Repository
 public interface SurveyRepository extends JpaRepository<SurveyEntity, UUID> {
 
+    String SUMMARY_SELECT =
+            "SELECT s.id AS id, s.title AS title, s.description AS description, s.published AS published, " +
+            "s.archived AS archived, s.publishedVersion AS publishedVersion, " +
+            "(SELECT COUNT(l) FROM SurveyQuestionLinkEntity l WHERE l.survey = s) AS questionCount, " +
+            "(SELECT COUNT(r) FROM SurveyResponseEntity r WHERE r.surveyId = s.id) AS responseCount, " +
+            "(SELECT MAX(r.submittedAt) FROM SurveyResponseEntity r WHERE r.surveyId = s.id) AS lastSubmittedAt, " +
+            "s.createdAt AS createdAt, s.updatedAt AS updatedAt " +
+            "FROM SurveyEntity s WHERE s.archived = false";
+
     /**
-     * Find all non-archived surveys with pagination.
+     * Find summaries of all non-archived surveys with pagination.
      */
-    Page<SurveyEntity> findByArchivedFalse(Pageable pageable);
+    @Query(value = SUMMARY_SELECT,
+           countQuery = "SELECT COUNT(s) FROM SurveyEntity s WHERE s.archived = false")
+    Page<SurveySummary> findSummaries(Pageable pageable);
 
     /**
      * Find a survey by ID that is not archived.
@@ -33,10 +45,17 @@ public interface SurveyRepository extends JpaRepository<SurveyEntity, UUID> {
     Optional<SurveyEntity> findByIdAndPublishedTrueAndArchivedFalse(UUID id);
 
     /**
-     * Search surveys by title containing the search term.
+     * Find published surveys that have no snapshot yet.
+     */
+    List<SurveyEntity> findByPublishedTrueAndArchivedFalseAndPublishedVersionIsNull();
+
+    /**
+     * Search summaries of surveys by title containing the search term.
      */
-    @Query("SELECT s FROM SurveyEntity s WHERE s.archived = false AND LOWER(s.title) LIKE LOWER(CONCAT('%', :search, '%'))")
-    Page<SurveyEntity> searchByTitle(@Param("search") String search, Pageable pageable);
+    @Query(value = SUMMARY_SELECT + " AND LOWER(s.title) LIKE LOWER(CONCAT('%', :search, '%'))",
+           countQuery = "SELECT COUNT(s) FROM SurveyEntity s " +
+                        "WHERE s.archived = false AND LOWER(s.title) LIKE LOWER(CONCAT('%', :search, '%'))")
+    Page<SurveySummary> searchSummariesByTitle(@Param("search") String search, Pageable pageable);
 
     /**
      * Count the number of question links for a survey.
@@ -1,6 +1,8 @@
 package net.talaatharb.survey.repository;
 
+import net.talaatharb.survey.dto.SurveyResponseSummaryDto;
 import net.talaatharb.survey.entity.SurveyResponseEntity;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -9,6 +11,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -19,16 +22,48 @@ import java.util.UUID;
 @Repository
 public interface SurveyResponseRepository extends JpaRepository<SurveyResponseEntity, UUID> {
 
+    String SUMMARY = "new net.talaatharb.survey.dto.SurveyResponseSummaryDto(" +
+                     "r.id, r.surveyId, r.submittedAt, r.submitterId, r.answerCount)";
+
+    /**
+     * Find summaries of all responses for a survey, ordered by submission time descending.
+     */
+    @Query(value = "SELECT " + SUMMARY + " FROM SurveyResponseEntity r WHERE r.surveyId = :surveyId " +
+                   "ORDER BY r.submittedAt DESC",
+           countQuery = "SELECT COUNT(r) FROM SurveyResponseEntity r WHERE r.surveyId = :surveyId")
+    Page<SurveyResponseSummaryDto> findSummariesBySurveyId(@Param("surveyId") UUID surveyId, Pageable pageable);
+
     /**
-     * Find all responses for a survey, ordered by submission time descending.
+     * Find summaries of the newest responses for a survey, the first page of a keyset scroll.
      */
-    Page<SurveyResponseEntity> findBySurveyIdOrderBySubmittedAtDesc(UUID surveyId, Pageable pageable);
+    @Query("SELECT " + SUMMARY + " FROM SurveyResponseEntity r WHERE r.surveyId = :surveyId " +
+           "ORDER BY r.submittedAt DESC, r.id DESC")
+    List<SurveyResponseSummaryDto> findLatestSummaries(@Param("surveyId") UUID surveyId, Limit limit);
+
+    /**
+     * Find summaries of the responses for a survey submitted before the given (submitted_at, id)
+     * keyset, newest first. Seeks through the survey/submitted_at index, so every page costs the
+     * same regardless of its depth.
+     */
+    @Query("SELECT " + SUMMARY + " FROM SurveyResponseEntity r WHERE r.surveyId = :surveyId " +
+           "AND (r.submittedAt < :submittedAt OR (r.submittedAt = :submittedAt AND r.id < :id)) " +
+           "ORDER BY r.submittedAt DESC, r.id DESC")
+    List<SurveyResponseSummaryDto> findSummariesBefore(
+            @Param("surveyId") UUID surveyId,
+            @Param("submittedAt") LocalDateTime submittedAt,
+            @Param("id") UUID id,
+            Limit limit);
 
     /**
      * Find a response by ID and survey ID.
      */
     Optional<SurveyResponseEntity> findByIdAndSurveyId(UUID id, UUID surveyId);
 
+    /**
+     * Find the responses of a survey with the given IDs.
+     */
+    List<SurveyResponseEntity> findByIdInAndSurveyId(Collection<UUID> ids, UUID surveyId);
+
     /**
      * Count responses for a survey.
      */
@@ -0,0 +1,36 @@
+package net.talaatharb.survey.repository;
+
+import net.talaatharb.survey.entity.SurveySnapshotEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository for SurveySnapshot entities.
+ */
+@Repository
+public interface SurveySnapshotRepository extends JpaRepository<SurveySnapshotEntity, UUID> {
+
+    /**
+     * Find a specific version of a survey definition.
+     */
+    Optional<SurveySnapshotEntity> findBySurveyIdAndVersion(UUID surveyId, Integer version);
+
+    /**
+     * Find the snapshot currently served for a survey that is published and not archived.
+     */
+    @Query("SELECT sn FROM SurveySnapshotEntity sn, SurveyEntity s " +
+           "WHERE s.id = :surveyId AND s.published = true AND s.archived = false " +
+           "AND sn.surveyId = s.id AND sn.version = s.publishedVersion")
+    Optional<SurveySnapshotEntity> findPublishedBySurveyId(@Param("surveyId") UUID surveyId);
+
+    /**
+     * Get the latest snapshot version of a survey, or 0 if it was never published.
+     */
+    @Query("SELECT COALESCE(MAX(sn.version), 0) FROM SurveySnapshotEntity sn WHERE sn.surveyId = :surveyId")
+    int getMaxVersion(@Param("surveyId") UUID surveyId);
+}
@@ -0,0 +1,32 @@
+package net.talaatharb.survey.repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Projection of a survey for list pages, with its question and response counts.
+ */
+public interface SurveySummary {
+
+    UUID getId();
+
+    String getTitle();
+
+    String getDescription();
+
+    boolean isPublished();
+
+    boolean isArchived();
+
+    Integer getPublishedVersion();
+
+    long getQuestionCount();
+
+    long getResponseCount();
+
+    LocalDateTime getLastSubmittedAt();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+}
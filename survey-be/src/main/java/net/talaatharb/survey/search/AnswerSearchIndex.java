@@ -0,0 +1,596 @@
+package net.talaatharb.survey.search;
+
+import net.talaatharb.survey.entity.AnswerType;
+import net.talaatharb.survey.event.SubmissionsRecordedEvent;
+import net.talaatharb.survey.ingestion.SubmissionRecord;
+import net.talaatharb.survey.ingestion.SubmissionRecord.AnswerRecord;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.uhighlight.DefaultPassageFormatter;
+import org.apache.lucene.search.uhighlight.UnifiedHighlighter;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * On-disk full-text index of text answers, with one Lucene index per survey.
+ * <p>
+ * Committed submissions queue their text answers, which a background thread periodically adds
+ * to the index of their survey, commits and makes searchable. Answers are keyed by their ID, so
+ * indexing one twice replaces it. Answers still queued when the process dies, or dropped while
+ * the queue is full, are missing until the survey is rebuilt from the response tables.
+ * <p>
+ * The index of a survey is opened on first use and closed again once it is idle for a while, or
+ * when more indexes are open than configured, least recently used first, so the number of open
+ * writers does not grow with the number of surveys.
+ * <p>
+ * Surveys answered before answers were indexed have no index. Once the application is ready they
+ * are indexed in the background, and {@link #isIndexing(UUID)} tells searchers that their results
+ * may be incomplete until then.
+ * <p>
+ * The index starts before and stops after the ingestion pipeline, so replayed and drained
+ * submissions are indexed.
+ */
+@Component
+public class AnswerSearchIndex implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(AnswerSearchIndex.class);
+
+    private static final String ANSWER_ID = "answerId";
+    private static final String SUBMISSION_ID = "submissionId";
+    private static final String QUESTION_ID = "questionId";
+    private static final String TEXT = "text";
+
+    /**
+     * Answer hits fetched per requested submission, as several answers of one submission may match.
+     */
+    private static final int ANSWER_HITS_PER_SUBMISSION = 4;
+
+    private static final int HIGHLIGHT_MAX_LENGTH = 10_000;
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String SELECT_SURVEYS_WITH_TEXT_ANSWERS =
+            "SELECT s.id FROM surveys s WHERE EXISTS (SELECT 1 FROM question_responses qr " +
+            "WHERE qr.survey_id = s.id AND qr.answer_type = 'TEXT' AND qr.text_answer IS NOT NULL)";
+
+    private static final String SELECT_TEXT_ANSWERS =
+            "SELECT id, survey_response_id, question_id, text_answer FROM question_responses " +
+            "WHERE survey_id = ? AND answer_type = 'TEXT' AND text_answer IS NOT NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AnswerSearchProperties properties;
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final BlockingQueue<IndexedAnswer> queue;
+    private final ConcurrentMap<UUID, Partition> partitions = new ConcurrentHashMap<>();
+
+    /**
+     * Surveys that had an index on start; any other survey with text answers still has to be indexed.
+     */
+    private final Set<UUID> indexedOnStart = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Surveys whose existing answers are not indexed yet.
+     */
+    private final Set<UUID> unindexed = ConcurrentHashMap.newKeySet();
+
+    private ScheduledExecutorService indexer;
+    private volatile boolean running;
+
+    /**
+     * A text answer waiting to be indexed.
+     */
+    private record IndexedAnswer(UUID surveyId, UUID submissionId, UUID answerId, UUID questionId, String text) {
+    }
+
+    /**
+     * A matching answer with its best passage, matched terms wrapped in {@code <mark>} and the
+     * rest HTML-escaped.
+     */
+    public record AnswerHit(UUID questionId, String highlight) {
+    }
+
+    /**
+     * A submission with matching answers, scored by its best answer.
+     */
+    public record SubmissionHit(UUID submissionId, float score, List<AnswerHit> answers) {
+    }
+
+    public AnswerSearchIndex(JdbcTemplate jdbcTemplate, AnswerSearchProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    @TransactionalEventListener
+    public void onSubmissionsRecorded(SubmissionsRecordedEvent event) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        int dropped = 0;
+        for (SubmissionRecord submission : event.submissions()) {
+            for (AnswerRecord answer : submission.getAnswers()) {
+                if (answer.getAnswerType() != AnswerType.TEXT || answer.getTextAnswer() == null) {
+                    continue;
+                }
+                IndexedAnswer indexed = new IndexedAnswer(submission.getSurveyId(), submission.getId(),
+                        answer.getId(), answer.getQuestionId(), answer.getTextAnswer());
+                if (!queue.offer(indexed)) {
+                    dropped++;
+                }
+            }
+        }
+        if (dropped > 0) {
+            log.warn("Answer index queue is full, dropped {} answers; rebuild their surveys to index them", dropped);
+        }
+    }
+
+    /**
+     * Index, in the background, the surveys answered before answers were indexed. Surveys failing
+     * to index stay incomplete until they are rebuilt.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void indexUnindexedSurveys() {
+        if (!running) {
+            return;
+        }
+        List<UUID> surveys = jdbcTemplate.queryForList(SELECT_SURVEYS_WITH_TEXT_ANSWERS, UUID.class).stream()
+                .filter(surveyId -> !indexedOnStart.contains(surveyId))
+                .toList();
+        if (surveys.isEmpty()) {
+            return;
+        }
+        unindexed.addAll(surveys);
+        indexer.execute(() -> {
+            log.info("Indexing the text answers of {} surveys", surveys.size());
+            for (UUID surveyId : surveys) {
+                if (!running) {
+                    return;
+                }
+                try {
+                    rebuild(surveyId);
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Failed to index the text answers of survey {}", surveyId, e);
+                }
+                closeIdle();
+            }
+        });
+    }
+
+    /**
+     * Whether the existing answers of a survey are still being indexed, so searches may miss some.
+     */
+    public boolean isIndexing(UUID surveyId) {
+        return unindexed.contains(surveyId);
+    }
+
+    /**
+     * Search the text answers of a survey and return the best matching submissions, best first.
+     * The query supports quoted phrases, {@code -} to exclude, {@code |} for alternatives and a
+     * trailing {@code *} for prefixes; all other terms must match.
+     */
+    public List<SubmissionHit> search(UUID surveyId, String query, int limit) throws IOException {
+        SimpleQueryParser parser = new SimpleQueryParser(analyzer, TEXT);
+        parser.setDefaultOperator(BooleanClause.Occur.MUST);
+        Query parsed = parser.parse(query);
+        if (parsed == null) {
+            return List.of();
+        }
+        if (!partitions.containsKey(surveyId) && !Files.isDirectory(directoryOf(surveyId))) {
+            return List.of(); // Nothing indexed for the survey yet
+        }
+
+        Partition partition = acquire(surveyId);
+        try {
+            return search(partition, parsed, limit);
+        } finally {
+            partition.release();
+        }
+    }
+
+    private List<SubmissionHit> search(Partition partition, Query parsed, int limit) throws IOException {
+        IndexSearcher searcher = partition.searcherManager.acquire();
+        try {
+            TopDocs topDocs = searcher.search(parsed, limit * ANSWER_HITS_PER_SUBMISSION);
+            String[] highlights = UnifiedHighlighter.builder(searcher, analyzer)
+                    .withFormatter(new DefaultPassageFormatter("<mark>", "</mark>", "... ", true))
+                    .withMaxLength(HIGHLIGHT_MAX_LENGTH)
+                    .withMaxNoHighlightPassages(1)
+                    .build()
+                    .highlight(TEXT, parsed, topDocs, 1);
+
+            StoredFields storedFields = searcher.storedFields();
+            Map<UUID, SubmissionHit> hits = new LinkedHashMap<>();
+            for (int i = 0; i < topDocs.scoreDocs.length; i++) {
+                ScoreDoc scoreDoc = topDocs.scoreDocs[i];
+                Document document = storedFields.document(scoreDoc.doc, Set.of(SUBMISSION_ID, QUESTION_ID));
+                UUID submissionId = UUID.fromString(document.get(SUBMISSION_ID));
+                SubmissionHit hit = hits.get(submissionId);
+                if (hit == null) {
+                    if (hits.size() == limit) {
+                        continue;
+                    }
+                    hit = new SubmissionHit(submissionId, scoreDoc.score, new ArrayList<>());
+                    hits.put(submissionId, hit);
+                }
+                hit.answers().add(new AnswerHit(UUID.fromString(document.get(QUESTION_ID)), highlights[i]));
+            }
+            return List.copyOf(hits.values());
+        } finally {
+            partition.searcherManager.release(searcher);
+        }
+    }
+
+    /**
+     * Replace the index of a survey with the text answers in the response tables. Answers queued
+     * meanwhile are indexed after the rebuild.
+     *
+     * @return the number of indexed answers
+     */
+    public int rebuild(UUID surveyId) throws IOException {
+        Partition partition = acquire(surveyId);
+        try {
+            return rebuild(surveyId, partition);
+        } finally {
+            partition.release();
+        }
+    }
+
+    private int rebuild(UUID surveyId, Partition partition) throws IOException {
+        AtomicInteger indexed = new AtomicInteger();
+        synchronized (partition) {
+            try {
+                partition.writer.deleteAll();
+                jdbcTemplate.query(connection -> {
+                    PreparedStatement statement = connection.prepareStatement(SELECT_TEXT_ANSWERS,
+                            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    statement.setFetchSize(FETCH_SIZE);
+                    statement.setObject(1, surveyId);
+                    return statement;
+                }, rs -> {
+                    index(partition, new IndexedAnswer(surveyId, rs.getObject(2, UUID.class),
+                            rs.getObject(1, UUID.class), rs.getObject(3, UUID.class), rs.getString(4)));
+                    indexed.incrementAndGet();
+                });
+                partition.commit();
+                unindexed.remove(surveyId);
+            } catch (IOException | RuntimeException e) {
+                // Discard the partial rebuild; the survey keeps its last committed index
+                partitions.remove(surveyId, partition);
+                partition.rollbackQuietly();
+                if (e instanceof UncheckedIOException unchecked) {
+                    throw unchecked.getCause();
+                }
+                throw e;
+            }
+        }
+        return indexed.get();
+    }
+
+    /**
+     * Index all queued answers and make them searchable.
+     */
+    public void flush() {
+        List<IndexedAnswer> answers = new ArrayList<>();
+        queue.drainTo(answers);
+        Map<UUID, Partition> changed = new HashMap<>();
+        try {
+            for (IndexedAnswer answer : answers) {
+                try {
+                    Partition partition = changed.get(answer.surveyId());
+                    if (partition == null) {
+                        partition = acquire(answer.surveyId());
+                        changed.put(answer.surveyId(), partition);
+                    }
+                    synchronized (partition) {
+                        index(partition, answer);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Failed to index answer {} of survey {}", answer.answerId(), answer.surveyId(), e);
+                }
+            }
+            for (Partition partition : changed.values()) {
+                try {
+                    synchronized (partition) {
+                        partition.commit();
+                    }
+                } catch (IOException e) {
+                    log.warn("Failed to commit the answer index of survey {}", partition.surveyId, e);
+                }
+            }
+        } finally {
+            changed.values().forEach(Partition::release);
+        }
+    }
+
+    /**
+     * Close the indexes idle for longer than the idle timeout, then the least recently used idle
+     * ones while more are open than allowed. They are opened again on their next use.
+     */
+    void closeIdle() {
+        long idleSince = System.nanoTime() - properties.getIdleTimeout().toNanos();
+        // Last uses are read once, as they change while sorting
+        List<Map.Entry<Partition, Long>> open = partitions.values().stream()
+                .map(partition -> Map.entry(partition, partition.getLastUsed()))
+                .sorted(Map.Entry.comparingByValue())
+                .toList();
+        int excess = open.size() - properties.getMaxOpenIndexes();
+        for (Map.Entry<Partition, Long> entry : open) {
+            Partition partition = entry.getKey();
+            boolean stale = entry.getValue() - idleSince < 0;
+            if ((stale || excess > 0) && partition.closeIfUnused()) {
+                partitions.remove(partition.surveyId, partition);
+                excess--;
+            }
+        }
+    }
+
+    /**
+     * Number of survey indexes currently open.
+     */
+    int openIndexCount() {
+        return partitions.size();
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isEnabled() || running) {
+            return;
+        }
+        indexedOnStart.addAll(listIndexedSurveys());
+        long interval = properties.getCommitInterval().toMillis();
+        indexer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "answer-search-indexer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        indexer.scheduleWithFixedDelay(this::flushSafely, interval, interval, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        indexer.shutdown();
+        try {
+            indexer.awaitTermination(properties.getCommitInterval().toMillis() * 2, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        partitions.values().forEach(Partition::closeQuietly);
+        partitions.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Start before and stop after the ingestion pipeline.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 8192;
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+            closeIdle();
+        } catch (RuntimeException e) {
+            log.error("Unexpected error while indexing answers", e);
+        }
+    }
+
+    private void index(Partition partition, IndexedAnswer answer) {
+        Document document = new Document();
+        document.add(new StringField(ANSWER_ID, answer.answerId().toString(), Field.Store.NO));
+        document.add(new StringField(SUBMISSION_ID, answer.submissionId().toString(), Field.Store.YES));
+        document.add(new StringField(QUESTION_ID, answer.questionId().toString(), Field.Store.YES));
+        document.add(new TextField(TEXT, answer.text(), Field.Store.YES));
+        try {
+            partition.writer.updateDocument(new Term(ANSWER_ID, answer.answerId().toString()), document);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Get the index of a survey, opening it if needed, and keep it open until {@link Partition#release()}.
+     */
+    private Partition acquire(UUID surveyId) throws IOException {
+        while (true) {
+            Partition partition;
+            try {
+                partition = partitions.computeIfAbsent(surveyId, id -> {
+                    try {
+                        return new Partition(id, directoryOf(id), analyzer);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            if (partition.tryAcquire()) {
+                return partition;
+            }
+            // Closed since it was looked up
+            partitions.remove(surveyId, partition);
+        }
+    }
+
+    /**
+     * Surveys with an index directory, whose names are survey IDs.
+     */
+    private Set<UUID> listIndexedSurveys() {
+        if (!Files.isDirectory(properties.getDirectory())) {
+            return Set.of();
+        }
+        Set<UUID> surveys = new HashSet<>();
+        try (Stream<Path> directories = Files.list(properties.getDirectory())) {
+            directories.filter(Files::isDirectory).forEach(directory -> {
+                try {
+                    surveys.add(UUID.fromString(directory.getFileName().toString()));
+                } catch (IllegalArgumentException e) {
+                    // Not a survey index
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list the answer indexes", e);
+        }
+        return surveys;
+    }
+
+    private Path directoryOf(UUID surveyId) {
+        return properties.getDirectory().resolve(surveyId.toString());
+    }
+
+    /**
+     * The index of one survey: its writer and the searchers over what it last committed. Counts
+     * its current users, so it is only closed as idle while nobody uses it.
+     */
+    private static final class Partition implements Closeable {
+
+        private final UUID surveyId;
+        private final Directory directory;
+        private final IndexWriter writer;
+        private final SearcherManager searcherManager;
+
+        private final Object usage = new Object();
+        private int users;
+        private boolean closed;
+        private volatile long lastUsed = System.nanoTime();
+
+        private Partition(UUID surveyId, Path path, Analyzer analyzer) throws IOException {
+            this.surveyId = surveyId;
+            this.directory = FSDirectory.open(path);
+            this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                    .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+            this.searcherManager = new SearcherManager(writer, null);
+        }
+
+        private void commit() throws IOException {
+            writer.commit();
+            searcherManager.maybeRefresh();
+        }
+
+        private boolean tryAcquire() {
+            synchronized (usage) {
+                if (closed) {
+                    return false;
+                }
+                users++;
+                return true;
+            }
+        }
+
+        private void release() {
+            synchronized (usage) {
+                users--;
+                lastUsed = System.nanoTime();
+            }
+        }
+
+        private long getLastUsed() {
+            return lastUsed;
+        }
+
+        /**
+         * Close the index unless it is in use or already closed.
+         */
+        private boolean closeIfUnused() {
+            synchronized (usage) {
+                if (closed || users > 0) {
+                    return false;
+                }
+                closed = true;
+            }
+            closeQuietly();
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            searcherManager.close();
+            writer.close();
+            directory.close();
+        }
+
+        private void rollbackQuietly() {
+            synchronized (usage) {
+                closed = true;
+            }
+            try {
+                writer.rollback();
+                searcherManager.close();
+                directory.close();
+            } catch (IOException e) {
+                log.warn("Failed to roll back the answer index of survey {}", surveyId, e);
+            }
+        }
+
+        private void closeQuietly() {
+            try {
+                close();
+            } catch (IOException e) {
+                log.warn("Failed to close the answer index of survey {}", surveyId, e);
+            }
+        }
+    }
+}
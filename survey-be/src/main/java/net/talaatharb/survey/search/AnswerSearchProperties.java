@@ -0,0 +1,47 @@
+package net.talaatharb.survey.search;
+
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Configuration of the full-text index of text answers.
+ */
+@Data
+@Validated
+@ConfigurationProperties(prefix = "survey.search.answers")
+public class AnswerSearchProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Directory holding one index per survey.
+     */
+    private Path directory = Path.of("answer-index");
+
+    /**
+     * How often queued answers are added to the index and made searchable.
+     */
+    private Duration commitInterval = Duration.ofSeconds(1);
+
+    /**
+     * Maximum number of answers waiting to be indexed; answers beyond it are dropped until a rebuild.
+     */
+    @Min(1)
+    private int queueCapacity = 100_000;
+
+    /**
+     * How long the index of a survey stays open after its last use.
+     */
+    private Duration idleTimeout = Duration.ofMinutes(5);
+
+    /**
+     * Maximum number of survey indexes kept open; beyond it the least recently used idle ones are closed.
+     */
+    @Min(1)
+    private int maxOpenIndexes = 64;
+}
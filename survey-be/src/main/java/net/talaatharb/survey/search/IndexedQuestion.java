@@ -0,0 +1,29 @@
+package net.talaatharb.survey.search;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * The searchable and sortable fields of a question held by the {@link QuestionSearchIndex}.
+ * Title and description are kept lower-cased for matching; the original title is kept for sorting.
+ */
+record IndexedQuestion(UUID id, String title, String normalizedTitle, String normalizedDescription,
+                       LocalDateTime createdAt, LocalDateTime updatedAt) {
+
+    static IndexedQuestion of(UUID id, String title, String description, LocalDateTime createdAt,
+                              LocalDateTime updatedAt) {
+        return new IndexedQuestion(id, title, normalize(title), normalize(description), createdAt, updatedAt);
+    }
+
+    static String normalize(String text) {
+        return text != null ? text.toLowerCase(Locale.ROOT) : "";
+    }
+
+    /**
+     * Whether the title or the description contains the normalized query.
+     */
+    boolean contains(String normalizedQuery) {
+        return normalizedTitle.contains(normalizedQuery) || normalizedDescription.contains(normalizedQuery);
+    }
+}
@@ -0,0 +1,235 @@
+package net.talaatharb.survey.search;
+
+import lombok.RequiredArgsConstructor;
+import net.talaatharb.survey.entity.QuestionEntity;
+import net.talaatharb.survey.event.QuestionChangedEvent;
+import net.talaatharb.survey.repository.QuestionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process trigram index over the titles and descriptions of non-archived questions.
+ * <p>
+ * Built from the database once the application is ready and kept current from
+ * {@link QuestionChangedEvent}s. Until it is built, lookups return empty so callers can fall back
+ * to the database. Changes committed while it is being built are replayed once it is installed.
+ */
+@Component
+@RequiredArgsConstructor
+public class QuestionSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(QuestionSearchIndex.class);
+
+    /**
+     * Share of the query's trigrams a question needs to be a fuzzy match.
+     */
+    private static final double FUZZY_MIN_SIMILARITY = 0.6;
+
+    private static final Map<String, Comparator<IndexedQuestion>> SORTABLE_PROPERTIES = Map.of(
+            "id", Comparator.comparing(IndexedQuestion::id),
+            "title", Comparator.comparing(IndexedQuestion::title),
+            "createdAt", Comparator.comparing(IndexedQuestion::createdAt),
+            "updatedAt", Comparator.comparing(IndexedQuestion::updatedAt));
+
+    private final QuestionRepository questionRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    /**
+     * Held from reading a question to installing it, so a refresh that read an older version of it
+     * can not replace a newer one. Searches only wait for the install.
+     */
+    private final Lock refreshLock = new ReentrantLock();
+    private final Set<UUID> changedWhileBuilding = new HashSet<>();
+    private TrigramIndex index;
+
+    /**
+     * A question matching a ranked search, higher scores first.
+     */
+    public record Match(UUID questionId, double score) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        TrigramIndex built = new TrigramIndex();
+        for (Object[] row : questionRepository.findSearchFieldsByArchivedFalse()) {
+            built.add(IndexedQuestion.of((UUID) row[0], (String) row[1], (String) row[2],
+                    (LocalDateTime) row[3], (LocalDateTime) row[4]));
+        }
+
+        Set<UUID> changed;
+        lock.writeLock().lock();
+        try {
+            index = built;
+            changed = Set.copyOf(changedWhileBuilding);
+            changedWhileBuilding.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        changed.forEach(this::refresh);
+        log.info("Indexed {} questions for search", built.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onQuestionChanged(QuestionChangedEvent event) {
+        refresh(event.questionId());
+    }
+
+    /**
+     * Find a page of the non-archived questions whose title or description contain the query,
+     * ignoring case, ordered by the page's sort. Empty if the index is not built yet or the sort
+     * is on a property the index does not hold.
+     */
+    public Optional<Page<UUID>> findPage(String query, Pageable pageable) {
+        Optional<Comparator<IndexedQuestion>> order = comparator(pageable.getSort());
+        if (order.isEmpty()) {
+            return Optional.empty();
+        }
+
+        List<IndexedQuestion> matches;
+        lock.readLock().lock();
+        try {
+            if (index == null) {
+                return Optional.empty();
+            }
+            matches = index.findContaining(IndexedQuestion.normalize(query));
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        matches.sort(order.get());
+        List<UUID> content = matches.stream()
+                .skip(pageable.isPaged() ? pageable.getOffset() : 0)
+                .limit(pageable.isPaged() ? pageable.getPageSize() : matches.size())
+                .map(IndexedQuestion::id)
+                .toList();
+        return Optional.of(new PageImpl<>(content, pageable, matches.size()));
+    }
+
+    /**
+     * Rank the non-archived questions against the query. Title matches rank above description
+     * matches, and a title starting with the query ranks highest. With {@code fuzzy}, questions
+     * sharing most of the query's trigrams, such as misspellings, follow by similarity.
+     * Empty if the index is not built yet.
+     */
+    public Optional<List<Match>> rank(String query, boolean fuzzy, int limit) {
+        String normalized = IndexedQuestion.normalize(query);
+        Map<UUID, Double> scores = new HashMap<>();
+        Map<UUID, IndexedQuestion> questions = new HashMap<>();
+
+        lock.readLock().lock();
+        try {
+            if (index == null) {
+                return Optional.empty();
+            }
+            for (IndexedQuestion question : index.findContaining(normalized)) {
+                questions.put(question.id(), question);
+                scores.put(question.id(), substringScore(question, normalized));
+            }
+            int queryTrigrams = TrigramIndex.trigrams(normalized).size();
+            if (fuzzy && queryTrigrams > 0) {
+                int minShared = (int) Math.ceil(queryTrigrams * FUZZY_MIN_SIMILARITY);
+                index.forEachSharingTrigrams(normalized, minShared, (question, shared) -> {
+                    questions.putIfAbsent(question.id(), question);
+                    scores.putIfAbsent(question.id(), (double) shared / queryTrigrams);
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Comparator<Map.Entry<UUID, Double>> byScore = Map.Entry.<UUID, Double>comparingByValue().reversed();
+        return Optional.of(scores.entrySet().stream()
+                .sorted(byScore.thenComparing(entry -> questions.get(entry.getKey()).createdAt(),
+                        Comparator.reverseOrder()))
+                .limit(limit)
+                .map(entry -> new Match(entry.getKey(), entry.getValue()))
+                .toList());
+    }
+
+    /**
+     * Re-read a question and replace, add or drop it in the index.
+     */
+    private void refresh(UUID questionId) {
+        refreshLock.lock();
+        try {
+            lock.writeLock().lock();
+            try {
+                if (index == null) {
+                    changedWhileBuilding.add(questionId);
+                    return;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            Optional<QuestionEntity> question = questionRepository.findByIdAndArchivedFalse(questionId);
+
+            lock.writeLock().lock();
+            try {
+                if (question.isPresent()) {
+                    QuestionEntity entity = question.get();
+                    index.add(IndexedQuestion.of(entity.getId(), entity.getTitle(), entity.getDescription(),
+                            entity.getCreatedAt(), entity.getUpdatedAt()));
+                } else {
+                    index.remove(questionId);
+                }
+                if (index.needsCompaction()) {
+                    index = index.compact();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Exact substring matches score above every fuzzy match, which score below 1.
+     */
+    private static double substringScore(IndexedQuestion question, String normalizedQuery) {
+        if (question.normalizedTitle().startsWith(normalizedQuery)) {
+            return 4;
+        }
+        return question.normalizedTitle().contains(normalizedQuery) ? 3 : 2;
+    }
+
+    /**
+     * Translate a sort into a comparator over indexed questions, with the ID as the final tie-breaker.
+     */
+    private static Optional<Comparator<IndexedQuestion>> comparator(Sort sort) {
+        List<Comparator<IndexedQuestion>> comparators = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            Comparator<IndexedQuestion> comparator = SORTABLE_PROPERTIES.get(order.getProperty());
+            if (comparator == null || order.isIgnoreCase()) {
+                return Optional.empty();
+            }
+            comparators.add(order.isAscending() ? comparator : comparator.reversed());
+        }
+        comparators.add(SORTABLE_PROPERTIES.get("id"));
+        return comparators.stream().reduce(Comparator::thenComparing);
+    }
+}
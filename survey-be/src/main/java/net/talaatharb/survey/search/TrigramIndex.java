@@ -0,0 +1,184 @@
+package net.talaatharb.survey.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Inverted index from character trigrams to the questions whose title or description contain them.
+ * <p>
+ * Questions get increasing document numbers, so posting lists stay sorted by appending. Removing a
+ * question only clears its document; stale postings are skipped on lookup and dropped when the
+ * index is compacted. Not thread-safe, {@link QuestionSearchIndex} guards it with a lock.
+ */
+final class TrigramIndex {
+
+    static final int GRAM_LENGTH = 3;
+
+    private final List<IndexedQuestion> documents = new ArrayList<>();
+    private final Map<UUID, Integer> documentNumbers = new HashMap<>();
+    private final Map<String, PostingList> postings = new HashMap<>();
+
+    /**
+     * Add a question, replacing any previous version of it.
+     */
+    void add(IndexedQuestion question) {
+        remove(question.id());
+        int document = documents.size();
+        documents.add(question);
+        documentNumbers.put(question.id(), document);
+
+        Set<String> grams = trigrams(question.normalizedTitle());
+        grams.addAll(trigrams(question.normalizedDescription()));
+        for (String gram : grams) {
+            postings.computeIfAbsent(gram, key -> new PostingList()).add(document);
+        }
+    }
+
+    /**
+     * Remove a question if present.
+     */
+    void remove(UUID questionId) {
+        Integer document = documentNumbers.remove(questionId);
+        if (document != null) {
+            documents.set(document, null);
+        }
+    }
+
+    int size() {
+        return documentNumbers.size();
+    }
+
+    /**
+     * Whether enough documents were removed that rebuilding would noticeably shrink the postings.
+     */
+    boolean needsCompaction() {
+        int removed = documents.size() - documentNumbers.size();
+        return removed > 1024 && removed > documentNumbers.size();
+    }
+
+    /**
+     * A copy of this index without removed documents.
+     */
+    TrigramIndex compact() {
+        TrigramIndex compacted = new TrigramIndex();
+        for (IndexedQuestion question : documents) {
+            if (question != null) {
+                compacted.add(question);
+            }
+        }
+        return compacted;
+    }
+
+    /**
+     * Find the questions whose title or description contain the normalized query.
+     */
+    List<IndexedQuestion> findContaining(String normalizedQuery) {
+        List<IndexedQuestion> matches = new ArrayList<>();
+        if (normalizedQuery.length() < GRAM_LENGTH) {
+            // Too short to have trigrams, scan instead
+            for (IndexedQuestion question : documents) {
+                if (question != null && question.contains(normalizedQuery)) {
+                    matches.add(question);
+                }
+            }
+            return matches;
+        }
+
+        List<PostingList> lists = new ArrayList<>();
+        for (String gram : trigrams(normalizedQuery)) {
+            PostingList list = postings.get(gram);
+            if (list == null) {
+                return matches;
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(PostingList::size));
+
+        // Walk the shortest list, probe the others, then verify the candidate really contains the query
+        PostingList shortest = lists.getFirst();
+        candidates:
+        for (int i = 0; i < shortest.size(); i++) {
+            int document = shortest.get(i);
+            for (int j = 1; j < lists.size(); j++) {
+                if (!lists.get(j).contains(document)) {
+                    continue candidates;
+                }
+            }
+            IndexedQuestion question = documents.get(document);
+            if (question != null && question.contains(normalizedQuery)) {
+                matches.add(question);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Report every question sharing at least {@code minShared} distinct trigrams with the normalized
+     * query, together with the number it shares.
+     */
+    void forEachSharingTrigrams(String normalizedQuery, int minShared, ObjIntConsumer<IndexedQuestion> consumer) {
+        Map<Integer, Integer> shared = new HashMap<>();
+        for (String gram : trigrams(normalizedQuery)) {
+            PostingList list = postings.get(gram);
+            if (list == null) {
+                continue;
+            }
+            for (int i = 0; i < list.size(); i++) {
+                shared.merge(list.get(i), 1, Integer::sum);
+            }
+        }
+        shared.forEach((document, count) -> {
+            IndexedQuestion question = documents.get(document);
+            if (question != null && count >= minShared) {
+                consumer.accept(question, count);
+            }
+        });
+    }
+
+    /**
+     * The distinct trigrams of a normalized text, in order of first occurrence.
+     */
+    static Set<String> trigrams(String text) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    /**
+     * Growable sorted array of document numbers.
+     */
+    private static final class PostingList {
+
+        private int[] documents = new int[4];
+        private int size;
+
+        void add(int document) {
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+            }
+            documents[size++] = document;
+        }
+
+        int get(int index) {
+            return documents[index];
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean contains(int document) {
+            return Arrays.binarySearch(documents, 0, size, document) >= 0;
+        }
+    }
+}
@@ -1,19 +1,47 @@
 package net.talaatharb.survey.service;
 
 import lombok.RequiredArgsConstructor;
+import net.talaatharb.survey.analytics.AnalyticsAggregateStore;
+import net.talaatharb.survey.analytics.AnalyticsAggregateStore.RebuildResult;
+import net.talaatharb.survey.analytics.AnalyticsExecutor;
+import net.talaatharb.survey.analytics.AnalyticsProperties;
+import net.talaatharb.survey.analytics.LiveResultsBroadcaster;
+import net.talaatharb.survey.analytics.Reservoir;
+import net.talaatharb.survey.analytics.ScaleHistogram;
+import net.talaatharb.survey.analytics.SurveyAggregates;
+import net.talaatharb.survey.cache.SurveyAnalyticsCache;
+import net.talaatharb.survey.dto.AnalyticsRebuildDto;
 import net.talaatharb.survey.dto.SurveyAnalyticsDto;
 import net.talaatharb.survey.dto.SurveyAnalyticsDto.DailySubmissionCount;
 import net.talaatharb.survey.dto.SurveyAnalyticsDto.QuestionAnalyticsDto;
+import net.talaatharb.survey.dto.SurveyAnalyticsDto.QuestionAnalyticsDto.NpsScore;
 import net.talaatharb.survey.dto.SurveyAnalyticsDto.QuestionAnalyticsDto.OptionCount;
+import net.talaatharb.survey.entity.LinearScaleConfig;
 import net.talaatharb.survey.entity.QuestionEntity;
+import net.talaatharb.survey.entity.QuestionOptionEntity;
 import net.talaatharb.survey.entity.SurveyEntity;
 import net.talaatharb.survey.entity.SurveyQuestionLinkEntity;
 import net.talaatharb.survey.exception.ResourceNotFoundException;
 import net.talaatharb.survey.repository.*;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service for survey analytics.
@@ -23,42 +51,158 @@ import java.util.*;
 @Transactional(readOnly = true)
 public class AnalyticsService {
 
-    private static final int MAX_TEXT_SAMPLES = 10;
+    private static final int NPS_MIN = 0;
+    private static final int NPS_DETRACTOR_MAX = 6;
+    private static final int NPS_PROMOTER_MIN = 9;
+    private static final int NPS_MAX = 10;
 
     private final SurveyRepository surveyRepository;
     private final SurveyQuestionLinkRepository linkRepository;
     private final SurveyResponseRepository responseRepository;
     private final QuestionResponseRepository questionResponseRepository;
     private final QuestionResponseSelectedOptionRepository selectedOptionRepository;
+    private final AnalyticsAggregateStore aggregateStore;
+    private final AnalyticsProperties analyticsProperties;
+    private final SurveyAnalyticsCache analyticsCache;
+    private final LiveResultsBroadcaster liveResultsBroadcaster;
+    private final AnalyticsExecutor analyticsExecutor;
+    private final PlatformTransactionManager transactionManager;
 
     /**
-     * Get analytics for a survey.
+     * Get analytics for a survey. Results are cached, keyed on the survey's response count, and
+     * concurrent requests share one computation.
+     * <p>
+     * Runs without a transaction, so no connection is held while waiting for question analytics.
+     *
+     * @param fresh whether to skip results computed before this call, e.g. stale ones served while
+     *              refreshing, so that results stream deltas received since subscribing apply on top
      */
-    public SurveyAnalyticsDto getSurveyAnalytics(UUID surveyId) {
-        SurveyEntity survey = surveyRepository.findByIdAndArchivedFalse(surveyId)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SurveyAnalyticsDto getSurveyAnalytics(UUID surveyId, boolean fresh) {
+        surveyRepository.findByIdAndArchivedFalse(surveyId)
                 .orElseThrow(() -> new ResourceNotFoundException("Survey", "id", surveyId));
 
-        long totalSubmissions = responseRepository.countBySurveyId(surveyId);
+        long responseCount = responseRepository.countBySurveyId(surveyId);
+        if (fresh) {
+            return analyticsCache.refresh(surveyId, responseCount, () -> computeAnalytics(surveyId));
+        }
+        return analyticsCache.get(surveyId, responseCount, () -> computeAnalytics(surveyId));
+    }
+
+    /**
+     * Compute the analytics of a survey: read its questions and aggregates in one read-only
+     * transaction, then build the analytics of all questions in parallel on the analytics executor.
+     */
+    private SurveyAnalyticsDto computeAnalytics(UUID surveyId) {
+        AnalyticsInput input = readOnly(() -> {
+            SurveyEntity survey = surveyRepository.findByIdAndArchivedFalse(surveyId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Survey", "id", surveyId));
+            List<QuestionEntity> questions = linkRepository.findBySurveyIdOrderByOrderIndexAsc(surveyId).stream()
+                    .map(SurveyQuestionLinkEntity::getQuestion)
+                    .toList();
+
+            // Without maintained aggregates, or before they are backfilled, compute them from the responses in one pass.
+            // Submissions committed while computing may then be counted again by the live results deltas.
+            SurveyAggregates aggregates;
+            if (analyticsProperties.getAggregates().isEnabled() && aggregateStore.isAggregated(surveyId)) {
+                aggregates = aggregateStore.get(surveyId);
+            } else {
+                long sequence = aggregateStore.getSequence();
+                aggregates = computeAggregates(surveyId);
+                aggregates.setSequence(sequence);
+            }
+            return new AnalyticsInput(survey, questions, aggregates);
+        });
+        return buildAnalytics(input);
+    }
+
+    /**
+     * Stream the analytics deltas of a survey's new submissions as they are committed.
+     */
+    public SseEmitter streamResults(UUID surveyId) {
+        surveyRepository.findByIdAndArchivedFalse(surveyId)
+                .orElseThrow(() -> new ResourceNotFoundException("Survey", "id", surveyId));
+        return liveResultsBroadcaster.subscribe(surveyId);
+    }
+
+    /**
+     * Recompute the analytics aggregates of a survey from its responses. Runs without a transaction,
+     * as the aggregate store commits the new aggregates before releasing them to readers.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public AnalyticsRebuildDto rebuildAggregates(UUID surveyId) {
+        surveyRepository.findByIdAndArchivedFalse(surveyId)
+                .orElseThrow(() -> new ResourceNotFoundException("Survey", "id", surveyId));
+
+        RebuildResult result = aggregateStore.rebuild(surveyId, () -> computeAggregates(surveyId));
+        analyticsCache.evict(surveyId);
+
+        return AnalyticsRebuildDto.builder()
+                .surveyId(surveyId)
+                .totalSubmissions(result.aggregates().getTotalSubmissions())
+                .correctedEntries(result.correctedEntries())
+                .build();
+    }
+
+    /**
+     * Backfill, in the background, the aggregates of surveys answered before aggregates were maintained.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void backfillAggregates() {
+        if (analyticsProperties.getAggregates().isEnabled()) {
+            aggregateStore.backfill(this::computeAggregates);
+        }
+    }
+
+    /**
+     * Aggregate all responses of a survey with one grouped query per aggregate, covering all
+     * questions at once.
+     */
+    private SurveyAggregates computeAggregates(UUID surveyId) {
+        SurveyAggregates aggregates = new SurveyAggregates(surveyId);
+        for (Object[] row : responseRepository.countResponsesPerDay(surveyId)) {
+            aggregates.addSubmissions((LocalDate) row[0], (Long) row[1]);
+        }
+        for (Object[] row : questionResponseRepository.countAnswersPerQuestion(surveyId)) {
+            aggregates.addAnswers((UUID) row[0], (Long) row[1]);
+        }
+        for (Object[] row : questionResponseRepository.countNumericAnswersPerQuestionAndValue(surveyId)) {
+            aggregates.addScaleValue((UUID) row[0], (Integer) row[1], (Long) row[2]);
+        }
+        for (Object[] row : selectedOptionRepository.countSelectionsPerQuestionAndOption(surveyId)) {
+            aggregates.addSelections((UUID) row[0], (UUID) row[1], (String) row[2], (Long) row[3]);
+        }
+        return aggregates;
+    }
 
-        // Get submissions over time
-        List<DailySubmissionCount> submissionsOverTime = responseRepository.countResponsesPerDay(surveyId)
-                .stream()
-                .map(row -> DailySubmissionCount.builder()
-                        .date(row[0].toString())
-                        .count((Long) row[1])
+    /**
+     * Build the analytics of a survey from its aggregates. The aggregates are only read from here
+     * on, so the question tasks can share them.
+     */
+    private SurveyAnalyticsDto buildAnalytics(AnalyticsInput input) {
+        SurveyEntity survey = input.survey();
+        SurveyAggregates aggregates = input.aggregates();
+        List<DailySubmissionCount> submissionsOverTime = aggregates.getSubmissionsPerDay().entrySet().stream()
+                .map(entry -> DailySubmissionCount.builder()
+                        .date(entry.getKey().toString())
+                        .count(entry.getValue())
                         .build())
                 .toList();
 
-        // Get question analytics
-        List<SurveyQuestionLinkEntity> links = linkRepository.findBySurveyIdOrderByOrderIndexAsc(surveyId);
-        List<QuestionAnalyticsDto> questionAnalytics = links.stream()
-                .map(link -> buildQuestionAnalytics(surveyId, link.getQuestion(), totalSubmissions))
+        List<CompletableFuture<QuestionAnalyticsDto>> tasks = input.questions().stream()
+                .map(question -> CompletableFuture.supplyAsync(
+                        () -> buildQuestionAnalytics(survey.getId(), question, aggregates), analyticsExecutor))
+                .toList();
+        List<QuestionAnalyticsDto> questionAnalytics = tasks.stream()
+                .map(AnalyticsService::await)
                 .toList();
 
         return SurveyAnalyticsDto.builder()
-                .surveyId(surveyId)
+                .surveyId(survey.getId())
                 .surveyTitle(survey.getTitle())
-                .totalSubmissions(totalSubmissions)
+                .sequence(aggregates.getSequence())
+                .totalSubmissions(aggregates.getTotalSubmissions())
                 .submissionsOverTime(submissionsOverTime)
                 .questionAnalytics(questionAnalytics)
                 .build();
@@ -67,9 +211,10 @@ public class AnalyticsService {
     /**
      * Build analytics for a single question.
      */
-    private QuestionAnalyticsDto buildQuestionAnalytics(UUID surveyId, QuestionEntity question, long totalSubmissions) {
+    private QuestionAnalyticsDto buildQuestionAnalytics(UUID surveyId, QuestionEntity question,
+                                                        SurveyAggregates aggregates) {
         UUID questionId = question.getId();
-        long totalResponses = questionResponseRepository.countBySurveyIdAndQuestionId(surveyId, questionId);
+        long totalResponses = aggregates.getAnswerCount(questionId);
 
         QuestionAnalyticsDto.QuestionAnalyticsDtoBuilder builder = QuestionAnalyticsDto.builder()
                 .questionId(questionId)
@@ -79,11 +224,23 @@ public class AnalyticsService {
 
         switch (question.getType()) {
             case MULTIPLE_CHOICE, CHECKBOXES, DROPDOWN:
-                builder.optionCounts(buildOptionCounts(surveyId, questionId, totalResponses));
+                // Options are labelled as they are now, or as last selected if since removed from the question
+                Map<UUID, String> labels = question.getOptions().stream()
+                        .collect(Collectors.toMap(QuestionOptionEntity::getId, QuestionOptionEntity::getLabel));
+                builder.optionCounts(aggregates.getOptionCounts(questionId).entrySet().stream()
+                        .map(entry -> OptionCount.builder()
+                                .optionId(entry.getKey())
+                                .label(labels.getOrDefault(entry.getKey(), aggregates.getOptionLabel(entry.getKey())))
+                                .count(entry.getValue())
+                                .percentage(totalResponses > 0 ? (entry.getValue() * 100.0 / totalResponses) : 0)
+                                .build())
+                        .sorted(Comparator.comparing(OptionCount::getCount).reversed()
+                                .thenComparing(OptionCount::getLabel))
+                        .toList());
                 break;
 
             case LINEAR_SCALE:
-                buildScaleAnalytics(builder, surveyId, questionId);
+                buildScaleAnalytics(builder, new LinkedHashMap<>(aggregates.getScaleCounts(questionId)), question);
                 break;
 
             case SHORT_ANSWER, PARAGRAPH:
@@ -98,65 +255,98 @@ public class AnalyticsService {
     }
 
     /**
-     * Build option counts for choice questions.
+     * Build scale analytics from the value distribution, without expanding it into single answers.
      */
-    private List<OptionCount> buildOptionCounts(UUID surveyId, UUID questionId, long totalResponses) {
-        List<Object[]> counts = selectedOptionRepository.countSelectionsPerOption(surveyId, questionId);
-
-        return counts.stream()
-                .map(row -> OptionCount.builder()
-                        .optionId((UUID) row[0])
-                        .label((String) row[1])
-                        .count((Long) row[2])
-                        .percentage(totalResponses > 0 ? ((Long) row[2] * 100.0 / totalResponses) : 0)
-                        .build())
-                .toList();
+    private void buildScaleAnalytics(QuestionAnalyticsDto.QuestionAnalyticsDtoBuilder builder,
+                                      Map<Integer, Long> scaleDistribution, QuestionEntity question) {
+        builder.scaleDistribution(scaleDistribution);
+
+        ScaleHistogram histogram = ScaleHistogram.of(scaleDistribution);
+        if (histogram.isEmpty()) {
+            return;
+        }
+
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        for (Double percentile : analyticsProperties.getPercentiles()) {
+            percentiles.put("p" + BigDecimal.valueOf(percentile).stripTrailingZeros().toPlainString(),
+                    histogram.quantile(percentile / 100));
+        }
+
+        builder.scaleAverage(histogram.mean())
+                .scaleMedian(histogram.median())
+                .scaleStandardDeviation(histogram.standardDeviation())
+                .scalePercentiles(percentiles);
+
+        LinearScaleConfig scale = question.getLinearScaleConfig();
+        if (scale != null && Integer.valueOf(NPS_MIN).equals(scale.getMinValue())
+                && Integer.valueOf(NPS_MAX).equals(scale.getMaxValue())) {
+            builder.nps(buildNpsScore(histogram));
+        }
     }
 
     /**
-     * Build scale analytics.
+     * Bucket 0-10 answers into detractors (0-6), passives (7-8) and promoters (9-10).
      */
-    private void buildScaleAnalytics(QuestionAnalyticsDto.QuestionAnalyticsDtoBuilder builder,
-                                      UUID surveyId, UUID questionId) {
-        Double average = questionResponseRepository.getAverageNumericAnswer(surveyId, questionId);
-        builder.scaleAverage(average);
-
-        List<Object[]> distribution = questionResponseRepository.countNumericAnswersByValue(surveyId, questionId);
-        Map<Integer, Long> scaleDistribution = new HashMap<>();
-        List<Integer> values = new ArrayList<>();
-
-        for (Object[] row : distribution) {
-            Integer value = (Integer) row[0];
-            Long count = (Long) row[1];
-            scaleDistribution.put(value, count);
-            for (int i = 0; i < count; i++) {
-                values.add(value);
-            }
+    private NpsScore buildNpsScore(ScaleHistogram histogram) {
+        long detractors = histogram.countBetween(NPS_MIN, NPS_DETRACTOR_MAX);
+        long passives = histogram.countBetween(NPS_DETRACTOR_MAX + 1, NPS_PROMOTER_MIN - 1);
+        long promoters = histogram.countBetween(NPS_PROMOTER_MIN, NPS_MAX);
+        return NpsScore.builder()
+                .promoters(promoters)
+                .passives(passives)
+                .detractors(detractors)
+                .score((promoters - detractors) * 100.0 / histogram.getTotal())
+                .build();
+    }
+
+    /**
+     * Get text samples for text questions, in a read-only transaction of their own. Only the
+     * sampled answers are held in memory, however many answers the question has.
+     */
+    private List<String> getTextSamples(UUID surveyId, UUID questionId) {
+        return readOnly(() -> sampleTextAnswers(surveyId, questionId));
+    }
+
+    private List<String> sampleTextAnswers(UUID surveyId, UUID questionId) {
+        AnalyticsProperties.TextSamples textSamples = analyticsProperties.getTextSamples();
+        if (textSamples.getSize() == 0) {
+            return List.of();
         }
-        builder.scaleDistribution(scaleDistribution);
+        Limit limit = Limit.of(textSamples.getSize());
 
-        // Calculate median
-        if (!values.isEmpty()) {
-            Collections.sort(values);
-            int middle = values.size() / 2;
-            if (values.size() % 2 == 0) {
-                builder.scaleMedian((values.get(middle - 1) + values.get(middle)) / 2.0);
-            } else {
-                builder.scaleMedian((double) values.get(middle));
+        return switch (textSamples.getStrategy()) {
+            case LATEST -> questionResponseRepository.findLatestTextAnswers(surveyId, questionId, limit);
+            case LONGEST -> questionResponseRepository.findLongestTextAnswers(surveyId, questionId, limit);
+            case RANDOM -> {
+                Reservoir<String> reservoir = new Reservoir<>(textSamples.getSize(), ThreadLocalRandom.current());
+                try (Stream<String> answers = questionResponseRepository.streamTextAnswers(surveyId, questionId)) {
+                    answers.forEach(reservoir::offer);
+                }
+                yield List.copyOf(reservoir.getSample());
+            }
+        };
+    }
+
+    private <T> T readOnly(Supplier<T> work) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template.execute(status -> work.get());
+    }
+
+    private static <T> T await(CompletableFuture<T> task) {
+        try {
+            return task.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
             }
+            throw e;
         }
     }
 
     /**
-     * Get text samples for text questions.
+     * What the analytics of a survey are built from.
      */
-    private List<String> getTextSamples(UUID surveyId, UUID questionId) {
-        return questionResponseRepository.findBySurveyIdAndQuestionId(surveyId, questionId)
-                .stream()
-                .map(qr -> qr.getTextAnswer())
-                .filter(Objects::nonNull)
-                .filter(text -> !text.isBlank())
-                .limit(MAX_TEXT_SAMPLES)
-                .toList();
+    private record AnalyticsInput(SurveyEntity survey, List<QuestionEntity> questions, SurveyAggregates aggregates) {
     }
 }
@@ -0,0 +1,103 @@
+package net.talaatharb.survey.service;
+
+import lombok.RequiredArgsConstructor;
+import net.talaatharb.survey.cache.QuestionTitleCache;
+import net.talaatharb.survey.dto.AnswerIndexRebuildDto;
+import net.talaatharb.survey.dto.AnswerSearchResultDto;
+import net.talaatharb.survey.dto.AnswerSearchResultDto.AnswerHighlight;
+import net.talaatharb.survey.dto.AnswerSearchResultDto.SubmissionMatch;
+import net.talaatharb.survey.exception.ResourceNotFoundException;
+import net.talaatharb.survey.exception.ValidationException;
+import net.talaatharb.survey.repository.SurveyRepository;
+import net.talaatharb.survey.search.AnswerSearchIndex;
+import net.talaatharb.survey.search.AnswerSearchIndex.AnswerHit;
+import net.talaatharb.survey.search.AnswerSearchIndex.SubmissionHit;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Service for full-text search over the text answers of a survey's submissions.
+ */
+@Service
+@RequiredArgsConstructor
+public class AnswerSearchService {
+
+    private static final int MAX_RESULTS = 100;
+
+    private final SurveyRepository surveyRepository;
+    private final AnswerSearchIndex answerSearchIndex;
+    private final QuestionTitleCache questionTitleCache;
+
+    /**
+     * Find the submissions of a survey with text answers matching the query, best match first,
+     * with a highlighted passage of each matching answer.
+     */
+    public AnswerSearchResultDto search(UUID surveyId, String query, int limit) {
+        checkSearchable(surveyId);
+        if (query == null || query.isBlank()) {
+            throw new ValidationException("Search query must not be blank");
+        }
+
+        // Checked first, so that results are never reported complete when the survey was still being indexed
+        boolean indexing = answerSearchIndex.isIndexing(surveyId);
+        List<SubmissionHit> hits;
+        try {
+            hits = answerSearchIndex.search(surveyId, query, Math.clamp(limit, 1, MAX_RESULTS));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        Map<UUID, String> titles = questionTitleCache.getBankTitles(hits.stream()
+                .flatMap(hit -> hit.answers().stream())
+                .map(AnswerHit::questionId)
+                .distinct()
+                .toList());
+
+        return AnswerSearchResultDto.builder()
+                .surveyId(surveyId)
+                .query(query)
+                .indexing(indexing)
+                .submissions(hits.stream()
+                        .map(hit -> SubmissionMatch.builder()
+                                .submissionId(hit.submissionId())
+                                .score(hit.score())
+                                .highlights(hit.answers().stream()
+                                        .map(answer -> AnswerHighlight.builder()
+                                                .questionId(answer.questionId())
+                                                .questionTitle(titles.get(answer.questionId()))
+                                                .snippet(answer.highlight())
+                                                .build())
+                                        .toList())
+                                .build())
+                        .toList())
+                .build();
+    }
+
+    /**
+     * Recreate the text answer index of a survey from its responses.
+     */
+    public AnswerIndexRebuildDto rebuildIndex(UUID surveyId) {
+        checkSearchable(surveyId);
+        try {
+            return AnswerIndexRebuildDto.builder()
+                    .surveyId(surveyId)
+                    .indexedAnswers(answerSearchIndex.rebuild(surveyId))
+                    .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void checkSearchable(UUID surveyId) {
+        if (!answerSearchIndex.isEnabled()) {
+            throw new ValidationException("Answer search is disabled");
+        }
+        surveyRepository.findByIdAndArchivedFalse(surveyId)
+                .orElseThrow(() -> new ResourceNotFoundException("Survey", "id", surveyId));
+    }
+}
@@ -0,0 +1,41 @@
+package net.talaatharb.survey.service;
+
+/**
+ * Sort keys of the question links of a survey.
+ * <p>
+ * Links are ordered by sparse keys spaced {@link #GAP} apart, so moving or adding a link only
+ * writes that link's key, picked between its new neighbours, and removing a link writes nothing.
+ * Only when two neighbours leave no room between them are the keys of the whole survey spread out
+ * again. Clients never see keys: the order index of a link DTO is its position in the survey.
+ */
+final class LinkOrdering {
+
+    /**
+     * Distance between the keys of neighbouring links after a rebalance.
+     */
+    static final int GAP = 1024;
+
+    private LinkOrdering() {
+    }
+
+    /**
+     * Key of the link at the given position of an evenly spread survey.
+     */
+    static int keyAt(int position) {
+        return Math.multiplyExact(position + 1, GAP);
+    }
+
+    /**
+     * Key strictly between two neighbouring keys, either of which is null at the ends of the
+     * survey, or null if there is no room left and the survey needs a rebalance.
+     */
+    static Integer keyBetween(Integer before, Integer after) {
+        long lower = before != null ? before : 0;
+        long upper = after != null ? after : lower + 2L * GAP;
+        if (upper - lower < 2 || upper > Integer.MAX_VALUE) {
+            return null;
+        }
+        long key = after != null ? lower + (upper - lower) / 2 : lower + GAP;
+        return (int) key;
+    }
+}
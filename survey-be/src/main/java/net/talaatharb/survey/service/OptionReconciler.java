@@ -0,0 +1,98 @@
+package net.talaatharb.survey.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Computes the smallest set of row changes turning the stored options of a question into the
+ * edited ones, so option IDs stay stable across edits and responses keep pointing at them.
+ * <p>
+ * Edited options are matched to stored ones by ID first, then by label. Matched options keep their
+ * ID and are only updated if their label or position changed; unmatched stored options are
+ * removed and unmatched edited options added.
+ */
+final class OptionReconciler {
+
+    private OptionReconciler() {
+    }
+
+    /**
+     * An option of a question; the ID is null for options not stored yet.
+     */
+    record Option(UUID id, String label, int orderIndex) {
+    }
+
+    /**
+     * Changes to apply, in order: delete {@code removed}, give {@code moved} temporary positions so
+     * no two rows of the question share a position meanwhile, then apply {@code updated} and insert
+     * {@code added}.
+     *
+     * @param removed IDs of stored options without an edited counterpart
+     * @param moved   IDs of kept options whose position changes
+     * @param updated final state of kept options whose label or position changes
+     * @param added   edited options without a stored counterpart
+     */
+    record Changes(List<UUID> removed, List<UUID> moved, List<Option> updated, List<Option> added) {
+
+        boolean isEmpty() {
+            return removed.isEmpty() && updated.isEmpty() && added.isEmpty();
+        }
+
+        /**
+         * Temporary position of the n-th moved option, below any real position.
+         */
+        static int temporaryIndex(int n) {
+            return -1 - n;
+        }
+    }
+
+    static Changes reconcile(List<Option> stored, List<Option> edited) {
+        Map<UUID, Option> unmatched = new LinkedHashMap<>();
+        stored.forEach(option -> unmatched.put(option.id(), option));
+
+        Option[] matches = new Option[edited.size()];
+        for (int i = 0; i < edited.size(); i++) {
+            UUID id = edited.get(i).id();
+            if (id != null && unmatched.containsKey(id)) {
+                matches[i] = unmatched.remove(id);
+            }
+        }
+        for (int i = 0; i < edited.size(); i++) {
+            if (matches[i] == null) {
+                matches[i] = removeByLabel(unmatched, edited.get(i).label());
+            }
+        }
+
+        List<UUID> moved = new ArrayList<>();
+        List<Option> updated = new ArrayList<>();
+        List<Option> added = new ArrayList<>();
+        for (int i = 0; i < edited.size(); i++) {
+            Option target = edited.get(i);
+            Option match = matches[i];
+            if (match == null) {
+                added.add(new Option(null, target.label(), target.orderIndex()));
+                continue;
+            }
+            if (match.orderIndex() != target.orderIndex()) {
+                moved.add(match.id());
+            }
+            if (match.orderIndex() != target.orderIndex() || !Objects.equals(match.label(), target.label())) {
+                updated.add(new Option(match.id(), target.label(), target.orderIndex()));
+            }
+        }
+        return new Changes(List.copyOf(unmatched.keySet()), moved, updated, added);
+    }
+
+    private static Option removeByLabel(Map<UUID, Option> unmatched, String label) {
+        for (Option option : unmatched.values()) {
+            if (Objects.equals(option.label(), label)) {
+                return unmatched.remove(option.id());
+            }
+        }
+        return null;
+    }
+}
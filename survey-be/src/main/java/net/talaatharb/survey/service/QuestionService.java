@@ -6,15 +6,27 @@ import net.talaatharb.survey.dto.QuestionOptionDto;
 import net.talaatharb.survey.entity.QuestionEntity;
 import net.talaatharb.survey.entity.QuestionOptionEntity;
 import net.talaatharb.survey.entity.QuestionType;
+import net.talaatharb.survey.event.QuestionChangedEvent;
 import net.talaatharb.survey.exception.ResourceNotFoundException;
 import net.talaatharb.survey.exception.ValidationException;
 import net.talaatharb.survey.mapper.QuestionMapper;
 import net.talaatharb.survey.repository.QuestionRepository;
+import net.talaatharb.survey.search.QuestionSearchIndex;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 
@@ -28,6 +40,8 @@ public class QuestionService {
 
     private final QuestionRepository questionRepository;
     private final QuestionMapper questionMapper;
+    private final QuestionSearchIndex searchIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     private static final Set<QuestionType> OPTION_REQUIRED_TYPES = Set.of(
             QuestionType.MULTIPLE_CHOICE,
@@ -45,15 +59,48 @@ public class QuestionService {
     }
 
     /**
-     * Search questions by title or description.
+     * Search questions by title or description. Matching IDs are resolved through the search
+     * index when it can serve the requested sort, otherwise the database is scanned.
      */
     @Transactional(readOnly = true)
     public Page<QuestionDto> searchQuestions(String search, Pageable pageable) {
         if (search == null || search.isBlank()) {
             return getAllQuestions(pageable);
         }
-        return questionRepository.searchByTitleOrDescription(search, pageable)
-                .map(questionMapper::toDto);
+        Optional<Page<UUID>> ids = searchIndex.findPage(search, pageable);
+        if (ids.isEmpty()) {
+            return questionRepository.searchByTitleOrDescription(search, pageable)
+                    .map(questionMapper::toDto);
+        }
+
+        Map<UUID, QuestionDto> questions = loadQuestions(ids.get().getContent());
+        List<QuestionDto> content = ids.get().getContent().stream()
+                .map(questions::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(content, pageable, ids.get().getTotalElements());
+    }
+
+    /**
+     * Rank questions against a search, best matches first, optionally including fuzzy matches.
+     */
+    @Transactional(readOnly = true)
+    public List<QuestionDto> rankQuestions(String search, boolean fuzzy, int limit) {
+        if (search == null || search.isBlank()) {
+            return List.of();
+        }
+        Optional<List<QuestionSearchIndex.Match>> matches = searchIndex.rank(search, fuzzy, limit);
+        if (matches.isEmpty()) {
+            // Index not built yet
+            return searchQuestions(search, PageRequest.of(0, limit)).getContent();
+        }
+
+        List<UUID> ids = matches.get().stream().map(QuestionSearchIndex.Match::questionId).toList();
+        Map<UUID, QuestionDto> questions = loadQuestions(ids);
+        return ids.stream()
+                .map(questions::get)
+                .filter(Objects::nonNull)
+                .toList();
     }
 
     /**
@@ -75,23 +122,6 @@ public class QuestionService {
                 .orElseThrow(() -> new ResourceNotFoundException("Question", "id", id));
     }
 
-    /**
-     * Check if a question exists by ID.
-     */
-    @Transactional(readOnly = true)
-    public boolean existsById(UUID id) {
-        return questionRepository.existsById(id);
-    }
-
-    /**
-     * Get entity by ID (for import - allows archived).
-     */
-    @Transactional(readOnly = true)
-    public QuestionEntity getEntityById(UUID id) {
-        return questionRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Question", "id", id));
-    }
-
     /**
      * Create a new question.
      */
@@ -119,6 +149,7 @@ public class QuestionService {
         }
 
         QuestionEntity saved = questionRepository.save(entity);
+        eventPublisher.publishEvent(new QuestionChangedEvent(saved.getId()));
         return questionMapper.toDto(saved);
     }
 
@@ -133,20 +164,7 @@ public class QuestionService {
 
         questionMapper.updateEntity(dto, entity);
 
-        // Update options - clear and re-add
-        entity.getOptions().clear();
-        questionRepository.saveAndFlush(entity); // Flush to delete orphaned options
-        
-        if (dto.getOptions() != null) {
-            for (int i = 0; i < dto.getOptions().size(); i++) {
-                QuestionOptionDto optionDto = dto.getOptions().get(i);
-                QuestionOptionEntity optionEntity = QuestionOptionEntity.builder()
-                        .label(optionDto.getLabel())
-                        .orderIndex(optionDto.getOrderIndex() != null ? optionDto.getOrderIndex() : i)
-                        .build();
-                entity.addOption(optionEntity);
-            }
-        }
+        reconcileOptions(entity, dto.getOptions());
 
         // Update linear scale config
         if (dto.getType() == QuestionType.LINEAR_SCALE && dto.getLinearScaleConfig() != null) {
@@ -156,6 +174,7 @@ public class QuestionService {
         }
 
         QuestionEntity saved = questionRepository.save(entity);
+        eventPublisher.publishEvent(new QuestionChangedEvent(id));
         return questionMapper.toDto(saved);
     }
 
@@ -167,6 +186,7 @@ public class QuestionService {
                 .orElseThrow(() -> new ResourceNotFoundException("Question", "id", id));
         entity.setArchived(true);
         questionRepository.save(entity);
+        eventPublisher.publishEvent(new QuestionChangedEvent(id));
     }
 
     /**
@@ -195,13 +215,72 @@ public class QuestionService {
         }
 
         QuestionEntity saved = questionRepository.save(copy);
+        eventPublisher.publishEvent(new QuestionChangedEvent(saved.getId()));
         return questionMapper.toDto(saved);
     }
 
+    /**
+     * Load non-archived questions by ID, keyed by ID.
+     */
+    private Map<UUID, QuestionDto> loadQuestions(List<UUID> ids) {
+        Map<UUID, QuestionDto> questions = new HashMap<>();
+        for (QuestionEntity question : questionRepository.findAllById(ids)) {
+            if (!question.isArchived()) {
+                questions.put(question.getId(), questionMapper.toDto(question));
+            }
+        }
+        return questions;
+    }
+
+    /**
+     * Bring the options of a question in line with the edited ones, keeping the IDs of options that
+     * are still there. Options being reordered are first moved out of the way and flushed, as the
+     * {@code (question_id, order_index)} pair is unique.
+     */
+    private void reconcileOptions(QuestionEntity entity, List<QuestionOptionDto> edited) {
+        List<OptionReconciler.Option> target = new ArrayList<>();
+        if (edited != null) {
+            for (int i = 0; i < edited.size(); i++) {
+                QuestionOptionDto option = edited.get(i);
+                target.add(new OptionReconciler.Option(option.getId(), option.getLabel(),
+                        option.getOrderIndex() != null ? option.getOrderIndex() : i));
+            }
+        }
+        OptionReconciler.Changes changes = OptionReconciler.reconcile(entity.getOptions().stream()
+                .map(option -> new OptionReconciler.Option(option.getId(), option.getLabel(), option.getOrderIndex()))
+                .toList(), target);
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        Map<UUID, QuestionOptionEntity> options = new HashMap<>();
+        entity.getOptions().forEach(option -> options.put(option.getId(), option));
+        changes.removed().forEach(id -> entity.removeOption(options.get(id)));
+        for (int i = 0; i < changes.moved().size(); i++) {
+            options.get(changes.moved().get(i)).setOrderIndex(OptionReconciler.Changes.temporaryIndex(i));
+        }
+        if (!changes.removed().isEmpty() || !changes.moved().isEmpty()) {
+            questionRepository.flush();
+        }
+
+        for (OptionReconciler.Option option : changes.updated()) {
+            QuestionOptionEntity existing = options.get(option.id());
+            existing.setLabel(option.label());
+            existing.setOrderIndex(option.orderIndex());
+        }
+        for (OptionReconciler.Option option : changes.added()) {
+            entity.addOption(QuestionOptionEntity.builder()
+                    .label(option.label())
+                    .orderIndex(option.orderIndex())
+                    .build());
+        }
+        entity.getOptions().sort(Comparator.comparing(QuestionOptionEntity::getOrderIndex));
+    }
+
     /**
      * Validate a question.
      */
-    private void validateQuestion(QuestionDto dto) {
+    void validateQuestion(QuestionDto dto) {
         if (dto.getType() == null) {
             throw new ValidationException("Question type is required");
         }
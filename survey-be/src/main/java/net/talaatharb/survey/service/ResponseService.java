@@ -1,19 +1,31 @@
 package net.talaatharb.survey.service;
 
 import lombok.RequiredArgsConstructor;
+import net.talaatharb.survey.cache.CompiledSurveySchema;
+import net.talaatharb.survey.cache.CompiledSurveySchema.CompiledQuestion;
+import net.talaatharb.survey.cache.QuestionTitleCache;
+import net.talaatharb.survey.cache.SurveySchemaCache;
 import net.talaatharb.survey.dto.*;
 import net.talaatharb.survey.entity.*;
 import net.talaatharb.survey.exception.ForbiddenException;
 import net.talaatharb.survey.exception.ResourceNotFoundException;
 import net.talaatharb.survey.exception.ValidationException;
-import net.talaatharb.survey.mapper.QuestionMapper;
+import net.talaatharb.survey.ingestion.SubmissionIngestionPipeline;
+import net.talaatharb.survey.ingestion.SubmissionRecord;
+import net.talaatharb.survey.ingestion.SubmissionRecord.AnswerRecord;
+import net.talaatharb.survey.ingestion.SubmissionRecord.SelectedOptionRecord;
 import net.talaatharb.survey.mapper.ResponseMapper;
 import net.talaatharb.survey.repository.*;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -25,182 +37,278 @@ import java.util.stream.Collectors;
 @Transactional
 public class ResponseService {
 
+    private static final int MAX_SCROLL_SIZE = 500;
+    private static final int MAX_BATCH_SIZE = 100;
+    private static final String CURSOR_SEPARATOR = "|";
+
     private final SurveyRepository surveyRepository;
-    private final SurveyQuestionLinkRepository linkRepository;
     private final SurveyResponseRepository responseRepository;
-    private final QuestionOptionRepository optionRepository;
+    private final SurveySnapshotService snapshotService;
+    private final SurveySchemaCache schemaCache;
+    private final QuestionTitleCache questionTitleCache;
+    private final SubmissionIngestionPipeline ingestionPipeline;
     private final ResponseMapper responseMapper;
-    private final QuestionMapper questionMapper;
 
     /**
-     * Get a published survey for public viewing.
+     * Get a published survey for public viewing, as frozen in its published snapshot.
      */
     @Transactional(readOnly = true)
     public PublicSurveyDto getPublicSurvey(UUID surveyId) {
-        SurveyEntity survey = surveyRepository.findByIdAndPublishedTrueAndArchivedFalse(surveyId)
+        return snapshotService.getPublishedSnapshot(surveyId)
+                .map(snapshotService::readDefinition)
                 .orElseThrow(() -> new ForbiddenException("Survey is not available"));
-
-        List<SurveyQuestionLinkEntity> links = linkRepository
-                .findBySurveyIdAndHiddenFalseOrderByOrderIndexAsc(surveyId);
-
-        List<PublicSurveyDto.PublicQuestionDto> questions = links.stream()
-                .map(link -> {
-                    QuestionEntity q = link.getQuestion();
-                    return PublicSurveyDto.PublicQuestionDto.builder()
-                            .questionId(q.getId())
-                            .title(link.getEffectiveLabel())
-                            .description(link.getEffectiveDescription())
-                            .type(q.getType())
-                            .required(link.isEffectivelyRequired())
-                            .maxLength(q.getMaxLength())
-                            .linearScaleConfig(questionMapper.toLinearScaleConfigDto(q.getLinearScaleConfig()))
-                            .options(q.getOptions().stream()
-                                    .map(opt -> PublicSurveyDto.PublicOptionDto.builder()
-                                            .id(opt.getId())
-                                            .label(opt.getLabel())
-                                            .build())
-                                    .toList())
-                            .build();
-                })
-                .toList();
-
-        return PublicSurveyDto.builder()
-                .id(survey.getId())
-                .title(survey.getTitle())
-                .description(survey.getDescription())
-                .questions(questions)
-                .build();
     }
 
     /**
-     * Submit a survey response.
+     * Submit a survey response. Depending on the ingestion mode the submission is either written
+     * before returning or queued for a background writer; in both cases its ID is final.
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public SurveyResponseDto submitResponse(UUID surveyId, SubmitSurveyResponseDto dto, String submitterIp) {
-        // Verify survey is published
-        surveyRepository.findByIdAndPublishedTrueAndArchivedFalse(surveyId)
+        // Verify survey is published and resolve its questions
+        CompiledSurveySchema schema = schemaCache.get(surveyId)
                 .orElseThrow(() -> new ForbiddenException("Survey is not accepting responses"));
 
-        // Get required questions
-        List<SurveyQuestionLinkEntity> links = linkRepository
-                .findBySurveyIdAndHiddenFalseOrderByOrderIndexAsc(surveyId);
+        // Validate response
+        validateResponse(dto, schema);
 
-        Map<UUID, SurveyQuestionLinkEntity> linkByQuestionId = links.stream()
-                .collect(Collectors.toMap(l -> l.getQuestion().getId(), l -> l));
+        SubmissionRecord submission = buildSubmission(surveyId, dto, submitterIp, schema);
+        ingestionPipeline.submit(submission);
+        return responseMapper.toDto(submission);
+    }
 
-        // Validate response
-        validateResponse(dto, linkByQuestionId);
+    /**
+     * Get responses for a survey (admin).
+     */
+    @Transactional(readOnly = true)
+    public Page<SurveyResponseSummaryDto> getResponsesForSurvey(UUID surveyId, Pageable pageable) {
+        surveyRepository.findByIdAndArchivedFalse(surveyId)
+                .orElseThrow(() -> new ResourceNotFoundException("Survey", "id", surveyId));
 
-        // Create response entity
-        SurveyResponseEntity response = SurveyResponseEntity.builder()
-                .surveyId(surveyId)
-                .submitterId(dto.getSubmitterId())
-                .submitterIp(submitterIp)
+        return responseRepository.findSummariesBySurveyId(surveyId, pageable);
+    }
+
+    /**
+     * Get a page of responses for a survey (admin), newest first, continuing after the given cursor.
+     * The total is only counted when requested.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<SurveyResponseSummaryDto> scrollResponsesForSurvey(UUID surveyId, String cursor, int size,
+                                                                             boolean includeTotal) {
+        if (size < 1 || size > MAX_SCROLL_SIZE) {
+            throw new ValidationException("Page size must be between 1 and " + MAX_SCROLL_SIZE);
+        }
+        surveyRepository.findByIdAndArchivedFalse(surveyId)
+                .orElseThrow(() -> new ResourceNotFoundException("Survey", "id", surveyId));
+
+        // Fetch one extra row to tell whether another page follows
+        Limit limit = Limit.of(size + 1);
+        Keyset after = decodeCursor(cursor);
+        List<SurveyResponseSummaryDto> content = after == null
+                ? responseRepository.findLatestSummaries(surveyId, limit)
+                : responseRepository.findSummariesBefore(surveyId, after.submittedAt(), after.id(), limit);
+
+        boolean hasNext = content.size() > size;
+        if (hasNext) {
+            content = content.subList(0, size);
+        }
+        String nextCursor = hasNext ? encodeCursor(content.getLast()) : null;
+        return CursorPageDto.<SurveyResponseSummaryDto>builder()
+                .content(content)
+                .size(size)
+                .nextCursor(nextCursor)
+                .hasNext(nextCursor != null)
+                .totalElements(includeTotal ? responseRepository.countBySurveyId(surveyId) : null)
                 .build();
+    }
 
-        // Process answers
-        for (QuestionResponseDto answerDto : dto.getAnswers()) {
-            SurveyQuestionLinkEntity link = linkByQuestionId.get(answerDto.getQuestionId());
-            if (link == null) {
-                continue; // Skip answers for unknown questions
-            }
+    /**
+     * Get a single response by ID.
+     */
+    @Transactional(readOnly = true)
+    public SurveyResponseDto getResponseById(UUID surveyId, UUID responseId) {
+        SurveyResponseEntity response = responseRepository.findByIdAndSurveyId(responseId, surveyId)
+                .orElseThrow(() -> new ResourceNotFoundException("Response", "id", responseId));
 
-            QuestionEntity question = link.getQuestion();
-            AnswerType answerType = determineAnswerType(question.getType());
+        SurveyResponseDto dto = responseMapper.toDto(response);
+        fillQuestionTitles(List.of(dto));
+        return dto;
+    }
 
-            QuestionResponseEntity questionResponse = QuestionResponseEntity.builder()
-                    .questionId(answerDto.getQuestionId())
-                    .answerType(answerType)
-                    .textAnswer(answerDto.getTextAnswer())
-                    .numericAnswer(answerDto.getNumericAnswer())
-                    .build();
+    /**
+     * Get several responses of a survey by ID, in the requested order. IDs that do not match a
+     * response of the survey are skipped. Answers and selected options of all responses are
+     * loaded in batches rather than one query per response.
+     */
+    @Transactional(readOnly = true)
+    public List<SurveyResponseDto> getResponsesByIds(UUID surveyId, List<UUID> responseIds) {
+        if (responseIds.size() > MAX_BATCH_SIZE) {
+            throw new ValidationException("At most " + MAX_BATCH_SIZE + " submissions can be fetched at once");
+        }
+        if (responseIds.stream().anyMatch(Objects::isNull)) {
+            throw new ValidationException("Submission IDs must not be null");
+        }
+        surveyRepository.findByIdAndArchivedFalse(surveyId)
+                .orElseThrow(() -> new ResourceNotFoundException("Survey", "id", surveyId));
 
-            // Handle selected options with label snapshot
-            if (answerDto.getSelectedOptionIds() != null && !answerDto.getSelectedOptionIds().isEmpty()) {
-                List<QuestionOptionEntity> options = optionRepository.findByIdIn(answerDto.getSelectedOptionIds());
-                Map<UUID, QuestionOptionEntity> optionMap = options.stream()
-                        .collect(Collectors.toMap(QuestionOptionEntity::getId, o -> o));
+        Map<UUID, SurveyResponseEntity> responses = new HashMap<>();
+        for (SurveyResponseEntity response : responseRepository.findByIdInAndSurveyId(Set.copyOf(responseIds), surveyId)) {
+            responses.put(response.getId(), response);
+        }
 
-                for (UUID optionId : answerDto.getSelectedOptionIds()) {
-                    QuestionOptionEntity option = optionMap.get(optionId);
-                    if (option != null) {
-                        QuestionResponseSelectedOptionEntity selectedOption = QuestionResponseSelectedOptionEntity.builder()
-                                .optionId(optionId)
-                                .labelSnapshot(option.getLabel())
-                                .build();
-                        questionResponse.addSelectedOption(selectedOption);
-                    }
+        List<SurveyResponseDto> dtos = responseIds.stream()
+                .distinct()
+                .map(responses::get)
+                .filter(Objects::nonNull)
+                .map(responseMapper::toDto)
+                .toList();
+        fillQuestionTitles(dtos);
+        return dtos;
+    }
+
+    /**
+     * Label answers with the question titles respondents saw, falling back to the current question
+     * bank title for answers submitted before survey snapshots existed.
+     */
+    private void fillQuestionTitles(List<SurveyResponseDto> responses) {
+        Set<UUID> untitled = new HashSet<>();
+        for (SurveyResponseDto response : responses) {
+            Map<UUID, String> titles = response.getSnapshotVersion() != null
+                    ? questionTitleCache.getSnapshotTitles(response.getSurveyId(), response.getSnapshotVersion())
+                    : Map.of();
+            for (QuestionResponseDetailDto answer : response.getAnswers()) {
+                answer.setQuestionTitle(titles.get(answer.getQuestionId()));
+                if (answer.getQuestionTitle() == null) {
+                    untitled.add(answer.getQuestionId());
                 }
             }
-
-            response.addQuestionResponse(questionResponse);
+        }
+        if (untitled.isEmpty()) {
+            return;
         }
 
-        SurveyResponseEntity saved = responseRepository.save(response);
-        return responseMapper.toDto(saved);
+        Map<UUID, String> bankTitles = questionTitleCache.getBankTitles(untitled);
+        for (SurveyResponseDto response : responses) {
+            for (QuestionResponseDetailDto answer : response.getAnswers()) {
+                if (answer.getQuestionTitle() == null) {
+                    answer.setQuestionTitle(bankTitles.get(answer.getQuestionId()));
+                }
+            }
+        }
     }
 
     /**
-     * Get responses for a survey (admin).
+     * Encode the keyset of a response as an opaque cursor.
      */
-    @Transactional(readOnly = true)
-    public Page<SurveyResponseSummaryDto> getResponsesForSurvey(UUID surveyId, Pageable pageable) {
-        surveyRepository.findByIdAndArchivedFalse(surveyId)
-                .orElseThrow(() -> new ResourceNotFoundException("Survey", "id", surveyId));
+    private static String encodeCursor(SurveyResponseSummaryDto response) {
+        String keyset = response.getSubmittedAt() + CURSOR_SEPARATOR + response.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(keyset.getBytes(StandardCharsets.UTF_8));
+    }
 
-        return responseRepository.findBySurveyIdOrderBySubmittedAtDesc(surveyId, pageable)
-                .map(responseMapper::toSummaryDto);
+    /**
+     * Decode a cursor into the keyset of the last response it covers; no cursor starts at the newest response.
+     */
+    private static Keyset decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String keyset = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = keyset.indexOf(CURSOR_SEPARATOR);
+            return new Keyset(LocalDateTime.parse(keyset.substring(0, separator)),
+                    UUID.fromString(keyset.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new ValidationException("Invalid cursor");
+        }
     }
 
     /**
-     * Get a single response by ID.
+     * Build the submission record, assigning all identifiers up front.
      */
-    @Transactional(readOnly = true)
-    public SurveyResponseDto getResponseById(UUID surveyId, UUID responseId) {
-        SurveyResponseEntity response = responseRepository.findByIdAndSurveyId(responseId, surveyId)
-                .orElseThrow(() -> new ResourceNotFoundException("Response", "id", responseId));
+    private SubmissionRecord buildSubmission(UUID surveyId, SubmitSurveyResponseDto dto, String submitterIp,
+                                             CompiledSurveySchema schema) {
+        List<AnswerRecord> answers = new ArrayList<>(dto.getAnswers().size());
+        for (QuestionResponseDto answerDto : dto.getAnswers()) {
+            CompiledQuestion question = schema.getQuestion(answerDto.getQuestionId());
+            if (question == null) {
+                continue; // Skip answers for unknown questions
+            }
+
+            // Handle selected options with label snapshot
+            List<SelectedOptionRecord> selectedOptions = new ArrayList<>();
+            if (answerDto.getSelectedOptionIds() != null) {
+                for (UUID optionId : answerDto.getSelectedOptionIds()) {
+                    String label = question.getOptionLabel(optionId);
+                    if (label != null) {
+                        selectedOptions.add(SelectedOptionRecord.builder()
+                                .id(TimeOrderedUuidGenerator.nextUuid())
+                                .optionId(optionId)
+                                .label(label)
+                                .build());
+                    }
+                }
+            }
+
+            answers.add(AnswerRecord.builder()
+                    .id(TimeOrderedUuidGenerator.nextUuid())
+                    .questionId(answerDto.getQuestionId())
+                    .answerType(question.getAnswerType())
+                    .textAnswer(answerDto.getTextAnswer())
+                    .numericAnswer(answerDto.getNumericAnswer())
+                    .selectedOptions(selectedOptions)
+                    .build());
+        }
 
-        return responseMapper.toDto(response);
+        return SubmissionRecord.builder()
+                .id(TimeOrderedUuidGenerator.nextUuid())
+                .surveyId(surveyId)
+                .snapshotVersion(schema.getVersion())
+                .submittedAt(LocalDateTime.now())
+                .submitterIp(submitterIp)
+                .submitterId(dto.getSubmitterId())
+                .answers(answers)
+                .build();
     }
 
     /**
      * Validate a survey response.
      */
-    private void validateResponse(SubmitSurveyResponseDto dto, Map<UUID, SurveyQuestionLinkEntity> linkByQuestionId) {
+    private void validateResponse(SubmitSurveyResponseDto dto, CompiledSurveySchema schema) {
         Set<UUID> answeredQuestionIds = dto.getAnswers().stream()
                 .map(QuestionResponseDto::getQuestionId)
                 .collect(Collectors.toSet());
 
         // Check required questions
-        for (SurveyQuestionLinkEntity link : linkByQuestionId.values()) {
-            if (link.isEffectivelyRequired() && !answeredQuestionIds.contains(link.getQuestion().getId())) {
-                throw new ValidationException("Required question not answered: " + link.getEffectiveLabel());
+        for (CompiledQuestion question : schema.getQuestionList()) {
+            if (question.isRequired() && !answeredQuestionIds.contains(question.getQuestionId())) {
+                throw new ValidationException("Required question not answered: " + question.getEffectiveLabel());
             }
         }
 
         // Validate individual answers
         for (QuestionResponseDto answer : dto.getAnswers()) {
-            SurveyQuestionLinkEntity link = linkByQuestionId.get(answer.getQuestionId());
-            if (link == null) {
+            CompiledQuestion question = schema.getQuestion(answer.getQuestionId());
+            if (question == null) {
                 continue;
             }
-            validateAnswer(answer, link.getQuestion());
+            validateAnswer(answer, question);
         }
     }
 
     /**
      * Validate a single answer.
      */
-    private void validateAnswer(QuestionResponseDto answer, QuestionEntity question) {
+    private void validateAnswer(QuestionResponseDto answer, CompiledQuestion question) {
         switch (question.getType()) {
             case SHORT_ANSWER, PARAGRAPH:
                 if (answer.getTextAnswer() != null && question.getMaxLength() != null && answer.getTextAnswer().length() > question.getMaxLength()) {
-                    throw new ValidationException("Answer exceeds maximum length for question: " + question.getTitle());
+                    throw new ValidationException("Answer exceeds maximum length for question: " + question.getEffectiveLabel());
                 }
                 break;
 
             case MULTIPLE_CHOICE, DROPDOWN:
                 if (answer.getSelectedOptionIds() != null && answer.getSelectedOptionIds().size() > 1) {
-                    throw new ValidationException("Only one option can be selected for: " + question.getTitle());
+                    throw new ValidationException("Only one option can be selected for: " + question.getEffectiveLabel());
                 }
                 validateOptionIds(answer.getSelectedOptionIds(), question);
                 break;
@@ -210,12 +318,10 @@ public class ResponseService {
                 break;
 
             case LINEAR_SCALE:
-                if (answer.getNumericAnswer() != null) {
-                    LinearScaleConfig config = question.getLinearScaleConfig();
-                    if (config != null && (answer.getNumericAnswer() < config.getMinValue() || 
-                        answer.getNumericAnswer() > config.getMaxValue())) {
-                        throw new ValidationException("Scale value out of range for: " + question.getTitle());
-                    }
+                Integer value = answer.getNumericAnswer();
+                if (value != null && ((question.getScaleMinValue() != null && value < question.getScaleMinValue()) ||
+                        (question.getScaleMaxValue() != null && value > question.getScaleMaxValue()))) {
+                    throw new ValidationException("Scale value out of range for: " + question.getEffectiveLabel());
                 }
                 break;
 
@@ -227,32 +333,18 @@ public class ResponseService {
     /**
      * Validate that selected option IDs belong to the question.
      */
-    private void validateOptionIds(List<UUID> optionIds, QuestionEntity question) {
+    private void validateOptionIds(List<UUID> optionIds, CompiledQuestion question) {
         if (optionIds == null || optionIds.isEmpty()) {
             return;
         }
 
-        Set<UUID> validOptionIds = question.getOptions().stream()
-                .map(QuestionOptionEntity::getId)
-                .collect(Collectors.toSet());
-
         for (UUID optionId : optionIds) {
-            if (!validOptionIds.contains(optionId)) {
-                throw new ValidationException("Invalid option selected for question: " + question.getTitle());
+            if (!question.hasOption(optionId)) {
+                throw new ValidationException("Invalid option selected for question: " + question.getEffectiveLabel());
             }
         }
     }
 
-    /**
-     * Determine the answer type based on question type.
-     */
-    private AnswerType determineAnswerType(QuestionType questionType) {
-        return switch (questionType) {
-            case SHORT_ANSWER, PARAGRAPH -> AnswerType.TEXT;
-            case MULTIPLE_CHOICE, CHECKBOXES, DROPDOWN -> AnswerType.SELECTION;
-            case LINEAR_SCALE -> AnswerType.NUMERIC;
-            case DATE -> AnswerType.DATE;
-            case TIME -> AnswerType.TIME;
-        };
+    private record Keyset(LocalDateTime submittedAt, UUID id) {
     }
 }
@@ -0,0 +1,146 @@
+package net.talaatharb.survey.service;
+
+import lombok.RequiredArgsConstructor;
+import net.talaatharb.survey.exception.ResourceNotFoundException;
+import net.talaatharb.survey.export.ExportColumn;
+import net.talaatharb.survey.export.ExportedSubmission;
+import net.talaatharb.survey.export.SubmissionExportFormat;
+import net.talaatharb.survey.export.SubmissionRowWriter;
+import net.talaatharb.survey.repository.SurveyQuestionLinkRepository;
+import net.talaatharb.survey.repository.SurveyRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Service exporting all submissions of a survey.
+ * <p>
+ * Submissions are read through a single forward-only cursor that yields the answer and selected
+ * option rows of each submission consecutively. Only the submission being assembled is held in
+ * memory, so the export size is bounded by the output stream and not by the heap.
+ */
+@Service
+@RequiredArgsConstructor
+public class SubmissionExportService {
+
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String SELECT_SUBMISSIONS =
+            "SELECT sr.id, sr.submitted_at, sr.snapshot_version, sr.submitter_id, " +
+            "qr.question_id, qr.text_answer, qr.numeric_answer, so.label_snapshot " +
+            "FROM survey_responses sr " +
+            "LEFT JOIN question_responses qr ON qr.survey_response_id = sr.id " +
+            "LEFT JOIN question_response_selected_options so ON so.question_response_id = qr.id " +
+            "WHERE sr.survey_id = ? " +
+            "ORDER BY sr.submitted_at, sr.id, qr.id, so.id";
+
+    private final SurveyRepository surveyRepository;
+    private final SurveyQuestionLinkRepository linkRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final JsonMapper jsonMapper;
+
+    /**
+     * Resolve the exported columns of a survey: one per linked question, in survey order.
+     */
+    @Transactional(readOnly = true)
+    public List<ExportColumn> getColumns(UUID surveyId) {
+        surveyRepository.findByIdAndArchivedFalse(surveyId)
+                .orElseThrow(() -> new ResourceNotFoundException("Survey", "id", surveyId));
+
+        return linkRepository.findBySurveyIdOrderByOrderIndexAsc(surveyId).stream()
+                .map(link -> new ExportColumn(link.getQuestion().getId(), link.getEffectiveLabel()))
+                .toList();
+    }
+
+    /**
+     * Write all submissions of a survey, oldest first. Answers to questions that are no longer
+     * linked are left out. The output stream is flushed but not closed.
+     */
+    @Transactional(readOnly = true)
+    public void export(UUID surveyId, List<ExportColumn> columns, SubmissionExportFormat format,
+                       OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        SubmissionRowWriter rowWriter = SubmissionRowWriter.create(format, writer, columns, jsonMapper);
+        rowWriter.writeHeader();
+
+        SubmissionAssembler assembler = new SubmissionAssembler(rowWriter);
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(SELECT_SUBMISSIONS,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(FETCH_SIZE);
+                statement.setObject(1, surveyId);
+                return statement;
+            }, assembler);
+            assembler.finish();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    /**
+     * Groups consecutive cursor rows into submissions and writes each one once its rows are consumed.
+     */
+    private static final class SubmissionAssembler implements RowCallbackHandler {
+
+        private final SubmissionRowWriter rowWriter;
+        private ExportedSubmission current;
+
+        private SubmissionAssembler(SubmissionRowWriter rowWriter) {
+            this.rowWriter = rowWriter;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            UUID submissionId = rs.getObject(1, UUID.class);
+            if (current == null || !current.getId().equals(submissionId)) {
+                finish();
+                Timestamp submittedAt = rs.getTimestamp(2);
+                current = new ExportedSubmission(submissionId,
+                        submittedAt != null ? submittedAt.toLocalDateTime() : null,
+                        rs.getObject(3, Integer.class), rs.getString(4));
+            }
+
+            UUID questionId = rs.getObject(5, UUID.class);
+            if (questionId == null) {
+                return; // Submission without answers
+            }
+            String label = rs.getString(8);
+            if (label != null) {
+                current.addSelectedLabel(questionId, label);
+            } else {
+                String text = rs.getString(6);
+                current.putAnswer(questionId, text != null ? text : rs.getObject(7, Integer.class));
+            }
+        }
+
+        private void finish() {
+            if (current == null) {
+                return;
+            }
+            try {
+                rowWriter.write(current);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            current = null;
+        }
+    }
+}
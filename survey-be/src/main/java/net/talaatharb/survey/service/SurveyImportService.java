@@ -0,0 +1,424 @@
+package net.talaatharb.survey.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import net.talaatharb.survey.dto.LinearScaleConfigDto;
+import net.talaatharb.survey.dto.QuestionDto;
+import net.talaatharb.survey.dto.QuestionOptionDto;
+import net.talaatharb.survey.dto.SurveyDto;
+import net.talaatharb.survey.dto.SurveyExportDto;
+import net.talaatharb.survey.dto.SurveyExportDto.ExportQuestionDto;
+import net.talaatharb.survey.dto.SurveyExportDto.ExportQuestionLinkDto;
+import net.talaatharb.survey.dto.SurveyExportDto.ExportQuestionOptionDto;
+import net.talaatharb.survey.dto.SurveyImportResultDto;
+import net.talaatharb.survey.entity.QuestionType;
+import net.talaatharb.survey.entity.SurveyEntity;
+import net.talaatharb.survey.entity.TimeOrderedUuidGenerator;
+import net.talaatharb.survey.event.QuestionChangedEvent;
+import net.talaatharb.survey.event.SurveyDefinitionChangedEvent;
+import net.talaatharb.survey.exception.ValidationException;
+import net.talaatharb.survey.mapper.SurveyMapper;
+import net.talaatharb.survey.repository.SurveyRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.ObjectReader;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.InputStream;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Service importing survey export files, either a single survey or a bundle (JSON array) of them.
+ * <p>
+ * Surveys are parsed one at a time from the input stream and written in chunks with JDBC batch
+ * statements: existing surveys and questions are resolved with one query per chunk, and each table
+ * gets one batch per chunk no matter how many surveys or questions it holds. The whole file is
+ * imported in a single transaction, so an invalid survey anywhere in it imports nothing.
+ */
+@Service
+@RequiredArgsConstructor
+public class SurveyImportService {
+
+    private static final int IMPORT_BATCH_SIZE = 100;
+
+    private static final String SELECT_EXISTING_SURVEY_IDS =
+            "SELECT id FROM surveys WHERE id IN (%s)";
+
+    private static final String SELECT_EXISTING_QUESTION_IDS =
+            "SELECT id FROM questions WHERE archived = FALSE AND id IN (%s)";
+
+    private static final String INSERT_SURVEY =
+            "INSERT INTO surveys (id, title, description, published, archived, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, FALSE, ?, ?)";
+
+    private static final String UPDATE_SURVEY =
+            "UPDATE surveys SET title = ?, description = ?, published = ?, updated_at = ? WHERE id = ?";
+
+    private static final String DELETE_SURVEY_LINKS =
+            "DELETE FROM survey_question_links WHERE survey_id = ?";
+
+    private static final String INSERT_QUESTION =
+            "INSERT INTO questions (id, title, description, type, required, max_length, scale_min_value, " +
+            "scale_max_value, scale_step, scale_left_label, scale_right_label, archived, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, COALESCE(?, FALSE), ?, ?, ?, ?, ?, ?, FALSE, ?, ?)";
+
+    private static final String UPDATE_QUESTION =
+            "UPDATE questions SET title = ?, description = ?, type = ?, required = COALESCE(?, required), " +
+            "max_length = ?, scale_min_value = ?, scale_max_value = ?, scale_step = ?, scale_left_label = ?, " +
+            "scale_right_label = ?, updated_at = ? WHERE id = ?";
+
+    private static final String SELECT_QUESTION_OPTIONS =
+            "SELECT question_id, id, label, order_index FROM question_options WHERE question_id IN (%s)";
+
+    private static final String DELETE_QUESTION_OPTION =
+            "DELETE FROM question_options WHERE id = ?";
+
+    private static final String MOVE_QUESTION_OPTION =
+            "UPDATE question_options SET order_index = ? WHERE id = ?";
+
+    private static final String UPDATE_QUESTION_OPTION =
+            "UPDATE question_options SET label = ?, order_index = ? WHERE id = ?";
+
+    private static final String INSERT_QUESTION_OPTION =
+            "INSERT INTO question_options (id, question_id, label, order_index) VALUES (?, ?, ?, ?)";
+
+    private static final String INSERT_LINK =
+            "INSERT INTO survey_question_links (id, survey_id, question_id, order_index, required_override, " +
+            "label_override, description_override, hidden, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final SurveyRepository surveyRepository;
+    private final QuestionService questionService;
+    private final SurveySnapshotService snapshotService;
+    private final SurveyMapper surveyMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final JsonMapper jsonMapper;
+    private final Validator validator;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Import a file holding exactly one survey.
+     */
+    @Transactional
+    public SurveyDto importSurvey(InputStream input) {
+        List<UUID> imported = importSurveys(input, 1);
+        if (imported.isEmpty()) {
+            throw new ValidationException("The file does not contain a survey");
+        }
+        return surveyMapper.toDto(surveyRepository.findById(imported.getFirst()).orElseThrow());
+    }
+
+    /**
+     * Import a file holding one survey or a bundle of surveys.
+     */
+    @Transactional
+    public SurveyImportResultDto importBundle(InputStream input) {
+        List<UUID> imported = importSurveys(input, Integer.MAX_VALUE);
+        return SurveyImportResultDto.builder()
+                .importedSurveys(imported.size())
+                .surveyIds(imported)
+                .build();
+    }
+
+    private List<UUID> importSurveys(InputStream input, int maxSurveys) {
+        ImportState state = new ImportState();
+        List<UUID> imported = new ArrayList<>();
+        forEachSurvey(input, survey -> {
+            if (imported.size() + state.surveys.size() == maxSurveys) {
+                throw new ValidationException("The file contains more than " + maxSurveys + " survey(s)");
+            }
+            validate(survey, imported.size() + state.surveys.size());
+            state.surveys.add(survey);
+            if (state.surveys.size() == IMPORT_BATCH_SIZE) {
+                imported.addAll(write(state));
+            }
+        });
+        if (!state.surveys.isEmpty()) {
+            imported.addAll(write(state));
+        }
+        return imported;
+    }
+
+    /**
+     * Parse the surveys of a file one at a time, without reading the whole file into memory.
+     */
+    private void forEachSurvey(InputStream input, Consumer<SurveyExportDto> action) {
+        try (JsonParser parser = jsonMapper.createParser(input)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_OBJECT) {
+                action.accept(jsonMapper.readValue(parser, SurveyExportDto.class));
+            } else if (token == JsonToken.START_ARRAY) {
+                ObjectReader elementReader = jsonMapper.readerFor(SurveyExportDto.class)
+                        .without(DeserializationFeature.FAIL_ON_TRAILING_TOKENS);
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    action.accept(elementReader.readValue(parser));
+                }
+                if (!parser.hasToken(JsonToken.END_ARRAY)) {
+                    throw new ValidationException("Invalid JSON file: a bundle must be an array of surveys");
+                }
+            } else {
+                throw new ValidationException("Invalid JSON file: expected a survey or an array of surveys");
+            }
+        } catch (JacksonException e) {
+            throw new ValidationException("Invalid JSON file: " + e.getOriginalMessage());
+        }
+    }
+
+    private void validate(SurveyExportDto survey, int position) {
+        Set<ConstraintViolation<SurveyExportDto>> violations = validator.validate(survey);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<SurveyExportDto> violation = violations.iterator().next();
+            throw new ValidationException("Survey " + (position + 1) + ": " + violation.getPropertyPath() + ": "
+                    + violation.getMessage());
+        }
+        if (survey.getQuestions() != null) {
+            survey.getQuestions().forEach(link -> questionService.validateQuestion(toQuestionDto(link.getQuestion())));
+        }
+    }
+
+    /**
+     * Write the parsed surveys, then clear them.
+     */
+    private List<UUID> write(ImportState state) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Set<UUID> existingSurveys = findExisting(SELECT_EXISTING_SURVEY_IDS, state.surveys.stream()
+                .map(SurveyExportDto::getId)
+                .toList());
+        Set<UUID> existingQuestions = findExisting(SELECT_EXISTING_QUESTION_IDS, state.surveys.stream()
+                .filter(survey -> survey.getQuestions() != null)
+                .flatMap(survey -> survey.getQuestions().stream())
+                .map(link -> link.getQuestion().getId())
+                .filter(id -> !state.createdQuestionIds.containsKey(id))
+                .toList());
+
+        List<UUID> surveyIds = new ArrayList<>(state.surveys.size());
+        List<UUID> publishedIds = new ArrayList<>();
+        List<Object[]> surveyInserts = new ArrayList<>();
+        List<Object[]> surveyUpdates = new ArrayList<>();
+        List<Object[]> linkDeletes = new ArrayList<>();
+        Map<UUID, List<Object[]>> linkInserts = new LinkedHashMap<>();
+        Map<UUID, ExportQuestionDto> questions = new LinkedHashMap<>();
+        Set<UUID> newQuestions = new HashSet<>();
+
+        for (SurveyExportDto survey : state.surveys) {
+            boolean published = Boolean.TRUE.equals(survey.getPublished());
+            UUID surveyId;
+            if (existingSurveys.contains(survey.getId())) {
+                surveyId = survey.getId();
+                surveyUpdates.add(new Object[]{survey.getTitle(), survey.getDescription(), published, now, surveyId});
+                linkDeletes.add(new Object[]{surveyId});
+            } else {
+                surveyId = TimeOrderedUuidGenerator.nextUuid();
+                surveyInserts.add(new Object[]{surveyId, survey.getTitle(), survey.getDescription(), published, now, now});
+            }
+            surveyIds.add(surveyId);
+            if (published) {
+                publishedIds.add(surveyId);
+            }
+
+            List<ExportQuestionLinkDto> links = orderedLinks(survey);
+            List<Object[]> linkRows = new ArrayList<>(links.size());
+            linkInserts.put(surveyId, linkRows); // A survey imported twice keeps its last links
+            for (int i = 0; i < links.size(); i++) {
+                ExportQuestionLinkDto link = links.get(i);
+                UUID questionId = resolveQuestionId(link.getQuestion().getId(), existingQuestions, state, newQuestions);
+                questions.put(questionId, link.getQuestion()); // A question imported twice keeps its last definition
+                linkRows.add(new Object[]{
+                        TimeOrderedUuidGenerator.nextUuid(), surveyId, questionId,
+                        LinkOrdering.keyAt(i),
+                        link.getRequiredOverride(), link.getLabelOverride(), link.getDescriptionOverride(),
+                        Boolean.TRUE.equals(link.getHidden()), now, now});
+            }
+        }
+
+        List<Object[]> questionInserts = new ArrayList<>();
+        List<Object[]> questionUpdates = new ArrayList<>();
+        List<Object[]> optionDeletes = new ArrayList<>();
+        List<Object[]> optionMoves = new ArrayList<>();
+        List<Object[]> optionUpdates = new ArrayList<>();
+        List<Object[]> optionInserts = new ArrayList<>();
+        Map<UUID, List<OptionReconciler.Option>> storedOptions = findStoredOptions(questions.keySet().stream()
+                .filter(questionId -> !newQuestions.contains(questionId))
+                .toList());
+        questions.forEach((questionId, question) -> {
+            LinearScaleConfigDto scale = question.getType() == QuestionType.LINEAR_SCALE
+                    ? question.getLinearScaleConfig()
+                    : null;
+            Object[] scaleColumns = scale != null
+                    ? new Object[]{scale.getMinValue(), scale.getMaxValue(), scale.getStep(), scale.getLeftLabel(), scale.getRightLabel()}
+                    : new Object[5];
+            if (newQuestions.contains(questionId)) {
+                questionInserts.add(row(new Object[]{questionId, question.getTitle(), question.getDescription(),
+                        question.getType().name(), question.getRequired(), question.getMaxLength()},
+                        scaleColumns, new Object[]{now, now}));
+            } else {
+                questionUpdates.add(row(new Object[]{question.getTitle(), question.getDescription(),
+                        question.getType().name(), question.getRequired(), question.getMaxLength()},
+                        scaleColumns, new Object[]{now, questionId}));
+            }
+
+            // Keep the IDs of options that are still there, so past responses keep pointing at them
+            List<ExportQuestionOptionDto> options = question.getOptions() != null ? question.getOptions() : List.of();
+            List<OptionReconciler.Option> edited = new ArrayList<>(options.size());
+            for (int i = 0; i < options.size(); i++) {
+                ExportQuestionOptionDto option = options.get(i);
+                edited.add(new OptionReconciler.Option(null, option.getLabel(),
+                        option.getOrderIndex() != null ? option.getOrderIndex() : i));
+            }
+            OptionReconciler.Changes changes = OptionReconciler.reconcile(
+                    storedOptions.getOrDefault(questionId, List.of()), edited);
+            changes.removed().forEach(id -> optionDeletes.add(new Object[]{id}));
+            for (int i = 0; i < changes.moved().size(); i++) {
+                optionMoves.add(new Object[]{OptionReconciler.Changes.temporaryIndex(i), changes.moved().get(i)});
+            }
+            changes.updated().forEach(option ->
+                    optionUpdates.add(new Object[]{option.label(), option.orderIndex(), option.id()}));
+            changes.added().forEach(option -> optionInserts.add(new Object[]{
+                    TimeOrderedUuidGenerator.nextUuid(), questionId, option.label(), option.orderIndex()}));
+        });
+
+        batchUpdate(INSERT_SURVEY, surveyInserts);
+        batchUpdate(UPDATE_SURVEY, surveyUpdates);
+        batchUpdate(DELETE_SURVEY_LINKS, linkDeletes);
+        batchUpdate(INSERT_QUESTION, questionInserts);
+        batchUpdate(UPDATE_QUESTION, questionUpdates);
+        batchUpdate(DELETE_QUESTION_OPTION, optionDeletes);
+        batchUpdate(MOVE_QUESTION_OPTION, optionMoves);
+        batchUpdate(UPDATE_QUESTION_OPTION, optionUpdates);
+        batchUpdate(INSERT_QUESTION_OPTION, optionInserts);
+        batchUpdate(INSERT_LINK, linkInserts.values().stream().flatMap(List::stream).toList());
+
+        if (!publishedIds.isEmpty()) {
+            for (SurveyEntity survey : surveyRepository.findAllById(publishedIds)) {
+                snapshotService.freeze(survey);
+            }
+            // Keep the persistence context from growing with every chunk
+            entityManager.flush();
+            entityManager.clear();
+        }
+
+        questions.keySet().forEach(questionId -> eventPublisher.publishEvent(new QuestionChangedEvent(questionId)));
+        surveyIds.forEach(surveyId -> eventPublisher.publishEvent(new SurveyDefinitionChangedEvent(surveyId)));
+        state.surveys.clear();
+        return surveyIds;
+    }
+
+    /**
+     * Links of a survey of the file in the order their order indexes give, links without one
+     * keeping their place in the file.
+     */
+    private static List<ExportQuestionLinkDto> orderedLinks(SurveyExportDto survey) {
+        List<ExportQuestionLinkDto> links = survey.getQuestions() != null ? survey.getQuestions() : List.of();
+        List<Integer> positions = new ArrayList<>(links.size());
+        for (int i = 0; i < links.size(); i++) {
+            Integer orderIndex = links.get(i).getOrderIndex();
+            positions.add(orderIndex != null ? orderIndex : i);
+        }
+        return IntStream.range(0, links.size()).boxed()
+                .sorted(Comparator.comparing(positions::get))
+                .map(links::get)
+                .toList();
+    }
+
+    /**
+     * Resolve the question a link of the file refers to. Existing questions are updated in place;
+     * any other question is created once, so links sharing it in the file share the new question.
+     */
+    private static UUID resolveQuestionId(UUID fileId, Set<UUID> existingQuestions, ImportState state,
+                                          Set<UUID> newQuestions) {
+        if (fileId != null && existingQuestions.contains(fileId)) {
+            return fileId;
+        }
+        if (fileId != null && state.createdQuestionIds.containsKey(fileId)) {
+            return state.createdQuestionIds.get(fileId);
+        }
+        UUID questionId = TimeOrderedUuidGenerator.nextUuid();
+        if (fileId != null) {
+            state.createdQuestionIds.put(fileId, questionId);
+        }
+        newQuestions.add(questionId);
+        return questionId;
+    }
+
+    private Set<UUID> findExisting(String query, Collection<UUID> ids) {
+        List<UUID> candidates = ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (candidates.isEmpty()) {
+            return new HashSet<>(); // Unlike Set.of(), answers contains(null)
+        }
+        String placeholders = String.join(", ", Collections.nCopies(candidates.size(), "?"));
+        return new HashSet<>(jdbcTemplate.queryForList(query.formatted(placeholders), UUID.class, candidates.toArray()));
+    }
+
+    private Map<UUID, List<OptionReconciler.Option>> findStoredOptions(List<UUID> questionIds) {
+        Map<UUID, List<OptionReconciler.Option>> options = new HashMap<>();
+        if (questionIds.isEmpty()) {
+            return options;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(questionIds.size(), "?"));
+        jdbcTemplate.query(SELECT_QUESTION_OPTIONS.formatted(placeholders), rs -> {
+            options.computeIfAbsent(rs.getObject(1, UUID.class), id -> new ArrayList<>())
+                    .add(new OptionReconciler.Option(rs.getObject(2, UUID.class), rs.getString(3), rs.getInt(4)));
+        }, questionIds.toArray());
+        return options;
+    }
+
+    private void batchUpdate(String sql, List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows);
+        }
+    }
+
+    private static Object[] row(Object[]... parts) {
+        List<Object> values = new ArrayList<>();
+        for (Object[] part : parts) {
+            Collections.addAll(values, part);
+        }
+        return values.toArray();
+    }
+
+    private static QuestionDto toQuestionDto(ExportQuestionDto question) {
+        return QuestionDto.builder()
+                .title(question.getTitle())
+                .type(question.getType())
+                .linearScaleConfig(question.getLinearScaleConfig())
+                .options(question.getOptions() != null
+                        ? question.getOptions().stream()
+                                .map(option -> QuestionOptionDto.builder().label(option.getLabel()).build())
+                                .toList()
+                        : null)
+                .build();
+    }
+
+    /**
+     * Surveys parsed but not written yet, and the questions created so far by their ID in the file.
+     */
+    private static final class ImportState {
+
+        private final List<SurveyExportDto> surveys = new ArrayList<>(IMPORT_BATCH_SIZE);
+        private final Map<UUID, UUID> createdQuestionIds = new HashMap<>();
+    }
+}
@@ -5,19 +5,26 @@ import net.talaatharb.survey.dto.*;
 import net.talaatharb.survey.entity.QuestionEntity;
 import net.talaatharb.survey.entity.SurveyEntity;
 import net.talaatharb.survey.entity.SurveyQuestionLinkEntity;
+import net.talaatharb.survey.event.SurveyDefinitionChangedEvent;
 import net.talaatharb.survey.exception.ResourceNotFoundException;
 import net.talaatharb.survey.exception.ValidationException;
 import net.talaatharb.survey.mapper.QuestionMapper;
 import net.talaatharb.survey.mapper.SurveyMapper;
 import net.talaatharb.survey.repository.SurveyQuestionLinkRepository;
 import net.talaatharb.survey.repository.SurveyRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.IntStream;
 
 /**
  * Service for managing surveys.
@@ -30,15 +37,17 @@ public class SurveyService {
     private final SurveyRepository surveyRepository;
     private final SurveyQuestionLinkRepository linkRepository;
     private final QuestionService questionService;
+    private final SurveySnapshotService snapshotService;
     private final SurveyMapper surveyMapper;
     private final QuestionMapper questionMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
-     * Get all surveys with pagination.
+     * Get all surveys with pagination, with their question and response counts.
      */
     @Transactional(readOnly = true)
     public Page<SurveyDto> getAllSurveys(Pageable pageable) {
-        return surveyRepository.findByArchivedFalse(pageable)
+        return surveyRepository.findSummaries(pageable)
                 .map(surveyMapper::toDto);
     }
 
@@ -50,7 +59,7 @@ public class SurveyService {
         if (search == null || search.isBlank()) {
             return getAllSurveys(pageable);
         }
-        return surveyRepository.searchByTitle(search, pageable)
+        return surveyRepository.searchSummariesByTitle(search, pageable)
                 .map(surveyMapper::toDto);
     }
 
@@ -62,17 +71,13 @@ public class SurveyService {
         SurveyEntity entity = surveyRepository.findByIdAndArchivedFalse(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Survey", "id", id));
 
+        // Load links with their questions and options up front so mapping does not hit the database per link
+        List<SurveyQuestionLinkEntity> links = linkRepository.findBySurveyIdOrderByOrderIndexAsc(id);
+
         SurveyDto dto = surveyMapper.toDto(entity);
 
         // Populate question links with full details
-        List<SurveyQuestionLinkDto> linkDtos = entity.getQuestionLinks().stream()
-                .map(link -> {
-                    SurveyQuestionLinkDto linkDto = surveyMapper.toLinkDto(link);
-                    linkDto.setQuestion(questionMapper.toDto(link.getQuestion()));
-                    return linkDto;
-                })
-                .toList();
-        dto.setQuestionLinks(linkDtos);
+        dto.setQuestionLinks(toLinkDtos(links));
 
         return dto;
     }
@@ -99,7 +104,8 @@ public class SurveyService {
     }
 
     /**
-     * Update a survey.
+     * Update a survey. Saving a published survey freezes its current definition as the
+     * published snapshot.
      */
     public SurveyDto updateSurvey(UUID id, SurveyDto dto) {
         SurveyEntity entity = surveyRepository.findByIdAndArchivedFalse(id)
@@ -112,7 +118,12 @@ public class SurveyService {
             validateSurveyForPublishing(entity);
         }
 
+        if (entity.isPublished()) {
+            snapshotService.freeze(entity);
+        }
+
         SurveyEntity saved = surveyRepository.save(entity);
+        publishDefinitionChanged(id);
         return surveyMapper.toDto(saved);
     }
 
@@ -124,6 +135,7 @@ public class SurveyService {
                 .orElseThrow(() -> new ResourceNotFoundException("Survey", "id", id));
         entity.setArchived(true);
         surveyRepository.save(entity);
+        publishDefinitionChanged(id);
     }
 
     /**
@@ -140,37 +152,39 @@ public class SurveyService {
             throw new ValidationException("Question is already added to this survey");
         }
 
-        // Determine order index
-        int orderIndex = dto.getOrderIndex() != null 
-                ? dto.getOrderIndex() 
-                : linkRepository.getMaxOrderIndex(surveyId) + 1;
-
         SurveyQuestionLinkEntity link = SurveyQuestionLinkEntity.builder()
                 .survey(survey)
                 .question(question)
-                .orderIndex(orderIndex)
                 .requiredOverride(dto.getRequiredOverride())
                 .labelOverride(dto.getLabelOverride())
                 .descriptionOverride(dto.getDescriptionOverride())
                 .hidden(dto.getHidden() != null ? dto.getHidden() : false)
                 .build();
 
+        // Append unless a position is given
+        List<SurveyQuestionLinkEntity> others = linkRepository.findOrderedBySurveyId(surveyId);
+        int position = placeLink(others, link, dto.getOrderIndex() != null ? dto.getOrderIndex() : others.size());
+
         SurveyQuestionLinkEntity saved = linkRepository.save(link);
 
         SurveyQuestionLinkDto linkDto = surveyMapper.toLinkDto(saved);
+        linkDto.setOrderIndex(position);
         linkDto.setQuestion(questionMapper.toDto(question));
         return linkDto;
     }
 
     /**
-     * Update a question link in a survey.
+     * Update a question link in a survey. An order index moves the link to that position.
      */
     public SurveyQuestionLinkDto updateQuestionLink(UUID surveyId, UUID linkId, UpdateSurveyQuestionLinkDto dto) {
         SurveyQuestionLinkEntity link = linkRepository.findByIdAndSurveyId(linkId, surveyId)
                 .orElseThrow(() -> new ResourceNotFoundException("Survey question link", "id", linkId));
 
-        if (dto.getOrderIndex() != null) {
-            link.setOrderIndex(dto.getOrderIndex());
+        List<SurveyQuestionLinkEntity> others = linkRepository.findOrderedBySurveyId(surveyId);
+        int position = others.indexOf(link);
+        others.remove(position);
+        if (dto.getOrderIndex() != null && dto.getOrderIndex() != position) {
+            position = placeLink(others, link, dto.getOrderIndex());
         }
         if (dto.getRequiredOverride() != null) {
             link.setRequiredOverride(dto.getRequiredOverride());
@@ -188,22 +202,37 @@ public class SurveyService {
         SurveyQuestionLinkEntity saved = linkRepository.save(link);
 
         SurveyQuestionLinkDto linkDto = surveyMapper.toLinkDto(saved);
+        linkDto.setOrderIndex(position);
         linkDto.setQuestion(questionMapper.toDto(link.getQuestion()));
         return linkDto;
     }
 
     /**
-     * Remove a question from a survey.
+     * Reorder all question links of a survey. Only links whose sort key changes are written, in
+     * one batch when the transaction flushes.
+     */
+    public void reorderQuestionLinks(UUID surveyId, SurveyQuestionLinkOrderDto dto) {
+        surveyRepository.findByIdAndArchivedFalse(surveyId)
+                .orElseThrow(() -> new ResourceNotFoundException("Survey", "id", surveyId));
+
+        Map<UUID, SurveyQuestionLinkEntity> links = new HashMap<>();
+        linkRepository.findOrderedBySurveyId(surveyId).forEach(link -> links.put(link.getId(), link));
+        if (dto.getLinkIds().size() != links.size() || !links.keySet().equals(new HashSet<>(dto.getLinkIds()))) {
+            throw new ValidationException("The new order must list every question link of the survey exactly once");
+        }
+
+        List<SurveyQuestionLinkEntity> ordered = dto.getLinkIds().stream().map(links::get).toList();
+        spreadKeys(ordered);
+    }
+
+    /**
+     * Remove a question from a survey. The remaining links keep their sort keys.
      */
     public void removeQuestionFromSurvey(UUID surveyId, UUID linkId) {
         SurveyQuestionLinkEntity link = linkRepository.findByIdAndSurveyId(linkId, surveyId)
                 .orElseThrow(() -> new ResourceNotFoundException("Survey question link", "id", linkId));
 
-        int removedOrder = link.getOrderIndex();
         linkRepository.delete(link);
-
-        // Reorder remaining links
-        linkRepository.decrementOrderIndicesAfter(surveyId, removedOrder);
     }
 
     /**
@@ -214,13 +243,53 @@ public class SurveyService {
         surveyRepository.findByIdAndArchivedFalse(surveyId)
                 .orElseThrow(() -> new ResourceNotFoundException("Survey", "id", surveyId));
 
-        return linkRepository.findBySurveyIdOrderByOrderIndexAsc(surveyId).stream()
-                .map(link -> {
-                    SurveyQuestionLinkDto dto = surveyMapper.toLinkDto(link);
-                    dto.setQuestion(questionMapper.toDto(link.getQuestion()));
-                    return dto;
-                })
-                .toList();
+        return toLinkDtos(linkRepository.findBySurveyIdOrderByOrderIndexAsc(surveyId));
+    }
+
+    /**
+     * Map ordered links to DTOs carrying their question and their position as order index.
+     */
+    private List<SurveyQuestionLinkDto> toLinkDtos(List<SurveyQuestionLinkEntity> links) {
+        List<SurveyQuestionLinkDto> dtos = new ArrayList<>(links.size());
+        for (SurveyQuestionLinkEntity link : links) {
+            SurveyQuestionLinkDto dto = surveyMapper.toLinkDto(link);
+            dto.setOrderIndex(dtos.size());
+            dto.setQuestion(questionMapper.toDto(link.getQuestion()));
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+
+    /**
+     * Give a link the sort key for a position among the other links of its survey, rebalancing
+     * the survey if its neighbours leave no room.
+     *
+     * @param others the other links of the survey, in order
+     * @return the position of the link, clamped to the survey
+     */
+    private int placeLink(List<SurveyQuestionLinkEntity> others, SurveyQuestionLinkEntity link, int position) {
+        position = Math.clamp(position, 0, others.size());
+        Integer key = LinkOrdering.keyBetween(
+                position > 0 ? others.get(position - 1).getOrderIndex() : null,
+                position < others.size() ? others.get(position).getOrderIndex() : null);
+        if (key != null) {
+            link.setOrderIndex(key);
+        } else {
+            List<SurveyQuestionLinkEntity> ordered = new ArrayList<>(others);
+            ordered.add(position, link);
+            spreadKeys(ordered);
+        }
+        return position;
+    }
+
+    /**
+     * Spread the sort keys of the given links evenly, in order.
+     */
+    private void spreadKeys(List<SurveyQuestionLinkEntity> ordered) {
+        // Links already at their key stay clean and are not written
+        for (int i = 0; i < ordered.size(); i++) {
+            ordered.get(i).setOrderIndex(LinkOrdering.keyAt(i));
+        }
     }
 
     /**
@@ -243,8 +312,9 @@ public class SurveyService {
 
         List<SurveyQuestionLinkEntity> links = linkRepository.findBySurveyIdOrderByOrderIndexAsc(surveyId);
 
-        List<SurveyExportDto.ExportQuestionLinkDto> questionLinks = links.stream()
-                .map(link -> {
+        List<SurveyExportDto.ExportQuestionLinkDto> questionLinks = IntStream.range(0, links.size())
+                .mapToObj(position -> {
+                    SurveyQuestionLinkEntity link = links.get(position);
                     QuestionEntity question = link.getQuestion();
                     
                     List<SurveyExportDto.ExportQuestionOptionDto> options = question.getOptions().stream()
@@ -266,7 +336,7 @@ public class SurveyService {
                             .build();
 
                     return SurveyExportDto.ExportQuestionLinkDto.builder()
-                            .orderIndex(link.getOrderIndex())
+                            .orderIndex(position)
                             .requiredOverride(link.getRequiredOverride())
                             .labelOverride(link.getLabelOverride())
                             .descriptionOverride(link.getDescriptionOverride())
@@ -286,95 +356,9 @@ public class SurveyService {
     }
 
     /**
-     * Import a survey. Creates new questions if they don't exist (no ID or ID not found),
-     * updates existing questions if they exist (matched by ID).
+     * Notify listeners that the published state or snapshot of a survey changed.
      */
-    public SurveyDto importSurvey(SurveyExportDto importData) {
-        // Create or update the survey
-        SurveyEntity survey;
-        boolean isUpdate = importData.getId() != null && surveyRepository.existsById(importData.getId());
-        
-        if (isUpdate) {
-            survey = surveyRepository.findById(importData.getId()).orElseThrow();
-            survey.setTitle(importData.getTitle());
-            survey.setDescription(importData.getDescription());
-            survey.setPublished(Boolean.TRUE.equals(importData.getPublished()));
-            survey = surveyRepository.save(survey);
-            
-            // Remove existing links and flush to avoid constraint violations
-            linkRepository.deleteBySurveyId(survey.getId());
-            linkRepository.flush();
-        } else {
-            survey = SurveyEntity.builder()
-                    .title(importData.getTitle())
-                    .description(importData.getDescription())
-                    .published(Boolean.TRUE.equals(importData.getPublished()))
-                    .build();
-            survey = surveyRepository.save(survey);
-        }
-
-        // Process questions and links
-        if (importData.getQuestions() != null) {
-            for (SurveyExportDto.ExportQuestionLinkDto linkData : importData.getQuestions()) {
-                SurveyExportDto.ExportQuestionDto questionData = linkData.getQuestion();
-                
-                // Create or update question
-                QuestionEntity question;
-                if (questionData.getId() != null && questionService.existsById(questionData.getId())) {
-                    // Update existing question
-                    QuestionDto dto = QuestionDto.builder()
-                            .title(questionData.getTitle())
-                            .description(questionData.getDescription())
-                            .type(questionData.getType())
-                            .required(questionData.getRequired())
-                            .maxLength(questionData.getMaxLength())
-                            .linearScaleConfig(questionData.getLinearScaleConfig())
-                            .options(questionData.getOptions() != null ? 
-                                    questionData.getOptions().stream()
-                                            .map(opt -> QuestionOptionDto.builder()
-                                                    .label(opt.getLabel())
-                                                    .orderIndex(opt.getOrderIndex())
-                                                    .build())
-                                            .toList() : null)
-                            .build();
-                    questionService.updateQuestion(questionData.getId(), dto);
-                    question = questionService.getEntityById(questionData.getId());
-                } else {
-                    // Create new question
-                    QuestionDto dto = QuestionDto.builder()
-                            .title(questionData.getTitle())
-                            .description(questionData.getDescription())
-                            .type(questionData.getType())
-                            .required(questionData.getRequired())
-                            .maxLength(questionData.getMaxLength())
-                            .linearScaleConfig(questionData.getLinearScaleConfig())
-                            .options(questionData.getOptions() != null ? 
-                                    questionData.getOptions().stream()
-                                            .map(opt -> QuestionOptionDto.builder()
-                                                    .label(opt.getLabel())
-                                                    .orderIndex(opt.getOrderIndex())
-                                                    .build())
-                                            .toList() : null)
-                            .build();
-                    QuestionDto created = questionService.createQuestion(dto);
-                    question = questionService.getEntityById(created.getId());
-                }
-
-                // Create link
-                SurveyQuestionLinkEntity link = SurveyQuestionLinkEntity.builder()
-                        .survey(survey)
-                        .question(question)
-                        .orderIndex(linkData.getOrderIndex())
-                        .requiredOverride(linkData.getRequiredOverride())
-                        .labelOverride(linkData.getLabelOverride())
-                        .descriptionOverride(linkData.getDescriptionOverride())
-                        .hidden(Boolean.TRUE.equals(linkData.getHidden()))
-                        .build();
-                
-                linkRepository.save(link);
-            }
-        }
-
-        return surveyMapper.toDto(survey);
+    private void publishDefinitionChanged(UUID surveyId) {
+        eventPublisher.publishEvent(new SurveyDefinitionChangedEvent(surveyId));
     }
 }
@@ -0,0 +1,135 @@
+package net.talaatharb.survey.service;
+
+import lombok.RequiredArgsConstructor;
+import net.talaatharb.survey.dto.PublicSurveyDto;
+import net.talaatharb.survey.entity.QuestionEntity;
+import net.talaatharb.survey.entity.SurveyEntity;
+import net.talaatharb.survey.entity.SurveyQuestionLinkEntity;
+import net.talaatharb.survey.entity.SurveySnapshotEntity;
+import net.talaatharb.survey.mapper.QuestionMapper;
+import net.talaatharb.survey.repository.SurveyQuestionLinkRepository;
+import net.talaatharb.survey.repository.SurveyRepository;
+import net.talaatharb.survey.repository.SurveySnapshotRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Service for freezing and reading immutable snapshots of published survey definitions.
+ * <p>
+ * Respondents only ever see the snapshot a survey was last published with, so editing the survey
+ * or a shared bank question does not change what is live until the survey is published again.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class SurveySnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(SurveySnapshotService.class);
+
+    private final SurveyRepository surveyRepository;
+    private final SurveyQuestionLinkRepository linkRepository;
+    private final SurveySnapshotRepository snapshotRepository;
+    private final QuestionMapper questionMapper;
+    private final JsonMapper jsonMapper;
+
+    /**
+     * Get the snapshot currently served for a survey.
+     * Empty if the survey does not exist, is not published or is archived.
+     */
+    @Transactional(readOnly = true)
+    public Optional<SurveySnapshotEntity> getPublishedSnapshot(UUID surveyId) {
+        return snapshotRepository.findPublishedBySurveyId(surveyId);
+    }
+
+    /**
+     * Deserialize the survey definition held by a snapshot.
+     */
+    public PublicSurveyDto readDefinition(SurveySnapshotEntity snapshot) {
+        return jsonMapper.readValue(snapshot.getDefinition(), PublicSurveyDto.class);
+    }
+
+    /**
+     * Freeze the current definition of a survey and make it the published version.
+     * A new version is only created if the definition differs from the published one.
+     */
+    public SurveySnapshotEntity freeze(SurveyEntity survey) {
+        byte[] definition = jsonMapper.writeValueAsBytes(render(survey));
+
+        if (survey.getPublishedVersion() != null) {
+            Optional<SurveySnapshotEntity> current = snapshotRepository
+                    .findBySurveyIdAndVersion(survey.getId(), survey.getPublishedVersion())
+                    .filter(snapshot -> Arrays.equals(snapshot.getDefinition(), definition));
+            if (current.isPresent()) {
+                return current.get();
+            }
+        }
+
+        SurveySnapshotEntity snapshot = snapshotRepository.save(SurveySnapshotEntity.builder()
+                .surveyId(survey.getId())
+                .version(snapshotRepository.getMaxVersion(survey.getId()) + 1)
+                .definition(definition)
+                .build());
+        survey.setPublishedVersion(snapshot.getVersion());
+        return snapshot;
+    }
+
+    /**
+     * Freeze surveys that were published before snapshots were introduced.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void freezeUnversionedSurveys() {
+        List<SurveyEntity> surveys = surveyRepository.findByPublishedTrueAndArchivedFalseAndPublishedVersionIsNull();
+        for (SurveyEntity survey : surveys) {
+            freeze(survey);
+        }
+        if (!surveys.isEmpty()) {
+            log.info("Froze snapshots for {} previously published surveys", surveys.size());
+        }
+    }
+
+    /**
+     * Render the respondent view of the live survey definition.
+     */
+    private PublicSurveyDto render(SurveyEntity survey) {
+        List<SurveyQuestionLinkEntity> links = linkRepository
+                .findBySurveyIdAndHiddenFalseOrderByOrderIndexAsc(survey.getId());
+
+        List<PublicSurveyDto.PublicQuestionDto> questions = links.stream()
+                .map(link -> {
+                    QuestionEntity q = link.getQuestion();
+                    return PublicSurveyDto.PublicQuestionDto.builder()
+                            .questionId(q.getId())
+                            .title(link.getEffectiveLabel())
+                            .description(link.getEffectiveDescription())
+                            .type(q.getType())
+                            .required(link.isEffectivelyRequired())
+                            .maxLength(q.getMaxLength())
+                            .linearScaleConfig(questionMapper.toLinearScaleConfigDto(q.getLinearScaleConfig()))
+                            .options(q.getOptions().stream()
+                                    .map(opt -> PublicSurveyDto.PublicOptionDto.builder()
+                                            .id(opt.getId())
+                                            .label(opt.getLabel())
+                                            .build())
+                                    .toList())
+                            .build();
+                })
+                .toList();
+
+        return PublicSurveyDto.builder()
+                .id(survey.getId())
+                .title(survey.getTitle())
+                .description(survey.getDescription())
+                .questions(questions)
+                .build();
+    }
+}
@@ -0,0 +1,198 @@
+package net.talaatharb.survey.analytics;
+
+import net.talaatharb.survey.event.SubmissionsCountedEvent;
+import net.talaatharb.survey.event.SubmissionsRecordedEvent;
+import net.talaatharb.survey.ingestion.SubmissionFixtures;
+import net.talaatharb.survey.ingestion.SubmissionRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static net.talaatharb.survey.ingestion.SubmissionFixtures.numericAnswer;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnalyticsAggregateStoreTest {
+
+    private static final UUID SURVEY_ID = UUID.randomUUID();
+    private static final UUID QUESTION_ID = UUID.randomUUID();
+
+    private final InMemoryAggregateRepository repository = new InMemoryAggregateRepository();
+    private final List<SubmissionsCountedEvent> counted = new CopyOnWriteArrayList<>();
+
+    private AnalyticsAggregateStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new AnalyticsAggregateStore(repository, new AnalyticsProperties(), new NoOpTransactionManager(),
+                event -> counted.add((SubmissionsCountedEvent) event));
+    }
+
+    @Test
+    void dropsDeltasCoveredByTheRebuild() {
+        SubmissionRecord before = submission(3);
+        record(before);
+
+        store.rebuild(SURVEY_ID, () -> aggregatesOf(before));
+
+        assertEquals(1, store.get(SURVEY_ID).getTotalSubmissions());
+        store.flush();
+        assertEquals(1, store.get(SURVEY_ID).getTotalSubmissions());
+    }
+
+    @Test
+    void keepsSubmissionsRecordedDuringTheRebuildThatItDidNotCount() {
+        SubmissionRecord counted = submission(1);
+        SubmissionRecord late = submission(9);
+
+        store.rebuild(SURVEY_ID, () -> {
+            // Both commit while the rebuild runs, only the first before its snapshot
+            repository.committed.add(counted.getId());
+            record(counted);
+            record(late);
+            return aggregatesOf(counted);
+        });
+
+        SurveyAggregates aggregates = store.get(SURVEY_ID);
+        assertEquals(2, aggregates.getTotalSubmissions());
+        assertEquals(1, aggregates.getScaleCounts(QUESTION_ID).get(1));
+        assertEquals(1, aggregates.getScaleCounts(QUESTION_ID).get(9));
+        store.flush();
+        assertEquals(2, store.get(SURVEY_ID).getTotalSubmissions());
+    }
+
+    @Test
+    void readsCarryTheSequenceOfTheLastBatchTheyInclude() {
+        assertEquals(0, store.get(SURVEY_ID).getSequence());
+        record(submission(2));
+        record(submission(3));
+
+        assertEquals(List.of(1L, 2L), counted.stream().map(SubmissionsCountedEvent::sequence).toList());
+        SurveyAggregates aggregates = store.get(SURVEY_ID);
+        assertEquals(2, aggregates.getSequence());
+        assertEquals(2, aggregates.getTotalSubmissions());
+        store.flush();
+        assertEquals(2, store.get(SURVEY_ID).getSequence());
+        assertEquals(2, store.get(SURVEY_ID).getTotalSubmissions());
+    }
+
+    @Test
+    void restoresPendingDeltasWhenTheRebuildFails() {
+        record(submission(5));
+        repository.persisted = aggregatesOf(submission(4));
+
+        assertThrows(IllegalStateException.class, () -> store.rebuild(SURVEY_ID, () -> {
+            record(submission(6));
+            throw new IllegalStateException("Database unavailable");
+        }));
+
+        assertEquals(3, store.get(SURVEY_ID).getTotalSubmissions());
+        record(submission(7));
+        assertEquals(4, store.get(SURVEY_ID).getTotalSubmissions());
+    }
+
+    @Test
+    void backfillsSurveysAnsweredBeforeAggregatesWereMaintained() throws Exception {
+        repository.unaggregated = List.of(SURVEY_ID);
+        store.start();
+        try {
+            assertFalse(store.isAggregated(SURVEY_ID));
+
+            store.backfill(surveyId -> aggregatesOf(submission(2), submission(8)));
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!store.isAggregated(SURVEY_ID) && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(store.isAggregated(SURVEY_ID));
+            assertEquals(2, store.get(SURVEY_ID).getTotalSubmissions());
+        } finally {
+            store.stop();
+        }
+    }
+
+    private void record(SubmissionRecord submission) {
+        store.onSubmissionsRecorded(new SubmissionsRecordedEvent(List.of(submission)));
+    }
+
+    private static SurveyAggregates aggregatesOf(SubmissionRecord... submissions) {
+        SurveyAggregates aggregates = new SurveyAggregates(SURVEY_ID);
+        for (SubmissionRecord submission : submissions) {
+            aggregates.record(submission);
+        }
+        return aggregates;
+    }
+
+    private static SubmissionRecord submission(int score) {
+        return SubmissionFixtures.submission(SURVEY_ID, numericAnswer(QUESTION_ID, score));
+    }
+
+    /**
+     * Aggregate tables of a single survey, and the submissions in the snapshot of a rebuild.
+     */
+    private static class InMemoryAggregateRepository extends AggregateJdbcRepository {
+
+        final Set<UUID> committed = new HashSet<>();
+        SurveyAggregates persisted = new SurveyAggregates(SURVEY_ID);
+        List<UUID> unaggregated = List.of();
+
+        InMemoryAggregateRepository() {
+            super(null);
+        }
+
+        @Override
+        public List<UUID> findUnaggregatedSurveyIds() {
+            return unaggregated;
+        }
+
+        @Override
+        public synchronized SurveyAggregates load(UUID surveyId) {
+            return persisted.copy();
+        }
+
+        @Override
+        public synchronized void add(Collection<SurveyAggregates> deltas) {
+            deltas.forEach(persisted::addAll);
+        }
+
+        @Override
+        public synchronized void replace(SurveyAggregates aggregates) {
+            persisted = aggregates.copy();
+        }
+
+        @Override
+        public synchronized Set<UUID> findRecordedSubmissionIds(List<UUID> submissionIds) {
+            return submissionIds.stream().filter(committed::contains).collect(Collectors.toSet());
+        }
+    }
+
+    private static class NoOpTransactionManager implements PlatformTransactionManager {
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
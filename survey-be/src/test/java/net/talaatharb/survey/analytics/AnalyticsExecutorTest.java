@@ -0,0 +1,50 @@
+package net.talaatharb.survey.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnalyticsExecutorTest {
+
+    @Test
+    void runsTasksOnItsOwnThreadsAndOnTheCallerWhenFull() throws Exception {
+        AnalyticsProperties properties = new AnalyticsProperties();
+        properties.getExecutor().setThreads(1);
+        properties.getExecutor().setQueueCapacity(1);
+        AnalyticsExecutor executor = new AnalyticsExecutor(properties);
+        executor.start();
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            CompletableFuture<String> busy = CompletableFuture.supplyAsync(() -> {
+                await(release);
+                return Thread.currentThread().getName();
+            }, executor);
+            CompletableFuture<String> queued = CompletableFuture.supplyAsync(
+                    () -> Thread.currentThread().getName(), executor);
+            String caller = Thread.currentThread().getName();
+
+            assertEquals(caller, CompletableFuture.supplyAsync(() -> Thread.currentThread().getName(), executor).join());
+            release.countDown();
+            assertTrue(busy.get(5, TimeUnit.SECONDS).startsWith("analytics-worker-"));
+            assertTrue(queued.get(5, TimeUnit.SECONDS).startsWith("analytics-worker-"));
+        } finally {
+            executor.stop();
+        }
+
+        assertEquals(Thread.currentThread().getName(),
+                CompletableFuture.supplyAsync(() -> Thread.currentThread().getName(), executor).join());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package net.talaatharb.survey.analytics;
+
+import net.talaatharb.survey.dto.SurveyResultsDeltaDto;
+import net.talaatharb.survey.dto.SurveyResultsDeltaDto.QuestionDelta;
+import net.talaatharb.survey.ingestion.SubmissionFixtures;
+import net.talaatharb.survey.ingestion.SubmissionRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static net.talaatharb.survey.ingestion.SubmissionFixtures.numericAnswer;
+import static net.talaatharb.survey.ingestion.SubmissionFixtures.selectionAnswer;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LiveResultsBroadcasterTest {
+
+    private static final UUID SURVEY_ID = UUID.randomUUID();
+    private static final UUID CHOICE_ID = UUID.randomUUID();
+    private static final UUID SCALE_ID = UUID.randomUUID();
+    private static final UUID OPTION_ID = UUID.randomUUID();
+
+    @Test
+    void foldsSubmissionsIntoOneDelta() {
+        SurveyAggregates aggregates = new SurveyAggregates(SURVEY_ID);
+        aggregates.record(submission(7));
+        aggregates.record(submission(9));
+        aggregates.setSequence(4);
+
+        SurveyResultsDeltaDto delta = LiveResultsBroadcaster.toDelta(aggregates);
+
+        assertEquals(4, delta.getSequence());
+        assertEquals(2, delta.getNewSubmissions());
+        assertEquals(1, delta.getSubmissionsOverTime().size());
+        assertEquals(2, delta.getSubmissionsOverTime().getFirst().getCount());
+        QuestionDelta choice = question(delta, CHOICE_ID);
+        assertEquals(2, choice.getNewResponses());
+        assertEquals(2, choice.getOptionCounts().getFirst().getCount());
+        assertNull(choice.getScaleDistribution());
+        QuestionDelta scale = question(delta, SCALE_ID);
+        assertEquals(Map.of(7, 1L, 9, 1L), scale.getScaleDistribution());
+        assertNull(scale.getOptionCounts());
+    }
+
+    private static QuestionDelta question(SurveyResultsDeltaDto delta, UUID questionId) {
+        return delta.getQuestions().stream()
+                .filter(question -> question.getQuestionId().equals(questionId))
+                .findFirst().orElseThrow();
+    }
+
+    private static SubmissionRecord submission(int score) {
+        return SubmissionFixtures.submission(SURVEY_ID,
+                selectionAnswer(CHOICE_ID, OPTION_ID, "Yes"),
+                numericAnswer(SCALE_ID, score));
+    }
+}
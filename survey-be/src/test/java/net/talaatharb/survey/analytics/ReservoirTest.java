@@ -0,0 +1,49 @@
+package net.talaatharb.survey.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReservoirTest {
+
+    @Test
+    void keepsEverythingWhileUnderCapacity() {
+        Reservoir<Integer> reservoir = new Reservoir<>(5, new Random(1));
+        IntStream.range(0, 3).forEach(reservoir::offer);
+
+        assertEquals(List.of(0, 1, 2), reservoir.getSample());
+    }
+
+    @Test
+    void holdsAtMostItsSizeOfDistinctElements() {
+        Reservoir<Integer> reservoir = new Reservoir<>(10, new Random(7));
+        IntStream.range(0, 100_000).forEach(reservoir::offer);
+
+        assertEquals(10, reservoir.getSample().size());
+        assertEquals(10, reservoir.getSample().stream().distinct().count());
+        assertEquals(100_000, reservoir.getSeen());
+    }
+
+    @Test
+    void samplesUniformly() {
+        Random random = new Random(42);
+        int[] hits = new int[100];
+        int runs = 20_000;
+        for (int run = 0; run < runs; run++) {
+            Reservoir<Integer> reservoir = new Reservoir<>(10, random);
+            IntStream.range(0, hits.length).forEach(reservoir::offer);
+            reservoir.getSample().forEach(element -> hits[element]++);
+        }
+
+        // Every element should be kept in about 10% of the runs
+        double expected = runs * 10.0 / hits.length;
+        for (int count : hits) {
+            assertTrue(Math.abs(count - expected) < expected * 0.15, "Unexpected frequency " + count);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package net.talaatharb.survey.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScaleHistogramTest {
+
+    @Test
+    void medianAveragesTheMiddleAnswersOfAnEvenCount() {
+        ScaleHistogram histogram = ScaleHistogram.of(Map.of(1, 2L, 4, 1L, 5, 1L));
+
+        assertEquals(2.5, histogram.median());
+        assertEquals(4, histogram.getTotal());
+    }
+
+    @Test
+    void matchesStatisticsOfTheExpandedAnswers() {
+        Random random = new Random(42);
+        Map<Integer, Long> distribution = new TreeMap<>();
+        List<Integer> answers = new ArrayList<>();
+        for (int i = 0; i < 1001; i++) {
+            int value = random.nextInt(11);
+            distribution.merge(value, 1L, Long::sum);
+            answers.add(value);
+        }
+        Collections.sort(answers);
+        ScaleHistogram histogram = ScaleHistogram.of(distribution);
+
+        double mean = answers.stream().mapToInt(Integer::intValue).average().orElseThrow();
+        double variance = answers.stream().mapToDouble(value -> (value - mean) * (value - mean)).sum() / answers.size();
+        assertEquals(mean, histogram.mean(), 1e-9);
+        assertEquals(Math.sqrt(variance), histogram.standardDeviation(), 1e-9);
+        assertEquals((double) answers.get(500), histogram.median());
+        assertEquals((double) answers.get(100), histogram.quantile(0.1));
+        assertEquals((double) answers.get(0), histogram.quantile(0));
+        assertEquals((double) answers.get(1000), histogram.quantile(1));
+    }
+
+    @Test
+    void interpolatesBetweenRanks() {
+        ScaleHistogram histogram = ScaleHistogram.of(Map.of(0, 1L, 10, 1L));
+
+        assertEquals(2.5, histogram.quantile(0.25));
+        assertEquals(9.0, histogram.quantile(0.9), 1e-9);
+    }
+
+    @Test
+    void countsAnswersInBuckets() {
+        ScaleHistogram histogram = ScaleHistogram.of(Map.of(3, 2L, 7, 4L, 9, 5L, 10, 1L));
+
+        assertEquals(2, histogram.countBetween(0, 6));
+        assertEquals(4, histogram.countBetween(7, 8));
+        assertEquals(6, histogram.countBetween(9, 10));
+    }
+
+    @Test
+    void emptyHistogramHasNoStatistics() {
+        ScaleHistogram histogram = ScaleHistogram.of(Map.of(5, 0L));
+
+        assertTrue(histogram.isEmpty());
+        assertNull(histogram.mean());
+        assertNull(histogram.median());
+        assertNull(histogram.standardDeviation());
+    }
+}
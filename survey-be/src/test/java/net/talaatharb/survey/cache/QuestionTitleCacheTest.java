@@ -0,0 +1,67 @@
+package net.talaatharb.survey.cache;
+
+import net.talaatharb.survey.repository.QuestionRepository;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class QuestionTitleCacheTest {
+
+    private static final UUID QUESTION_ID = UUID.randomUUID();
+
+    private final List<String> titles = new ArrayList<>(List.of("Old title"));
+    private final AtomicInteger queries = new AtomicInteger();
+    private Runnable duringQuery = () -> { };
+
+    private final QuestionTitleCache cache = new QuestionTitleCache(null, null, questionRepository());
+
+    @Test
+    void servesBankTitlesFromTheCacheUntilEvicted() {
+        assertEquals(Map.of(QUESTION_ID, "Old title"), cache.getBankTitles(List.of(QUESTION_ID)));
+        assertEquals(Map.of(QUESTION_ID, "Old title"), cache.getBankTitles(List.of(QUESTION_ID)));
+        assertEquals(1, queries.get());
+
+        titles.set(0, "New title");
+        cache.evict(QUESTION_ID);
+        assertEquals(Map.of(QUESTION_ID, "New title"), cache.getBankTitles(List.of(QUESTION_ID)));
+        assertEquals(2, queries.get());
+    }
+
+    @Test
+    void doesNotKeepATitleLoadedWhileTheQuestionChanged() {
+        // The question is renamed and evicted after the query read the old title
+        duringQuery = () -> {
+            duringQuery = () -> { };
+            titles.set(0, "New title");
+            cache.evict(QUESTION_ID);
+        };
+        assertEquals(Map.of(QUESTION_ID, "Old title"), cache.getBankTitles(List.of(QUESTION_ID)));
+
+        assertEquals(Map.of(QUESTION_ID, "New title"), cache.getBankTitles(List.of(QUESTION_ID)));
+        assertEquals(Map.of(QUESTION_ID, "New title"), cache.getBankTitles(List.of(QUESTION_ID)));
+        assertEquals(2, queries.get());
+    }
+
+    /**
+     * A question repository that only answers title lookups, from {@link #titles}.
+     */
+    private QuestionRepository questionRepository() {
+        return (QuestionRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{QuestionRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("findTitlesByIdIn")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    queries.incrementAndGet();
+                    List<Object[]> rows = List.<Object[]>of(new Object[]{QUESTION_ID, titles.getFirst()});
+                    duringQuery.run();
+                    return rows;
+                });
+    }
+}
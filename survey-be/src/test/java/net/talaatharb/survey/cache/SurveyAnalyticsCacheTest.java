@@ -0,0 +1,132 @@
+package net.talaatharb.survey.cache;
+
+import net.talaatharb.survey.analytics.AnalyticsProperties;
+import net.talaatharb.survey.dto.SurveyAnalyticsDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SurveyAnalyticsCacheTest {
+
+    private static final UUID SURVEY_ID = UUID.randomUUID();
+
+    private final AtomicInteger computations = new AtomicInteger();
+
+    private SurveyAnalyticsCache cache;
+
+    @BeforeEach
+    void setUp() {
+        AnalyticsProperties properties = new AnalyticsProperties();
+        properties.getCache().setTtl(Duration.ofMinutes(1));
+        cache = new SurveyAnalyticsCache(properties);
+        cache.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.stop();
+    }
+
+    @Test
+    void concurrentRequestsShareOneComputation() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<SurveyAnalyticsDto> slow = () -> {
+            computations.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return analytics(1);
+        };
+
+        ExecutorService requests = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<SurveyAnalyticsDto>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(requests.submit(() -> cache.get(SURVEY_ID, 1, slow)));
+            }
+            release.countDown();
+            SurveyAnalyticsDto first = results.getFirst().get(5, TimeUnit.SECONDS);
+            for (Future<SurveyAnalyticsDto> result : results) {
+                assertSame(first, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            requests.shutdownNow();
+        }
+        assertEquals(1, computations.get());
+    }
+
+    @Test
+    void newResponsesServeStaleAnalyticsWhileRefreshing() throws Exception {
+        SurveyAnalyticsDto initial = cache.get(SURVEY_ID, 1, () -> analytics(1));
+        assertSame(initial, cache.get(SURVEY_ID, 1, () -> analytics(99)));
+
+        CountDownLatch refreshed = new CountDownLatch(1);
+        SurveyAnalyticsDto stale = cache.get(SURVEY_ID, 2, () -> {
+            refreshed.countDown();
+            return analytics(2);
+        });
+
+        assertSame(initial, stale);
+        assertTrue(refreshed.await(5, TimeUnit.SECONDS));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (cache.get(SURVEY_ID, 2, () -> analytics(99)).getTotalSubmissions() != 2) {
+            assertTrue(System.nanoTime() < deadline, "Refresh did not complete");
+            Thread.sleep(10);
+        }
+
+        cache.evict(SURVEY_ID);
+        assertEquals(3, cache.get(SURVEY_ID, 2, () -> analytics(3)).getTotalSubmissions());
+    }
+
+    @Test
+    void refreshDoesNotServeResultsComputedBeforeIt() throws Exception {
+        cache.get(SURVEY_ID, 1, () -> analytics(1));
+        assertEquals(2, cache.refresh(SURVEY_ID, 1, () -> analytics(2)).getTotalSubmissions());
+
+        cache.evict(SURVEY_ID);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService requests = Executors.newSingleThreadExecutor();
+        try {
+            Future<SurveyAnalyticsDto> earlier = requests.submit(() -> cache.get(SURVEY_ID, 1, () -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return analytics(3);
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            assertEquals(4, cache.refresh(SURVEY_ID, 1, () -> analytics(4)).getTotalSubmissions());
+            release.countDown();
+            assertEquals(3, earlier.get(5, TimeUnit.SECONDS).getTotalSubmissions());
+        } finally {
+            requests.shutdownNow();
+        }
+        assertEquals(4, cache.get(SURVEY_ID, 1, () -> analytics(99)).getTotalSubmissions());
+    }
+
+    private static SurveyAnalyticsDto analytics(long totalSubmissions) {
+        return SurveyAnalyticsDto.builder().surveyId(SURVEY_ID).totalSubmissions(totalSubmissions).build();
+    }
+}
@@ -0,0 +1,118 @@
+package net.talaatharb.survey.cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import net.talaatharb.survey.dto.CreateSurveyQuestionLinkDto;
+import net.talaatharb.survey.dto.QuestionDto;
+import net.talaatharb.survey.dto.QuestionOptionDto;
+import net.talaatharb.survey.dto.QuestionResponseDto;
+import net.talaatharb.survey.dto.SubmitSurveyResponseDto;
+import net.talaatharb.survey.dto.SurveyDto;
+import net.talaatharb.survey.entity.QuestionType;
+import net.talaatharb.survey.exception.ValidationException;
+import net.talaatharb.survey.service.QuestionService;
+import net.talaatharb.survey.service.ResponseService;
+import net.talaatharb.survey.service.SurveyService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:survey-schema-cache;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class SurveySchemaCacheTest {
+
+    @Autowired
+    private SurveyService surveyService;
+
+    @Autowired
+    private QuestionService questionService;
+
+    @Autowired
+    private ResponseService responseService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void warmSubmissionsRunNoSchemaQueries() {
+        QuestionDto question = createQuestion("Pick one", "A", "B");
+        SurveyDto survey = publish("Warm", question.getId());
+        UUID optionId = question.getOptions().getFirst().getId();
+
+        statistics.clear();
+        submit(survey.getId(), question.getId(), optionId);
+        assertTrue(statistics.getPrepareStatementCount() > 0, "Expected the first submission to load the schema");
+
+        statistics.clear();
+        assertNotNull(submit(survey.getId(), question.getId(), optionId));
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void republishingValidatesAgainstTheNewDefinition() {
+        QuestionDto question = createQuestion("Pick a colour", "Red", "Green");
+        SurveyDto survey = publish("Republish", question.getId());
+        submit(survey.getId(), question.getId(), question.getOptions().getFirst().getId());
+
+        List<QuestionOptionDto> options = new ArrayList<>(question.getOptions());
+        options.add(QuestionOptionDto.builder().label("Blue").build());
+        question.setOptions(options);
+        UUID blue = questionService.updateQuestion(question.getId(), question).getOptions().getLast().getId();
+        // Still served from the published snapshot, which has no such option
+        assertThrows(ValidationException.class, () -> submit(survey.getId(), question.getId(), blue));
+
+        surveyService.updateSurvey(survey.getId(), survey);
+        assertNotNull(submit(survey.getId(), question.getId(), blue));
+    }
+
+    private QuestionDto createQuestion(String title, String... labels) {
+        return questionService.createQuestion(QuestionDto.builder()
+                .title(title)
+                .type(QuestionType.MULTIPLE_CHOICE)
+                .options(Arrays.stream(labels)
+                        .map(label -> QuestionOptionDto.builder().label(label).build())
+                        .toList())
+                .build());
+    }
+
+    private SurveyDto publish(String title, UUID questionId) {
+        SurveyDto survey = surveyService.createSurvey(SurveyDto.builder().title(title).build());
+        surveyService.addQuestionToSurvey(survey.getId(), CreateSurveyQuestionLinkDto.builder()
+                .questionId(questionId)
+                .build());
+        survey.setPublished(true);
+        return surveyService.updateSurvey(survey.getId(), survey);
+    }
+
+    private UUID submit(UUID surveyId, UUID questionId, UUID optionId) {
+        return responseService.submitResponse(surveyId, SubmitSurveyResponseDto.builder()
+                .surveyId(surveyId)
+                .answers(List.of(QuestionResponseDto.builder()
+                        .questionId(questionId)
+                        .selectedOptionIds(List.of(optionId))
+                        .build()))
+                .build(), "127.0.0.1").getId();
+    }
+}
@@ -0,0 +1,82 @@
+package net.talaatharb.survey.controller;
+
+import net.talaatharb.survey.dto.CreateSurveyQuestionLinkDto;
+import net.talaatharb.survey.dto.QuestionDto;
+import net.talaatharb.survey.dto.SurveyDto;
+import net.talaatharb.survey.entity.QuestionType;
+import net.talaatharb.survey.service.QuestionService;
+import net.talaatharb.survey.service.SurveyService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:public-survey-controller;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureMockMvc
+class PublicSurveyControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SurveyService surveyService;
+
+    @Autowired
+    private QuestionService questionService;
+
+    @Test
+    void answersNotModifiedUntilTheSurveyIsPublishedAgain() throws Exception {
+        SurveyDto survey = publish("Checkout");
+        UUID surveyId = survey.getId();
+
+        String etag = mockMvc.perform(get("/v1/public/surveys/{surveyId}", surveyId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Checkout"))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/v1/public/surveys/{surveyId}", surveyId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().bytes(new byte[0]));
+
+        survey.setTitle("Checkout experience");
+        surveyService.updateSurvey(surveyId, survey);
+
+        String republished = mockMvc.perform(get("/v1/public/surveys/{surveyId}", surveyId)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Checkout experience"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, republished);
+        mockMvc.perform(get("/v1/public/surveys/{surveyId}", surveyId).header(HttpHeaders.IF_NONE_MATCH, republished))
+                .andExpect(status().isNotModified());
+    }
+
+    private SurveyDto publish(String title) {
+        QuestionDto question = questionService.createQuestion(QuestionDto.builder()
+                .title(title + " feedback")
+                .type(QuestionType.SHORT_ANSWER)
+                .build());
+        SurveyDto survey = surveyService.createSurvey(SurveyDto.builder().title(title).build());
+        surveyService.addQuestionToSurvey(survey.getId(), CreateSurveyQuestionLinkDto.builder()
+                .questionId(question.getId())
+                .build());
+        survey.setPublished(true);
+        return surveyService.updateSurvey(survey.getId(), survey);
+    }
+}
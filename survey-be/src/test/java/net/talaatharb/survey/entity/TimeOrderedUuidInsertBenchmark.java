@@ -0,0 +1,85 @@
+package net.talaatharb.survey.entity;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Compares insert throughput and on-disk size of a response-shaped table keyed by random and by
+ * time-ordered UUIDs. Not part of the test suite, since surefire only runs {@code *Test} classes by
+ * default; run with {@code mvn test -Dtest=TimeOrderedUuidInsertBenchmark [-Dbenchmark.rows=2000000]}.
+ */
+class TimeOrderedUuidInsertBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(TimeOrderedUuidInsertBenchmark.class);
+
+    private static final int ANSWERS_PER_RESPONSE = 5;
+    private static final int BATCH_SIZE = 1_000;
+
+    @Test
+    void insertsAgainstRandomUuids(@TempDir Path directory) throws Exception {
+        int rows = Integer.getInteger("benchmark.rows", 2_000_000);
+
+        Result random = insert(directory.resolve("random"), rows, UUID::randomUUID);
+        Result timeOrdered = insert(directory.resolve("time-ordered"), rows, TimeOrderedUuidGenerator::nextUuid);
+
+        log.info(String.format("%-14s %12s %12s %14s", "ids", "rows", "rows/s", "disk (KiB)"));
+        log.info(String.format("%-14s %12d %12.0f %14d", "random v4", rows, random.rowsPerSecond(), random.diskKib()));
+        log.info(String.format("%-14s %12d %12.0f %14d", "time-ordered", rows, timeOrdered.rowsPerSecond(), timeOrdered.diskKib()));
+    }
+
+    private static Result insert(Path directory, int rows, Supplier<UUID> ids) throws Exception {
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:file:" + directory.resolve("bench"), "sa", "")) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE question_responses (id UUID PRIMARY KEY, " +
+                        "survey_response_id UUID NOT NULL, text_answer VARCHAR(64))");
+                statement.execute("CREATE INDEX idx_question_responses_survey_response " +
+                        "ON question_responses (survey_response_id)");
+            }
+            connection.setAutoCommit(false);
+
+            long start = System.nanoTime();
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO question_responses (id, survey_response_id, text_answer) VALUES (?, ?, ?)")) {
+                UUID responseId = ids.get();
+                for (int i = 0; i < rows; i++) {
+                    if (i % ANSWERS_PER_RESPONSE == 0) {
+                        responseId = ids.get();
+                    }
+                    insert.setObject(1, ids.get());
+                    insert.setObject(2, responseId);
+                    insert.setString(3, "answer " + i);
+                    insert.addBatch();
+                    if ((i + 1) % BATCH_SIZE == 0) {
+                        insert.executeBatch();
+                        connection.commit();
+                    }
+                }
+                insert.executeBatch();
+                connection.commit();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CHECKPOINT SYNC");
+                try (ResultSet result = statement.executeQuery("SELECT DISK_SPACE_USED('QUESTION_RESPONSES')")) {
+                    result.next();
+                    return new Result(rows / seconds, result.getLong(1) / 1024);
+                }
+            }
+        }
+    }
+
+    private record Result(double rowsPerSecond, long diskKib) {
+    }
+}
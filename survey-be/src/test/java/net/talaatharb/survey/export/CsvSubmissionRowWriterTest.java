@@ -0,0 +1,42 @@
+package net.talaatharb.survey.export;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CsvSubmissionRowWriterTest {
+
+    @Test
+    void writesOneQuotedColumnPerQuestion() throws Exception {
+        UUID choice = UUID.randomUUID();
+        UUID scale = UUID.randomUUID();
+        UUID text = UUID.randomUUID();
+        UUID unanswered = UUID.randomUUID();
+        StringWriter output = new StringWriter();
+        CsvSubmissionRowWriter writer = new CsvSubmissionRowWriter(output, List.of(
+                new ExportColumn(choice, "Colors"),
+                new ExportColumn(scale, "Rate, please"),
+                new ExportColumn(text, "Why"),
+                new ExportColumn(unanswered, "Skipped")));
+
+        UUID submissionId = UUID.randomUUID();
+        ExportedSubmission submission = new ExportedSubmission(
+                submissionId, LocalDateTime.of(2026, 1, 2, 3, 4, 5), 2, null);
+        submission.addSelectedLabel(choice, "Red");
+        submission.addSelectedLabel(choice, "Blue");
+        submission.putAnswer(scale, 7);
+        submission.putAnswer(text, "Said \"hi\"\nthen left");
+
+        writer.writeHeader();
+        writer.write(submission);
+
+        assertEquals("submission_id,submitted_at,snapshot_version,submitter_id,Colors,\"Rate, please\",Why,Skipped\r\n"
+                + submissionId + ",2026-01-02T03:04:05,2,,Red; Blue,7,\"Said \"\"hi\"\"\nthen left\",\r\n",
+                output.toString());
+    }
+}
@@ -0,0 +1,53 @@
+package net.talaatharb.survey.ingestion;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static net.talaatharb.survey.ingestion.SubmissionFixtures.selectionAnswer;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:backfill;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "survey.analytics.aggregates.enabled=false"
+})
+class ResponseDenormalizationBackfillTest {
+
+    @Autowired
+    private SubmissionBatchWriter batchWriter;
+
+    @Autowired
+    private ResponseDenormalizationBackfill backfill;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void fillsDenormalizedColumnsOfLegacyRows() {
+        UUID surveyId = UUID.randomUUID();
+        UUID questionId = UUID.randomUUID();
+        batchWriter.write(List.of(submission(surveyId, questionId), submission(surveyId, questionId)));
+        jdbcTemplate.update("UPDATE question_responses SET survey_id = NULL");
+        jdbcTemplate.update("UPDATE question_response_selected_options SET survey_id = NULL, question_id = NULL");
+        jdbcTemplate.update("UPDATE survey_responses SET answer_count = NULL");
+
+        backfill.backfill();
+
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM question_responses WHERE survey_id = ?", Long.class, surveyId));
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM question_response_selected_options WHERE survey_id = ? AND question_id = ?",
+                Long.class, surveyId, questionId));
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM survey_responses WHERE survey_id = ? AND answer_count = 1", Long.class, surveyId));
+    }
+
+    private static SubmissionRecord submission(UUID surveyId, UUID questionId) {
+        return SubmissionFixtures.submission(surveyId, selectionAnswer(questionId, UUID.randomUUID(), "Option"));
+    }
+}
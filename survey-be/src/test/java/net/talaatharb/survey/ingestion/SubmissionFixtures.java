@@ -0,0 +1,66 @@
+package net.talaatharb.survey.ingestion;
+
+import net.talaatharb.survey.entity.AnswerType;
+import net.talaatharb.survey.ingestion.SubmissionRecord.AnswerRecord;
+import net.talaatharb.survey.ingestion.SubmissionRecord.SelectedOptionRecord;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Submissions for tests, built the way the submission service builds them for each answer type.
+ */
+public final class SubmissionFixtures {
+
+    /**
+     * Submission time of every fixture, so daily counts fall on the same day.
+     */
+    public static final LocalDateTime SUBMITTED_AT = LocalDateTime.of(2026, 10, 17, 12, 0);
+
+    private SubmissionFixtures() {
+    }
+
+    public static SubmissionRecord submission(UUID surveyId, AnswerRecord... answers) {
+        return SubmissionRecord.builder()
+                .id(UUID.randomUUID())
+                .surveyId(surveyId)
+                .submittedAt(SUBMITTED_AT)
+                .submitterIp("127.0.0.1")
+                .answers(List.of(answers))
+                .build();
+    }
+
+    public static AnswerRecord textAnswer(UUID questionId, String text) {
+        return AnswerRecord.builder()
+                .id(UUID.randomUUID())
+                .questionId(questionId)
+                .answerType(AnswerType.TEXT)
+                .textAnswer(text)
+                .selectedOptions(List.of())
+                .build();
+    }
+
+    public static AnswerRecord numericAnswer(UUID questionId, int value) {
+        return AnswerRecord.builder()
+                .id(UUID.randomUUID())
+                .questionId(questionId)
+                .answerType(AnswerType.NUMERIC)
+                .numericAnswer(value)
+                .selectedOptions(List.of())
+                .build();
+    }
+
+    public static AnswerRecord selectionAnswer(UUID questionId, UUID optionId, String label) {
+        return AnswerRecord.builder()
+                .id(UUID.randomUUID())
+                .questionId(questionId)
+                .answerType(AnswerType.SELECTION)
+                .selectedOptions(List.of(SelectedOptionRecord.builder()
+                        .id(UUID.randomUUID())
+                        .optionId(optionId)
+                        .label(label)
+                        .build()))
+                .build();
+    }
+}
@@ -0,0 +1,207 @@
+package net.talaatharb.survey.ingestion;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.util.unit.DataSize;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SubmissionIngestionPipelineTest {
+
+    @TempDir
+    Path directory;
+
+    private final RecordingWriter writer = new RecordingWriter();
+
+    private IngestionProperties properties;
+    private SubmissionIngestionPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        properties = new IngestionProperties();
+        properties.setMode(IngestionMode.WRITE_BEHIND);
+        properties.setWriterThreads(1);
+        properties.setBatchSize(10);
+        properties.setLinger(Duration.ofMillis(500));
+        properties.setShutdownTimeout(Duration.ofSeconds(10));
+        properties.getRetry().setInitialBackoff(Duration.ofMillis(10));
+        properties.getRetry().setMaxBackoff(Duration.ofMillis(20));
+        properties.setDeadLetterDirectory(directory);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (pipeline != null) {
+            pipeline.stop();
+        }
+    }
+
+    @Test
+    void groupsQueuedSubmissionsIntoBatches() {
+        start();
+        for (int i = 0; i < 25; i++) {
+            pipeline.submit(submission());
+        }
+        pipeline.stop();
+
+        assertEquals(25, writer.written().size());
+        assertEquals(List.of(10, 10, 5), writer.batchSizes());
+    }
+
+    @Test
+    void lingersForMoreSubmissionsBeforeWriting() throws Exception {
+        start();
+        pipeline.submit(submission());
+        Thread.sleep(100);
+        pipeline.submit(submission());
+        pipeline.stop();
+
+        assertEquals(List.of(2), writer.batchSizes());
+    }
+
+    @Test
+    void drainsTheQueueOnShutdown() {
+        properties.setBatchSize(1);
+        writer.delay = Duration.ofMillis(20);
+        start();
+        for (int i = 0; i < 20; i++) {
+            pipeline.submit(submission());
+        }
+        pipeline.stop();
+
+        assertEquals(20, writer.written().size());
+    }
+
+    @Test
+    void retriesBatchesWhileTheDatabaseIsUnavailable() {
+        writer.unavailableFor.set(3);
+        start();
+        List<SubmissionRecord> submissions = List.of(submission(), submission(), submission());
+        submissions.forEach(pipeline::submit);
+        pipeline.stop();
+
+        assertEquals(Set.copyOf(submissions), Set.copyOf(writer.written()));
+        assertFalse(Files.exists(directory.resolve(SubmissionDeadLetterFile.FILE_NAME)));
+    }
+
+    @Test
+    void parksRejectedSubmissionsInTheDeadLetterFile() throws Exception {
+        SubmissionRecord rejected = submission();
+        writer.rejected.add(rejected.getId());
+        start();
+        List<SubmissionRecord> submissions = List.of(submission(), rejected, submission());
+        submissions.forEach(pipeline::submit);
+        pipeline.stop();
+
+        assertEquals(List.of(submissions.get(0), submissions.get(2)), writer.written());
+        List<String> deadLetters = Files.readAllLines(directory.resolve(SubmissionDeadLetterFile.FILE_NAME));
+        assertEquals(1, deadLetters.size());
+        assertTrue(deadLetters.getFirst().contains(rejected.getId().toString()));
+    }
+
+    @Test
+    void keepsTheJournalWhenReplayCannotWrite() throws Exception {
+        Path journalDirectory = directory.resolve("journal");
+        properties.getJournal().setEnabled(true);
+        properties.getJournal().setDirectory(journalDirectory);
+        properties.getJournal().setSegmentSize(DataSize.ofKilobytes(64));
+        properties.getRetry().setReplayTimeout(Duration.ofMillis(100));
+        List<SubmissionRecord> submissions = List.of(submission(), submission());
+        try (SubmissionJournal journal = SubmissionJournal.open(journalDirectory, 64 * 1024, new ArrayList<>())) {
+            for (SubmissionRecord submission : submissions) {
+                journal.awaitDurable(journal.append(submission));
+            }
+        }
+
+        writer.unavailableFor.set(Integer.MAX_VALUE);
+        assertThrows(IllegalStateException.class, this::start);
+        assertTrue(writer.written().isEmpty());
+
+        writer.unavailableFor.set(0);
+        start();
+        assertEquals(submissions, writer.written());
+    }
+
+    private void start() {
+        pipeline = new SubmissionIngestionPipeline(properties, writer, new SimpleMeterRegistry(),
+                JsonMapper.builder().build());
+        pipeline.start();
+    }
+
+    private static SubmissionRecord submission() {
+        return SubmissionFixtures.submission(UUID.randomUUID());
+    }
+
+    /**
+     * Records written batches, failing as if the database were down or rejected some submissions.
+     */
+    private static class RecordingWriter extends SubmissionBatchWriter {
+
+        final AtomicInteger unavailableFor = new AtomicInteger();
+        final Set<UUID> rejected = Collections.synchronizedSet(new HashSet<>());
+        volatile Duration delay = Duration.ZERO;
+
+        private final List<List<SubmissionRecord>> batches = Collections.synchronizedList(new ArrayList<>());
+
+        RecordingWriter() {
+            super(null, null);
+        }
+
+        @Override
+        public void write(List<SubmissionRecord> submissions) {
+            if (unavailableFor.getAndUpdate(count -> Math.max(count - 1, 0)) > 0) {
+                throw new CannotCreateTransactionException("Database unavailable");
+            }
+            if (submissions.stream().anyMatch(submission -> rejected.contains(submission.getId()))) {
+                throw new DataIntegrityViolationException("Rejected");
+            }
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            batches.add(List.copyOf(submissions));
+        }
+
+        @Override
+        public void writeMissing(List<SubmissionRecord> submissions) {
+            Set<SubmissionRecord> written = Set.copyOf(written());
+            List<SubmissionRecord> missing = submissions.stream().filter(submission -> !written.contains(submission)).toList();
+            if (!missing.isEmpty()) {
+                write(missing);
+            }
+        }
+
+        List<SubmissionRecord> written() {
+            synchronized (batches) {
+                return batches.stream().flatMap(List::stream).toList();
+            }
+        }
+
+        List<Integer> batchSizes() {
+            synchronized (batches) {
+                return batches.stream().map(List::size).toList();
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package net.talaatharb.survey.ingestion;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static net.talaatharb.survey.ingestion.SubmissionFixtures.numericAnswer;
+import static net.talaatharb.survey.ingestion.SubmissionFixtures.selectionAnswer;
+import static net.talaatharb.survey.ingestion.SubmissionFixtures.textAnswer;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SubmissionJournalTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysSubmissionsPastTheCheckpoint() throws Exception {
+        List<SubmissionRecord> submissions = new ArrayList<>();
+        try (SubmissionJournal journal = SubmissionJournal.open(directory, SEGMENT_SIZE, new ArrayList<>())) {
+            for (int i = 0; i < 5; i++) {
+                SubmissionRecord submission = submission("answer " + i);
+                submissions.add(submission);
+                journal.awaitDurable(journal.append(submission));
+            }
+            journal.markCommitted(1);
+            journal.markCommitted(2);
+            journal.markCommitted(4);
+        }
+
+        List<PendingSubmission> pending = new ArrayList<>();
+        try (SubmissionJournal ignored = SubmissionJournal.open(directory, SEGMENT_SIZE, pending)) {
+            assertEquals(List.of(3L, 4L, 5L), pending.stream().map(PendingSubmission::sequence).toList());
+            assertEquals(submissions.subList(2, 5), pending.stream().map(PendingSubmission::submission).toList());
+        }
+    }
+
+    @Test
+    void deletesSegmentsBelowTheCheckpoint() throws Exception {
+        try (SubmissionJournal journal = SubmissionJournal.open(directory, SEGMENT_SIZE, new ArrayList<>())) {
+            long last = 0;
+            for (int i = 0; i < 100; i++) {
+                last = journal.append(submission("x".repeat(100)));
+            }
+            journal.awaitDurable(last);
+            for (long sequence = 1; sequence <= last; sequence++) {
+                journal.markCommitted(sequence);
+            }
+            assertEquals(1, segmentCount());
+            assertEquals(0, journal.getLag());
+        }
+
+        List<PendingSubmission> pending = new ArrayList<>();
+        try (SubmissionJournal journal = SubmissionJournal.open(directory, SEGMENT_SIZE, pending)) {
+            assertEquals(0, pending.size());
+            assertEquals(101, journal.append(submission("next")));
+        }
+    }
+
+    @Test
+    void reopensAfterASegmentWasOpenedButNeverWritten() throws Exception {
+        try (SubmissionJournal journal = SubmissionJournal.open(directory, SEGMENT_SIZE, new ArrayList<>())) {
+            for (int i = 0; i < 3; i++) {
+                journal.awaitDurable(journal.append(submission("answer " + i)));
+            }
+        }
+        // Opening with records to replay starts a fresh segment, left empty when stopping before the next append
+        try (SubmissionJournal ignored = SubmissionJournal.open(directory, SEGMENT_SIZE, new ArrayList<>())) {
+            assertEquals(2, segmentCount());
+        }
+
+        List<PendingSubmission> pending = new ArrayList<>();
+        try (SubmissionJournal journal = SubmissionJournal.open(directory, SEGMENT_SIZE, pending)) {
+            assertEquals(List.of(1L, 2L, 3L), pending.stream().map(PendingSubmission::sequence).toList());
+            assertEquals(4, journal.append(submission("next")));
+        }
+    }
+
+    private long segmentCount() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith("segment-")).count();
+        }
+    }
+
+    private static SubmissionRecord submission(String text) {
+        return SubmissionFixtures.submission(UUID.randomUUID(),
+                textAnswer(UUID.randomUUID(), text),
+                numericAnswer(UUID.randomUUID(), 7),
+                selectionAnswer(UUID.randomUUID(), UUID.randomUUID(), "Option"));
+    }
+}
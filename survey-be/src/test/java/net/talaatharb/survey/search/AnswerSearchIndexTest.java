@@ -0,0 +1,157 @@
+package net.talaatharb.survey.search;
+
+import net.talaatharb.survey.event.SubmissionsRecordedEvent;
+import net.talaatharb.survey.ingestion.SubmissionFixtures;
+import net.talaatharb.survey.ingestion.SubmissionRecord;
+import net.talaatharb.survey.search.AnswerSearchIndex.SubmissionHit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static net.talaatharb.survey.ingestion.SubmissionFixtures.textAnswer;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnswerSearchIndexTest {
+
+    private static final UUID SURVEY_ID = UUID.randomUUID();
+    private static final UUID QUESTION_ID = UUID.randomUUID();
+
+    @TempDir
+    private Path directory;
+
+    private AnswerSearchProperties properties;
+
+    private AnswerSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AnswerSearchProperties();
+        properties.setDirectory(directory);
+        index = new AnswerSearchIndex(null, properties);
+        index.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        index.stop();
+    }
+
+    @Test
+    void findsSubmissionsWithHighlightedAnswers() throws Exception {
+        SubmissionRecord complaint = submission("The <b>widget</b> broke after a day");
+        record(complaint, submission("Great service overall"));
+        index.flush();
+
+        List<SubmissionHit> hits = index.search(SURVEY_ID, "widget", 10);
+
+        assertEquals(1, hits.size());
+        assertEquals(complaint.getId(), hits.getFirst().submissionId());
+        assertEquals(QUESTION_ID, hits.getFirst().answers().getFirst().questionId());
+        assertEquals("The &lt;b&gt;<mark>widget</mark>&lt;&#x2F;b&gt; broke after a day",
+                hits.getFirst().answers().getFirst().highlight());
+    }
+
+    @Test
+    void indexingAnAnswerTwiceReplacesIt() throws Exception {
+        SubmissionRecord submission = submission("Delivery was late");
+        record(submission);
+        record(submission);
+        index.flush();
+
+        assertEquals(1, index.search(SURVEY_ID, "late", 10).size());
+        assertTrue(index.search(SURVEY_ID, "late -delivery", 10).isEmpty());
+        assertTrue(index.search(UUID.randomUUID(), "late", 10).isEmpty());
+    }
+
+    @Test
+    void closesIdleIndexesAndReopensThemOnSearch() throws Exception {
+        SubmissionRecord submission = submission("Support never called back");
+        record(submission);
+        index.flush();
+        assertEquals(1, index.openIndexCount());
+
+        index.closeIdle();
+        assertEquals(1, index.openIndexCount());
+
+        properties.setIdleTimeout(Duration.ZERO);
+        index.closeIdle();
+        assertEquals(0, index.openIndexCount());
+        assertEquals(submission.getId(), index.search(SURVEY_ID, "support", 10).getFirst().submissionId());
+        assertEquals(1, index.openIndexCount());
+    }
+
+    @Test
+    void closesTheLeastRecentlyUsedIndexesOverTheCap() throws Exception {
+        UUID otherSurveyId = UUID.randomUUID();
+        SubmissionRecord other = submission(otherSurveyId, "Prices went up again");
+        record(submission("Prices are fair"));
+        index.flush();
+        record(other);
+        index.flush();
+
+        properties.setMaxOpenIndexes(1);
+        index.closeIdle();
+
+        assertEquals(1, index.openIndexCount());
+        assertEquals(other.getId(), index.search(otherSurveyId, "prices", 10).getFirst().submissionId());
+        assertEquals(1, index.search(SURVEY_ID, "prices", 10).size());
+    }
+
+    @Test
+    void indexesSurveysAnsweredBeforeAnswersWereIndexed() throws Exception {
+        UUID indexedSurveyId = UUID.randomUUID();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(
+                new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1"));
+        jdbcTemplate.execute("CREATE TABLE surveys (id UUID PRIMARY KEY)");
+        jdbcTemplate.execute("CREATE TABLE question_responses (id UUID PRIMARY KEY, survey_response_id UUID, " +
+                "survey_id UUID, question_id UUID, answer_type VARCHAR(20), text_answer VARCHAR(2000))");
+        UUID submissionId = UUID.randomUUID();
+        for (UUID surveyId : List.of(SURVEY_ID, indexedSurveyId)) {
+            jdbcTemplate.update("INSERT INTO surveys (id) VALUES (?)", surveyId);
+            jdbcTemplate.update("INSERT INTO question_responses VALUES (?, ?, ?, ?, 'TEXT', 'Checkout kept timing out')",
+                    UUID.randomUUID(), submissionId, surveyId, QUESTION_ID);
+        }
+        AnswerSearchProperties properties = new AnswerSearchProperties();
+        properties.setDirectory(directory.resolve("existing"));
+        Files.createDirectories(properties.getDirectory().resolve(indexedSurveyId.toString()));
+        AnswerSearchIndex existing = new AnswerSearchIndex(jdbcTemplate, properties);
+        existing.start();
+        try {
+            existing.indexUnindexedSurveys();
+
+            assertFalse(existing.isIndexing(indexedSurveyId));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (existing.isIndexing(SURVEY_ID) && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertFalse(existing.isIndexing(SURVEY_ID));
+            assertEquals(submissionId, existing.search(SURVEY_ID, "timing", 10).getFirst().submissionId());
+        } finally {
+            existing.stop();
+        }
+    }
+
+    private void record(SubmissionRecord... submissions) {
+        index.onSubmissionsRecorded(new SubmissionsRecordedEvent(List.of(submissions)));
+    }
+
+    private static SubmissionRecord submission(String text) {
+        return submission(SURVEY_ID, text);
+    }
+
+    private static SubmissionRecord submission(UUID surveyId, String text) {
+        return SubmissionFixtures.submission(surveyId, textAnswer(QUESTION_ID, text));
+    }
+}
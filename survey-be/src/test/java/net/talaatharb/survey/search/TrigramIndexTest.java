@@ -0,0 +1,89 @@
+package net.talaatharb.survey.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrigramIndexTest {
+
+    private static final List<String> WORDS = List.of(
+            "How", "satisfied", "are", "you", "with", "our", "product", "service", "Delivery", "rate", "the");
+
+    @Test
+    void findsTheSameQuestionsAsASubstringScan() {
+        Random random = new Random(3);
+        TrigramIndex index = new TrigramIndex();
+        List<IndexedQuestion> questions = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            IndexedQuestion question = question(sentence(random), random.nextBoolean() ? sentence(random) : null);
+            questions.add(question);
+            index.add(question);
+        }
+
+        for (String query : List.of("sat", "product ser", "e", "ou", "delivery", "rate the", "xyz")) {
+            String normalized = IndexedQuestion.normalize(query);
+            Set<UUID> expected = questions.stream()
+                    .filter(question -> question.contains(normalized))
+                    .map(IndexedQuestion::id)
+                    .collect(Collectors.toSet());
+            assertEquals(expected, ids(index.findContaining(normalized)), query);
+        }
+    }
+
+    @Test
+    void replacesAndRemovesQuestions() {
+        TrigramIndex index = new TrigramIndex();
+        IndexedQuestion original = question("Rate our delivery", null);
+        index.add(original);
+        index.add(new IndexedQuestion(original.id(), "Rate our service", "rate our service", "",
+                original.createdAt(), original.updatedAt()));
+
+        assertTrue(index.findContaining("delivery").isEmpty());
+        assertEquals(Set.of(original.id()), ids(index.findContaining("service")));
+
+        index.remove(original.id());
+        assertTrue(index.findContaining("service").isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void reportsQuestionsSharingMostTrigrams() {
+        TrigramIndex index = new TrigramIndex();
+        IndexedQuestion satisfaction = question("Overall satisfaction", null);
+        IndexedQuestion delivery = question("Delivery time", null);
+        index.add(satisfaction);
+        index.add(delivery);
+
+        Map<UUID, Integer> shared = new HashMap<>();
+        String misspelled = "satisfacton";
+        int queryTrigrams = TrigramIndex.trigrams(misspelled).size();
+        index.forEachSharingTrigrams(misspelled, (int) Math.ceil(queryTrigrams * 0.6),
+                (question, count) -> shared.put(question.id(), count));
+
+        assertEquals(Set.of(satisfaction.id()), shared.keySet());
+    }
+
+    private static IndexedQuestion question(String title, String description) {
+        LocalDateTime now = LocalDateTime.now();
+        return IndexedQuestion.of(UUID.randomUUID(), title, description, now, now);
+    }
+
+    private static String sentence(Random random) {
+        return random.ints(4, 0, WORDS.size()).mapToObj(WORDS::get).collect(Collectors.joining(" "));
+    }
+
+    private static Set<UUID> ids(List<IndexedQuestion> questions) {
+        return questions.stream().map(IndexedQuestion::id).collect(Collectors.toSet());
+    }
+}
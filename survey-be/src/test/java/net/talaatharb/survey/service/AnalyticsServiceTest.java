@@ -0,0 +1,192 @@
+package net.talaatharb.survey.service;
+
+import net.talaatharb.survey.dto.CreateSurveyQuestionLinkDto;
+import net.talaatharb.survey.dto.LinearScaleConfigDto;
+import net.talaatharb.survey.dto.QuestionDto;
+import net.talaatharb.survey.dto.QuestionOptionDto;
+import net.talaatharb.survey.dto.QuestionResponseDto;
+import net.talaatharb.survey.dto.SubmitSurveyResponseDto;
+import net.talaatharb.survey.dto.SurveyAnalyticsDto;
+import net.talaatharb.survey.dto.SurveyAnalyticsDto.DailySubmissionCount;
+import net.talaatharb.survey.dto.SurveyAnalyticsDto.QuestionAnalyticsDto;
+import net.talaatharb.survey.dto.SurveyAnalyticsDto.QuestionAnalyticsDto.OptionCount;
+import net.talaatharb.survey.dto.SurveyDto;
+import net.talaatharb.survey.entity.QuestionType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:analytics-service;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class AnalyticsServiceTest {
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private SurveyService surveyService;
+
+    @Autowired
+    private QuestionService questionService;
+
+    @Autowired
+    private ResponseService responseService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void relabellingAnOptionKeepsItsCountsTogether() {
+        QuestionDto question = questionService.createQuestion(QuestionDto.builder()
+                .title("Recommend us?")
+                .type(QuestionType.MULTIPLE_CHOICE)
+                .options(List.of(option(null, "Yse"), option(null, "No")))
+                .build());
+        UUID yes = question.getOptions().get(0).getId();
+        UUID no = question.getOptions().get(1).getId();
+        SurveyDto survey = publish("Relabel", question.getId());
+        submit(survey.getId(), question.getId(), yes);
+        submit(survey.getId(), question.getId(), no);
+
+        questionService.updateQuestion(question.getId(), QuestionDto.builder()
+                .title("Recommend us?")
+                .type(QuestionType.MULTIPLE_CHOICE)
+                .options(List.of(option(yes, "Yes"), option(no, "No")))
+                .build());
+        surveyService.updateSurvey(survey.getId(), survey);
+        submit(survey.getId(), question.getId(), yes);
+
+        List<OptionCount> expected = List.of(
+                OptionCount.builder().optionId(yes).label("Yes").count(2L).percentage(200.0 / 3).build(),
+                OptionCount.builder().optionId(no).label("No").count(1L).percentage(100.0 / 3).build());
+        assertEquals(expected, optionCounts(analyticsService.getSurveyAnalytics(survey.getId(), true)));
+        // Recomputed from the response tables, where the first selection kept its old label
+        analyticsService.rebuildAggregates(survey.getId());
+        assertEquals(expected, optionCounts(analyticsService.getSurveyAnalytics(survey.getId(), true)));
+    }
+
+    @Test
+    void aggregatesChoiceScaleAndTextQuestionsTogether() {
+        QuestionDto colours = questionService.createQuestion(QuestionDto.builder()
+                .title("Favourite colours")
+                .type(QuestionType.CHECKBOXES)
+                .options(List.of(option(null, "Red"), option(null, "Green"), option(null, "Blue")))
+                .build());
+        UUID red = colours.getOptions().get(0).getId();
+        UUID green = colours.getOptions().get(1).getId();
+        UUID blue = colours.getOptions().get(2).getId();
+        QuestionDto rating = questionService.createQuestion(QuestionDto.builder()
+                .title("Rate us")
+                .type(QuestionType.LINEAR_SCALE)
+                .linearScaleConfig(LinearScaleConfigDto.builder().minValue(1).maxValue(5).build())
+                .build());
+        QuestionDto comment = questionService.createQuestion(QuestionDto.builder()
+                .title("Comments")
+                .type(QuestionType.SHORT_ANSWER)
+                .build());
+        SurveyDto survey = publish("Mixed", colours.getId(), rating.getId(), comment.getId());
+
+        List<UUID> earlier = List.of(
+                submit(survey.getId(), choice(colours, red, green), scale(rating, 5), text(comment, "Great")),
+                submit(survey.getId(), choice(colours, red), scale(rating, 3), text(comment, "Fine")));
+        submit(survey.getId(), choice(colours, blue), scale(rating, 4));
+        submit(survey.getId(), choice(colours, red), text(comment, "Meh"));
+
+        SurveyAnalyticsDto analytics = analyticsService.getSurveyAnalytics(survey.getId(), true);
+        assertEquals(4L, analytics.getTotalSubmissions());
+        assertEquals(List.of(DailySubmissionCount.builder().date(LocalDate.now().toString()).count(4L).build()),
+                analytics.getSubmissionsOverTime());
+
+        QuestionAnalyticsDto choices = analytics.getQuestionAnalytics().get(0);
+        assertEquals(4L, choices.getTotalResponses());
+        assertEquals(List.of(
+                OptionCount.builder().optionId(red).label("Red").count(3L).percentage(75.0).build(),
+                OptionCount.builder().optionId(blue).label("Blue").count(1L).percentage(25.0).build(),
+                OptionCount.builder().optionId(green).label("Green").count(1L).percentage(25.0).build()),
+                choices.getOptionCounts());
+
+        QuestionAnalyticsDto scale = analytics.getQuestionAnalytics().get(1);
+        assertEquals(3L, scale.getTotalResponses());
+        assertEquals(Map.of(3, 1L, 4, 1L, 5, 1L), scale.getScaleDistribution());
+        assertEquals(4.0, scale.getScaleAverage());
+        assertEquals(4.0, scale.getScaleMedian());
+        assertNull(scale.getOptionCounts());
+
+        QuestionAnalyticsDto texts = analytics.getQuestionAnalytics().get(2);
+        assertEquals(3L, texts.getTotalResponses());
+        assertEquals(Set.of("Great", "Fine", "Meh"), Set.copyOf(texts.getTextSamples()));
+        assertNull(texts.getScaleDistribution());
+
+        // Move the first two submissions back two days; the series is recomputed on rebuild
+        LocalDate twoDaysAgo = LocalDate.now().minusDays(2);
+        for (UUID responseId : earlier) {
+            jdbcTemplate.update("UPDATE survey_responses SET submitted_at = ? WHERE id = ?",
+                    twoDaysAgo.atTime(12, 0), responseId);
+        }
+        analyticsService.rebuildAggregates(survey.getId());
+        SurveyAnalyticsDto rebuilt = analyticsService.getSurveyAnalytics(survey.getId(), true);
+        assertEquals(List.of(
+                DailySubmissionCount.builder().date(twoDaysAgo.toString()).count(2L).build(),
+                DailySubmissionCount.builder().date(LocalDate.now().toString()).count(2L).build()),
+                rebuilt.getSubmissionsOverTime());
+        assertEquals(analytics.getQuestionAnalytics().get(0), rebuilt.getQuestionAnalytics().get(0));
+        assertEquals(analytics.getQuestionAnalytics().get(1), rebuilt.getQuestionAnalytics().get(1));
+    }
+
+    private SurveyDto publish(String title, UUID... questionIds) {
+        SurveyDto survey = surveyService.createSurvey(SurveyDto.builder().title(title).build());
+        for (UUID questionId : questionIds) {
+            surveyService.addQuestionToSurvey(survey.getId(), CreateSurveyQuestionLinkDto.builder()
+                    .questionId(questionId)
+                    .build());
+        }
+        survey.setPublished(true);
+        return surveyService.updateSurvey(survey.getId(), survey);
+    }
+
+    private void submit(UUID surveyId, UUID questionId, UUID optionId) {
+        submit(surveyId, QuestionResponseDto.builder()
+                .questionId(questionId)
+                .selectedOptionIds(List.of(optionId))
+                .build());
+    }
+
+    private UUID submit(UUID surveyId, QuestionResponseDto... answers) {
+        return responseService.submitResponse(surveyId, SubmitSurveyResponseDto.builder()
+                .surveyId(surveyId)
+                .answers(List.of(answers))
+                .build(), "127.0.0.1").getId();
+    }
+
+    private static QuestionResponseDto choice(QuestionDto question, UUID... optionIds) {
+        return QuestionResponseDto.builder().questionId(question.getId()).selectedOptionIds(List.of(optionIds)).build();
+    }
+
+    private static QuestionResponseDto scale(QuestionDto question, int value) {
+        return QuestionResponseDto.builder().questionId(question.getId()).numericAnswer(value).build();
+    }
+
+    private static QuestionResponseDto text(QuestionDto question, String text) {
+        return QuestionResponseDto.builder().questionId(question.getId()).textAnswer(text).build();
+    }
+
+    private static List<OptionCount> optionCounts(SurveyAnalyticsDto analytics) {
+        return analytics.getQuestionAnalytics().getFirst().getOptionCounts();
+    }
+
+    private static QuestionOptionDto option(UUID id, String label) {
+        return QuestionOptionDto.builder().id(id).label(label).build();
+    }
+}
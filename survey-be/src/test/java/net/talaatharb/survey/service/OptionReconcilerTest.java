@@ -0,0 +1,59 @@
+package net.talaatharb.survey.service;
+
+import net.talaatharb.survey.service.OptionReconciler.Changes;
+import net.talaatharb.survey.service.OptionReconciler.Option;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OptionReconcilerTest {
+
+    private final UUID red = UUID.randomUUID();
+    private final UUID green = UUID.randomUUID();
+    private final UUID blue = UUID.randomUUID();
+
+    private final List<Option> stored = List.of(
+            new Option(red, "Red", 0),
+            new Option(green, "Green", 1),
+            new Option(blue, "Blue", 2));
+
+    @Test
+    void unchangedOptionsNeedNoChanges() {
+        Changes changes = OptionReconciler.reconcile(stored, List.of(
+                new Option(red, "Red", 0),
+                new Option(null, "Green", 1),
+                new Option(null, "Blue", 2)));
+
+        assertTrue(changes.isEmpty());
+        assertTrue(changes.moved().isEmpty());
+    }
+
+    @Test
+    void matchesByIdBeforeLabel() {
+        Changes changes = OptionReconciler.reconcile(stored, List.of(
+                new Option(red, "Crimson", 0),
+                new Option(null, "Red", 1),
+                new Option(blue, "Blue", 2)));
+
+        assertEquals(List.of(green), changes.removed());
+        assertEquals(List.of(new Option(red, "Crimson", 0)), changes.updated());
+        assertEquals(List.of(new Option(null, "Red", 1)), changes.added());
+    }
+
+    @Test
+    void movesReorderedOptions() {
+        Changes changes = OptionReconciler.reconcile(stored, List.of(
+                new Option(null, "Blue", 0),
+                new Option(null, "Yellow", 1),
+                new Option(null, "Red", 2)));
+
+        assertEquals(List.of(green), changes.removed());
+        assertEquals(List.of(blue, red), changes.moved());
+        assertEquals(List.of(new Option(blue, "Blue", 0), new Option(red, "Red", 2)), changes.updated());
+        assertEquals(List.of(new Option(null, "Yellow", 1)), changes.added());
+    }
+}
@@ -0,0 +1,52 @@
+package net.talaatharb.survey.service;
+
+import net.talaatharb.survey.dto.QuestionDto;
+import net.talaatharb.survey.dto.QuestionOptionDto;
+import net.talaatharb.survey.entity.QuestionType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:question-service;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class QuestionServiceTest {
+
+    @Autowired
+    private QuestionService questionService;
+
+    @Test
+    void updateQuestionKeepsTheIdsOfReorderedOptions() {
+        QuestionDto question = questionService.createQuestion(QuestionDto.builder()
+                .title("Color")
+                .type(QuestionType.MULTIPLE_CHOICE)
+                .options(List.of(option("Red"), option("Green"), option("Blue")))
+                .build());
+        List<QuestionOptionDto> created = question.getOptions();
+
+        QuestionDto updated = questionService.updateQuestion(question.getId(), QuestionDto.builder()
+                .title("Colour")
+                .type(QuestionType.MULTIPLE_CHOICE)
+                .options(List.of(
+                        QuestionOptionDto.builder().id(created.get(2).getId()).label("Blue").build(),
+                        option("Yellow"),
+                        option("Red")))
+                .build());
+
+        List<QuestionOptionDto> options = questionService.getQuestionById(question.getId()).getOptions();
+        assertEquals(options, updated.getOptions());
+        assertEquals(List.of("Blue", "Yellow", "Red"), options.stream().map(QuestionOptionDto::getLabel).toList());
+        assertEquals(List.of(0, 1, 2), options.stream().map(QuestionOptionDto::getOrderIndex).toList());
+        assertEquals(created.get(2).getId(), options.get(0).getId());
+        assertEquals(created.get(0).getId(), options.get(2).getId());
+    }
+
+    private static QuestionOptionDto option(String label) {
+        return QuestionOptionDto.builder().label(label).build();
+    }
+}
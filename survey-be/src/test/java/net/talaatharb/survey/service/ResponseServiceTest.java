@@ -0,0 +1,187 @@
+package net.talaatharb.survey.service;
+
+import net.talaatharb.survey.dto.CreateSurveyQuestionLinkDto;
+import net.talaatharb.survey.dto.CursorPageDto;
+import net.talaatharb.survey.dto.QuestionDto;
+import net.talaatharb.survey.dto.QuestionResponseDto;
+import net.talaatharb.survey.dto.SubmitSurveyResponseDto;
+import net.talaatharb.survey.dto.SurveyDto;
+import net.talaatharb.survey.dto.SurveyResponseSummaryDto;
+import net.talaatharb.survey.entity.QuestionType;
+import net.talaatharb.survey.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:response-service;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureMockMvc
+class ResponseServiceTest {
+
+    @Autowired
+    private ResponseService responseService;
+
+    @Autowired
+    private SurveyService surveyService;
+
+    @Autowired
+    private QuestionService questionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void scrollingResponsesSharingATimestampVisitsEachOnce() {
+        UUID surveyId = publishSurvey("Scroll");
+        List<UUID> older = submit(surveyId, 3);
+        List<UUID> newer = submit(surveyId, 5);
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        setSubmittedAt(older, now.minusHours(1));
+        setSubmittedAt(newer, now);
+
+        List<UUID> seen = new ArrayList<>();
+        List<CursorPageDto<SurveyResponseSummaryDto>> pages = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPageDto<SurveyResponseSummaryDto> page = responseService.scrollResponsesForSurvey(surveyId, cursor, 3, false);
+            pages.add(page);
+            page.getContent().forEach(response -> seen.add(response.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(List.of(3, 3, 2), pages.stream().map(page -> page.getContent().size()).toList());
+        assertEquals(8, new HashSet<>(seen).size());
+        assertEquals(Set.copyOf(newer), Set.copyOf(seen.subList(0, 5)));
+        assertEquals(Set.copyOf(older), Set.copyOf(seen.subList(5, 8)));
+        assertTrue(pages.getFirst().getHasNext());
+        assertFalse(pages.getLast().getHasNext());
+        assertNull(pages.getLast().getNextCursor());
+    }
+
+    @Test
+    void aCursorResumesAfterTheSameResponseEveryTime() {
+        UUID surveyId = publishSurvey("Resume");
+        submit(surveyId, 4);
+
+        CursorPageDto<SurveyResponseSummaryDto> first = responseService.scrollResponsesForSurvey(surveyId, null, 2, false);
+        assertNotNull(first.getNextCursor());
+        CursorPageDto<SurveyResponseSummaryDto> second = responseService.scrollResponsesForSurvey(surveyId, first.getNextCursor(), 2, false);
+        submit(surveyId, 1);
+
+        assertEquals(second.getContent(),
+                responseService.scrollResponsesForSurvey(surveyId, first.getNextCursor(), 2, false).getContent());
+        // A page ending exactly on the last response has no next page
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void totalIsOnlyCountedWhenRequested() {
+        UUID surveyId = publishSurvey("Total");
+        submit(surveyId, 3);
+
+        assertNull(responseService.scrollResponsesForSurvey(surveyId, null, 2, false).getTotalElements());
+        assertEquals(3L, responseService.scrollResponsesForSurvey(surveyId, null, 2, true).getTotalElements());
+    }
+
+    @Test
+    void rejectsMalformedCursorsAndPageSizesOutOfBounds() throws Exception {
+        UUID surveyId = publishSurvey("Invalid");
+        submit(surveyId, 1);
+
+        for (String cursor : List.of("not a cursor", encode("yesterday|" + UUID.randomUUID()),
+                encode(LocalDateTime.now().toString()), encode(LocalDateTime.now() + "|not-a-uuid"))) {
+            assertThrows(ValidationException.class,
+                    () -> responseService.scrollResponsesForSurvey(surveyId, cursor, 20, false), cursor);
+        }
+        assertThrows(ValidationException.class, () -> responseService.scrollResponsesForSurvey(surveyId, null, 0, false));
+        assertThrows(ValidationException.class, () -> responseService.scrollResponsesForSurvey(surveyId, null, 501, false));
+        assertEquals(1, responseService.scrollResponsesForSurvey(surveyId, null, 1, false).getContent().size());
+        assertEquals(1, responseService.scrollResponsesForSurvey(surveyId, null, 500, false).getContent().size());
+
+        mockMvc.perform(get("/v1/admin/surveys/{surveyId}/results/submissions/scroll", surveyId)
+                        .param("cursor", "not a cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void rejectsNullSubmissionIds() throws Exception {
+        UUID surveyId = publishSurvey("Batch");
+        UUID responseId = submit(surveyId, 1).getFirst();
+        List<UUID> ids = new ArrayList<>();
+        ids.add(responseId);
+        ids.add(null);
+
+        assertThrows(ValidationException.class, () -> responseService.getResponsesByIds(surveyId, ids));
+        mockMvc.perform(post("/v1/admin/surveys/{surveyId}/results/submissions/batch", surveyId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"" + responseId + "\", null]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private UUID publishSurvey(String title) {
+        QuestionDto question = questionService.createQuestion(QuestionDto.builder()
+                .title(title + " feedback")
+                .type(QuestionType.SHORT_ANSWER)
+                .build());
+        SurveyDto survey = surveyService.createSurvey(SurveyDto.builder().title(title).build());
+        surveyService.addQuestionToSurvey(survey.getId(), CreateSurveyQuestionLinkDto.builder()
+                .questionId(question.getId())
+                .build());
+        survey.setPublished(true);
+        return surveyService.updateSurvey(survey.getId(), survey).getId();
+    }
+
+    private List<UUID> submit(UUID surveyId, int count) {
+        UUID questionId = surveyService.getQuestionLinks(surveyId).getFirst().getQuestionId();
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(responseService.submitResponse(surveyId, SubmitSurveyResponseDto.builder()
+                    .surveyId(surveyId)
+                    .answers(List.of(QuestionResponseDto.builder()
+                            .questionId(questionId)
+                            .textAnswer("Answer " + i)
+                            .build()))
+                    .build(), "127.0.0.1").getId());
+        }
+        return ids;
+    }
+
+    private void setSubmittedAt(List<UUID> responseIds, LocalDateTime submittedAt) {
+        for (UUID responseId : responseIds) {
+            jdbcTemplate.update("UPDATE survey_responses SET submitted_at = ? WHERE id = ?", submittedAt, responseId);
+        }
+    }
+
+    private static String encode(String keyset) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(keyset.getBytes(StandardCharsets.UTF_8));
+    }
+}
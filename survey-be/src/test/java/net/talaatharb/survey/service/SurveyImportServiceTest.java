@@ -0,0 +1,96 @@
+package net.talaatharb.survey.service;
+
+import net.talaatharb.survey.dto.QuestionDto;
+import net.talaatharb.survey.dto.QuestionOptionDto;
+import net.talaatharb.survey.dto.SurveyDto;
+import net.talaatharb.survey.dto.SurveyImportResultDto;
+import net.talaatharb.survey.dto.SurveyQuestionLinkDto;
+import net.talaatharb.survey.entity.QuestionType;
+import net.talaatharb.survey.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:survey-import;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class SurveyImportServiceTest {
+
+    @Autowired
+    private SurveyImportService surveyImportService;
+
+    @Autowired
+    private SurveyService surveyService;
+
+    @Autowired
+    private QuestionService questionService;
+
+    @Test
+    void importsBundleUpdatingExistingQuestionsAndSharingNewOnes() {
+        QuestionDto existing = questionService.createQuestion(QuestionDto.builder()
+                .title("Color")
+                .type(QuestionType.DROPDOWN)
+                .options(List.of(QuestionOptionDto.builder().label("Red").build()))
+                .build());
+        UUID sharedId = UUID.randomUUID();
+
+        SurveyImportResultDto result = surveyImportService.importBundle(json("""
+                [
+                  {"title": "First", "published": true, "questions": [
+                    {"question": {"id": "%1$s", "title": "Favourite color", "type": "DROPDOWN",
+                                  "options": [{"label": "Green"}, {"label": "Blue"}]}},
+                    {"question": {"id": "%2$s", "title": "Why", "type": "PARAGRAPH"}}
+                  ]},
+                  {"title": "Second", "questions": [
+                    {"question": {"id": "%2$s", "title": "Why", "type": "PARAGRAPH"}, "labelOverride": "Why not"}
+                  ]}
+                ]
+                """.formatted(existing.getId(), sharedId)));
+
+        assertEquals(2, result.getImportedSurveys());
+        QuestionDto updated = questionService.getQuestionById(existing.getId());
+        assertEquals("Favourite color", updated.getTitle());
+        assertEquals(List.of("Green", "Blue"), updated.getOptions().stream().map(QuestionOptionDto::getLabel).toList());
+
+        SurveyDto first = surveyService.getSurveyById(result.getSurveyIds().get(0));
+        SurveyDto second = surveyService.getSurveyById(result.getSurveyIds().get(1));
+        assertEquals(1, first.getPublishedVersion());
+        List<UUID> firstQuestions = first.getQuestionLinks().stream().map(SurveyQuestionLinkDto::getQuestionId).toList();
+        UUID created = second.getQuestionLinks().getFirst().getQuestionId();
+        assertEquals(List.of(existing.getId(), created), firstQuestions);
+        assertNotEquals(sharedId, created);
+        assertEquals("Why not", second.getQuestionLinks().getFirst().getLabelOverride());
+    }
+
+    @Test
+    void invalidSurveyImportsNothing() {
+        long before = surveyService.getAllSurveys(Pageable.unpaged()).getTotalElements();
+
+        assertThrows(ValidationException.class, () -> surveyImportService.importBundle(json("""
+                [{"title": "Valid", "questions": []}, {"title": "", "questions": []}]
+                """)));
+        assertThrows(ValidationException.class, () -> surveyImportService.importSurvey(json("""
+                [{"title": "One"}, {"title": "Two"}]
+                """)));
+        assertThrows(ValidationException.class, () -> surveyImportService.importBundle(json("[{\"title\": ")));
+
+        long after = surveyService.getAllSurveys(Pageable.unpaged()).getTotalElements();
+        assertEquals(before, after);
+    }
+
+    private static InputStream json(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,175 @@
+package net.talaatharb.survey.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import net.talaatharb.survey.dto.CreateSurveyQuestionLinkDto;
+import net.talaatharb.survey.dto.PublicSurveyDto;
+import net.talaatharb.survey.dto.QuestionDto;
+import net.talaatharb.survey.dto.QuestionOptionDto;
+import net.talaatharb.survey.dto.QuestionResponseDto;
+import net.talaatharb.survey.dto.SubmitSurveyResponseDto;
+import net.talaatharb.survey.dto.SurveyDto;
+import net.talaatharb.survey.dto.SurveyResponseDto;
+import net.talaatharb.survey.entity.QuestionType;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query-count;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class SurveyReadQueryCountTest {
+
+    private static final int MAX_STATEMENTS = 3;
+    private static final int MAX_BATCH_STATEMENTS = 4;
+
+    @Autowired
+    private SurveyService surveyService;
+
+    @Autowired
+    private QuestionService questionService;
+
+    @Autowired
+    private ResponseService responseService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void getSurveyByIdUsesBoundedStatements() {
+        long small = countStatements(createSurvey(2), surveyService::getSurveyById);
+        long large = countStatements(createSurvey(30), surveyService::getSurveyById);
+
+        assertEquals(small, large);
+        assertTrue(large <= MAX_STATEMENTS, "Expected at most " + MAX_STATEMENTS + " statements but got " + large);
+    }
+
+    @Test
+    void getQuestionLinksUsesBoundedStatements() {
+        long small = countStatements(createSurvey(2), surveyService::getQuestionLinks);
+        long large = countStatements(createSurvey(30), surveyService::getQuestionLinks);
+
+        assertEquals(small, large);
+        assertTrue(large <= MAX_STATEMENTS, "Expected at most " + MAX_STATEMENTS + " statements but got " + large);
+    }
+
+    @Test
+    void exportSurveyUsesBoundedStatements() {
+        UUID surveyId = createSurvey(30);
+        long large = countStatements(surveyId, surveyService::exportSurvey);
+
+        assertTrue(large <= MAX_STATEMENTS, "Expected at most " + MAX_STATEMENTS + " statements but got " + large);
+        assertEquals(List.of("Option 0", "Option 1", "Option 2"), surveyService.exportSurvey(surveyId)
+                .getQuestions().getFirst().getQuestion().getOptions().stream()
+                .map(option -> option.getLabel())
+                .toList());
+    }
+
+    @Test
+    void getAllSurveysUsesOneProjectionQuery() {
+        UUID surveyId = createSurvey(4);
+        submit(surveyId, 3);
+        createSurvey(2);
+        Pageable pageable = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "createdAt"));
+
+        statistics.clear();
+        Page<SurveyDto> page = surveyService.getAllSurveys(pageable);
+
+        assertEquals(0, statistics.getEntityLoadCount() + statistics.getCollectionLoadCount());
+        assertTrue(statistics.getPrepareStatementCount() <= 2,
+                "Expected at most 2 statements but got " + statistics.getPrepareStatementCount());
+        SurveyDto summary = page.getContent().stream()
+                .filter(survey -> survey.getId().equals(surveyId))
+                .findFirst().orElseThrow();
+        assertEquals(4, summary.getQuestionCount());
+        assertEquals(3, summary.getResponseCount());
+        assertNotNull(summary.getLastSubmittedAt());
+        assertEquals(page.getContent().stream().map(SurveyDto::getCreatedAt).sorted(Comparator.reverseOrder()).toList(),
+                page.getContent().stream().map(SurveyDto::getCreatedAt).toList());
+    }
+
+    @Test
+    void getResponsesByIdsUsesBoundedStatements() {
+        UUID surveyId = createSurvey(5);
+        List<UUID> small = submit(surveyId, 2);
+        List<UUID> large = submit(surveyId, 20);
+        responseService.getResponsesByIds(surveyId, small); // Load the question titles once
+
+        long smallCount = countStatements(surveyId, id -> responseService.getResponsesByIds(id, small));
+        long largeCount = countStatements(surveyId, id -> responseService.getResponsesByIds(id, large));
+
+        assertEquals(smallCount, largeCount);
+        assertTrue(largeCount <= MAX_BATCH_STATEMENTS,
+                "Expected at most " + MAX_BATCH_STATEMENTS + " statements but got " + largeCount);
+        List<SurveyResponseDto> responses = responseService.getResponsesByIds(surveyId, large);
+        assertEquals(large, responses.stream().map(SurveyResponseDto::getId).toList());
+        assertEquals("Question 0", responses.getFirst().getAnswers().stream()
+                .filter(answer -> answer.getSelectedOptions().size() == 1)
+                .findFirst().orElseThrow().getQuestionTitle());
+    }
+
+    private List<UUID> submit(UUID surveyId, int count) {
+        PublicSurveyDto survey = responseService.getPublicSurvey(surveyId);
+        return IntStream.range(0, count)
+                .mapToObj(i -> responseService.submitResponse(surveyId, SubmitSurveyResponseDto.builder()
+                        .surveyId(surveyId)
+                        .answers(survey.getQuestions().stream()
+                                .map(question -> QuestionResponseDto.builder()
+                                        .questionId(question.getQuestionId())
+                                        .selectedOptionIds(List.of(question.getOptions().get(i % 3).getId()))
+                                        .build())
+                                .toList())
+                        .build(), "127.0.0.1").getId())
+                .toList();
+    }
+
+    private long countStatements(UUID surveyId, Consumer<UUID> read) {
+        statistics.clear();
+        read.accept(surveyId);
+        return statistics.getPrepareStatementCount();
+    }
+
+    private UUID createSurvey(int questionCount) {
+        SurveyDto survey = surveyService.createSurvey(SurveyDto.builder().title("Survey").build());
+        for (int i = 0; i < questionCount; i++) {
+            QuestionDto question = questionService.createQuestion(QuestionDto.builder()
+                    .title("Question " + i)
+                    .type(QuestionType.MULTIPLE_CHOICE)
+                    .options(IntStream.range(0, 3)
+                            .mapToObj(j -> QuestionOptionDto.builder().label("Option " + j).build())
+                            .toList())
+                    .build());
+            surveyService.addQuestionToSurvey(survey.getId(), CreateSurveyQuestionLinkDto.builder()
+                    .questionId(question.getId())
+                    .build());
+        }
+        survey.setPublished(true);
+        surveyService.updateSurvey(survey.getId(), survey);
+        return survey.getId();
+    }
+}
@@ -0,0 +1,95 @@
+package net.talaatharb.survey.service;
+
+import net.talaatharb.survey.dto.CreateSurveyQuestionLinkDto;
+import net.talaatharb.survey.dto.QuestionDto;
+import net.talaatharb.survey.dto.SurveyDto;
+import net.talaatharb.survey.dto.SurveyQuestionLinkDto;
+import net.talaatharb.survey.dto.SurveyQuestionLinkOrderDto;
+import net.talaatharb.survey.dto.UpdateSurveyQuestionLinkDto;
+import net.talaatharb.survey.entity.QuestionType;
+import net.talaatharb.survey.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:survey-service;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class SurveyServiceTest {
+
+    @Autowired
+    private SurveyService surveyService;
+
+    @Autowired
+    private QuestionService questionService;
+
+    @Test
+    void movingLinksKeepsPositionsDenseThroughRebalances() {
+        UUID surveyId = surveyService.createSurvey(SurveyDto.builder().title("Order").build()).getId();
+        List<UUID> expected = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            expected.add(addQuestion(surveyId, "Q" + i, null).getId());
+        }
+        // Repeated inserts at the front run out of room between keys and rebalance the survey
+        for (int i = 0; i < 12; i++) {
+            SurveyQuestionLinkDto link = addQuestion(surveyId, "Front" + i, 0);
+            assertEquals(0, link.getOrderIndex());
+            expected.addFirst(link.getId());
+        }
+        assertEquals(expected, linkIds(surveyId));
+
+        UUID last = expected.removeLast();
+        expected.add(1, last);
+        SurveyQuestionLinkDto moved = surveyService.updateQuestionLink(surveyId, last,
+                UpdateSurveyQuestionLinkDto.builder().orderIndex(1).build());
+        assertEquals(1, moved.getOrderIndex());
+        assertEquals(expected, linkIds(surveyId));
+
+        surveyService.removeQuestionFromSurvey(surveyId, expected.remove(5));
+        assertEquals(expected, linkIds(surveyId));
+        List<Integer> positions = surveyService.getQuestionLinks(surveyId).stream()
+                .map(SurveyQuestionLinkDto::getOrderIndex).toList();
+        assertEquals(expected.size() - 1, positions.getLast());
+    }
+
+    @Test
+    void reorderAppliesTheGivenOrderOfEveryLink() {
+        UUID surveyId = surveyService.createSurvey(SurveyDto.builder().title("Reorder").build()).getId();
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            ids.add(addQuestion(surveyId, "R" + i, null).getId());
+        }
+
+        List<UUID> reversed = ids.reversed();
+        surveyService.reorderQuestionLinks(surveyId, SurveyQuestionLinkOrderDto.builder().linkIds(reversed).build());
+        assertEquals(reversed, linkIds(surveyId));
+
+        assertThrows(ValidationException.class, () -> surveyService.reorderQuestionLinks(surveyId,
+                SurveyQuestionLinkOrderDto.builder().linkIds(ids.subList(0, 3)).build()));
+        assertThrows(ValidationException.class, () -> surveyService.reorderQuestionLinks(surveyId,
+                SurveyQuestionLinkOrderDto.builder().linkIds(List.of(ids.get(0), ids.get(0), ids.get(1), ids.get(2))).build()));
+    }
+
+    private SurveyQuestionLinkDto addQuestion(UUID surveyId, String title, Integer position) {
+        QuestionDto question = questionService.createQuestion(QuestionDto.builder()
+                .title(title)
+                .type(QuestionType.SHORT_ANSWER)
+                .build());
+        return surveyService.addQuestionToSurvey(surveyId, CreateSurveyQuestionLinkDto.builder()
+                .questionId(question.getId())
+                .orderIndex(position)
+                .build());
+    }
+
+    private List<UUID> linkIds(UUID surveyId) {
+        return surveyService.getQuestionLinks(surveyId).stream().map(SurveyQuestionLinkDto::getId).toList();
+    }
+}
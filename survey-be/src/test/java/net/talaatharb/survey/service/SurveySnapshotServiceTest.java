@@ -0,0 +1,142 @@
+package net.talaatharb.survey.service;
+
+import net.talaatharb.survey.dto.CreateSurveyQuestionLinkDto;
+import net.talaatharb.survey.dto.QuestionDto;
+import net.talaatharb.survey.dto.QuestionResponseDto;
+import net.talaatharb.survey.dto.SubmitSurveyResponseDto;
+import net.talaatharb.survey.dto.SurveyDto;
+import net.talaatharb.survey.entity.QuestionType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:survey-snapshot-service;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class SurveySnapshotServiceTest {
+
+    @Autowired
+    private SurveySnapshotService snapshotService;
+
+    @Autowired
+    private SurveyService surveyService;
+
+    @Autowired
+    private QuestionService questionService;
+
+    @Autowired
+    private ResponseService responseService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void publishingOnlyCreatesAVersionWhenTheDefinitionChanges() {
+        QuestionDto question = createQuestion("How was your stay?");
+        SurveyDto survey = createSurvey("Stay", question.getId());
+        assertNull(survey.getPublishedVersion());
+        assertEquals(0, snapshotCount(survey.getId()));
+
+        SurveyDto published = publish(survey);
+        assertEquals(1, published.getPublishedVersion());
+        assertEquals(1, snapshotCount(survey.getId()));
+
+        assertEquals(1, surveyService.updateSurvey(survey.getId(), published).getPublishedVersion());
+        assertEquals(1, snapshotCount(survey.getId()));
+
+        published.setTitle("Your stay");
+        SurveyDto retitled = surveyService.updateSurvey(survey.getId(), published);
+        assertEquals(2, retitled.getPublishedVersion());
+        assertEquals(2, snapshotCount(survey.getId()));
+        assertEquals("Your stay", responseService.getPublicSurvey(survey.getId()).getTitle());
+    }
+
+    @Test
+    void respondentsSeeTheSnapshotUntilTheSurveyIsPublishedAgain() {
+        QuestionDto question = createQuestion("Rate the food");
+        SurveyDto published = publish(createSurvey("Food", question.getId()));
+
+        question.setTitle("Rate the menu");
+        questionService.updateQuestion(question.getId(), question);
+        assertEquals("Rate the food", publicTitle(published.getId()));
+        assertEquals(1, snapshotCount(published.getId()));
+
+        assertEquals(2, surveyService.updateSurvey(published.getId(), published).getPublishedVersion());
+        assertEquals("Rate the menu", publicTitle(published.getId()));
+    }
+
+    @Test
+    void submissionsRecordTheVersionTheyAnswered() {
+        QuestionDto question = createQuestion("Anything else?");
+        SurveyDto published = publish(createSurvey("Versions", question.getId()));
+        UUID first = submit(published.getId(), question.getId());
+
+        published.setTitle("More versions");
+        surveyService.updateSurvey(published.getId(), published);
+        UUID second = submit(published.getId(), question.getId());
+
+        assertEquals(1, responseService.getResponseById(published.getId(), first).getSnapshotVersion());
+        assertEquals(2, responseService.getResponseById(published.getId(), second).getSnapshotVersion());
+    }
+
+    @Test
+    void freezesSurveysPublishedBeforeSnapshotsExisted() {
+        QuestionDto question = createQuestion("Would you come back?");
+        SurveyDto published = publish(createSurvey("Legacy", question.getId()));
+        jdbcTemplate.update("DELETE FROM survey_snapshots WHERE survey_id = ?", published.getId());
+        jdbcTemplate.update("UPDATE surveys SET published_version = NULL WHERE id = ?", published.getId());
+
+        snapshotService.freezeUnversionedSurveys();
+
+        assertEquals(1, surveyService.getSurveyById(published.getId()).getPublishedVersion());
+        assertEquals(1, snapshotCount(published.getId()));
+        assertEquals("Would you come back?", publicTitle(published.getId()));
+    }
+
+    private QuestionDto createQuestion(String title) {
+        return questionService.createQuestion(QuestionDto.builder()
+                .title(title)
+                .type(QuestionType.SHORT_ANSWER)
+                .build());
+    }
+
+    private SurveyDto createSurvey(String title, UUID questionId) {
+        SurveyDto survey = surveyService.createSurvey(SurveyDto.builder().title(title).build());
+        surveyService.addQuestionToSurvey(survey.getId(), CreateSurveyQuestionLinkDto.builder()
+                .questionId(questionId)
+                .build());
+        return survey;
+    }
+
+    private SurveyDto publish(SurveyDto survey) {
+        survey.setPublished(true);
+        return surveyService.updateSurvey(survey.getId(), survey);
+    }
+
+    private UUID submit(UUID surveyId, UUID questionId) {
+        return responseService.submitResponse(surveyId, SubmitSurveyResponseDto.builder()
+                .surveyId(surveyId)
+                .answers(List.of(QuestionResponseDto.builder()
+                        .questionId(questionId)
+                        .textAnswer("Yes")
+                        .build()))
+                .build(), "127.0.0.1").getId();
+    }
+
+    private String publicTitle(UUID surveyId) {
+        return responseService.getPublicSurvey(surveyId).getQuestions().getFirst().getTitle();
+    }
+
+    private int snapshotCount(UUID surveyId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM survey_snapshots WHERE survey_id = ?",
+                Integer.class, surveyId);
+    }
+}
@@ -1,7 +1,7 @@
-import { useState } from 'react';
+import { useEffect, useState } from 'react';
 import { useNavigate } from 'react-router-dom';
 import { useTranslation } from 'react-i18next';
-import { useQuery } from '@tanstack/react-query';
+import { useInfiniteQuery, useQuery, useQueryClient } from '@tanstack/react-query';
 import {
   Box,
   Paper,
@@ -19,6 +19,7 @@ import {
   Tabs,
   Tab,
   LinearProgress,
+  Button,
 } from '@mui/material';
 import VisibilityIcon from '@mui/icons-material/Visibility';
 import {
@@ -36,7 +37,7 @@ import {
   Line,
 } from 'recharts';
 import { surveyApi } from '../../services/api';
-import type { QuestionAnalytics } from '../../types';
+import type { QuestionAnalytics, SurveyAnalytics, SurveyResultsDelta } from '../../types';
 
 interface ResultsTabProps {
   surveyId: string;
@@ -44,21 +45,122 @@ interface ResultsTabProps {
 
 const COLORS = ['#0088FE', '#00C49F', '#FFBB28', '#FF8042', '#8884d8', '#82ca9d'];
 
+// Adds the counts of a live delta to loaded analytics. Derived statistics (averages,
+// percentiles, NPS, text samples) stay as loaded until the results are reloaded. The sequence
+// stays the one loaded, as deltas may arrive out of order.
+function applyResultsDelta(analytics: SurveyAnalytics, delta: SurveyResultsDelta): SurveyAnalytics {
+  const days = new Map((analytics.submissionsOverTime ?? []).map((day) => [day.date, day.count]));
+  delta.submissionsOverTime?.forEach((day) => days.set(day.date, (days.get(day.date) ?? 0) + day.count));
+  const changes = new Map(delta.questions.map((question) => [question.questionId, question]));
+
+  return {
+    ...analytics,
+    totalSubmissions: analytics.totalSubmissions + delta.newSubmissions,
+    submissionsOverTime: [...days.entries()]
+      .sort(([left], [right]) => left.localeCompare(right))
+      .map(([date, count]) => ({ date, count })),
+    questionAnalytics: analytics.questionAnalytics.map((question) => {
+      const change = changes.get(question.questionId);
+      if (!change) return question;
+      const totalResponses = question.totalResponses + change.newResponses;
+
+      let optionCounts = question.optionCounts;
+      if (change.optionCounts) {
+        const counts = new Map((optionCounts ?? []).map((option) => [option.optionId, { ...option }]));
+        change.optionCounts.forEach((option) => {
+          const current = counts.get(option.optionId);
+          counts.set(option.optionId, {
+            ...option,
+            count: (current?.count ?? 0) + option.count,
+            label: current?.label ?? option.label,
+            percentage: 0,
+          });
+        });
+        optionCounts = [...counts.values()]
+          .map((option) => ({ ...option, percentage: totalResponses > 0 ? (option.count * 100) / totalResponses : 0 }))
+          .sort((left, right) => right.count - left.count || left.label.localeCompare(right.label));
+      }
+
+      let scaleDistribution = question.scaleDistribution;
+      if (change.scaleDistribution) {
+        const distribution: Record<number, number> = { ...scaleDistribution };
+        Object.entries(change.scaleDistribution).forEach(([value, count]) => {
+          distribution[Number(value)] = (distribution[Number(value)] ?? 0) + count;
+        });
+        scaleDistribution = distribution;
+      }
+
+      return { ...question, totalResponses, optionCounts, scaleDistribution };
+    }),
+  };
+}
+
 export default function ResultsTab({ surveyId }: ResultsTabProps) {
   const { t } = useTranslation();
   const navigate = useNavigate();
+  const queryClient = useQueryClient();
   const [tabIndex, setTabIndex] = useState(0);
 
   const { data: analytics, isLoading: analyticsLoading } = useQuery({
     queryKey: ['analytics', surveyId],
     queryFn: () => surveyApi.getAnalytics(surveyId),
+    // Kept current by the live results stream below, which reloads the results on every (re)connect
+    staleTime: Infinity,
   });
 
-  const { data: submissions, isLoading: submissionsLoading } = useQuery({
+  useEffect(() => {
+    const source = new EventSource(surveyApi.resultsStreamUrl(surveyId));
+    // Deltas not counted in the loaded results, by sequence; held back while the results reload
+    let held: SurveyResultsDelta[] | null = null;
+    let resyncs = 0;
+    const apply = (delta: SurveyResultsDelta) => {
+      queryClient.setQueryData<SurveyAnalytics>(['analytics', surveyId], (current) =>
+        current && delta.sequence > current.sequence ? applyResultsDelta(current, delta) : current
+      );
+    };
+
+    // Deltas apply to results computed after subscribing, so reload them, bypassing the server's
+    // cache, on every (re)connect; a load already running may predate the subscription
+    source.onopen = async () => {
+      const resync = ++resyncs;
+      held = [];
+      await queryClient.cancelQueries({ queryKey: ['analytics', surveyId] });
+      const analytics = await surveyApi.getAnalytics(surveyId, true).catch(() => undefined);
+      if (resync !== resyncs) return;
+      if (analytics) {
+        queryClient.setQueryData(['analytics', surveyId], analytics);
+      } else {
+        void queryClient.invalidateQueries({ queryKey: ['analytics', surveyId] });
+      }
+      const deltas = held ?? [];
+      held = null;
+      deltas.forEach(apply);
+    };
+    source.addEventListener('delta', (event) => {
+      const delta = JSON.parse((event as MessageEvent<string>).data) as SurveyResultsDelta;
+      if (held) {
+        held.push(delta);
+      } else {
+        apply(delta);
+      }
+    });
+    return () => source.close();
+  }, [surveyId, queryClient]);
+
+  const {
+    data: submissionPages,
+    isLoading: submissionsLoading,
+    hasNextPage,
+    fetchNextPage,
+    isFetchingNextPage,
+  } = useInfiniteQuery({
     queryKey: ['submissions', surveyId],
-    queryFn: () => surveyApi.getSubmissions(surveyId, 0, 100),
+    queryFn: ({ pageParam }) => surveyApi.scrollSubmissions(surveyId, pageParam, 50),
+    initialPageParam: undefined as string | undefined,
+    getNextPageParam: (lastPage) => lastPage.nextCursor,
     enabled: tabIndex === 1,
   });
+  const submissions = submissionPages?.pages.flatMap((page) => page.content);
 
   if (analyticsLoading) {
     return (
@@ -286,7 +388,7 @@ export default function ResultsTab({ surveyId }: ResultsTabProps) {
                   </TableRow>
                 </TableHead>
                 <TableBody>
-                  {submissions?.content.map((submission) => (
+                  {submissions?.map((submission) => (
                     <TableRow key={submission.id}>
                       <TableCell>
                         <Typography variant="body2" sx={{ fontFamily: 'monospace' }}>
@@ -310,6 +412,13 @@ export default function ResultsTab({ surveyId }: ResultsTabProps) {
                   ))}
                 </TableBody>
               </Table>
+              {hasNextPage && (
+                <Box display="flex" justifyContent="center" p={2}>
+                  <Button onClick={() => fetchNextPage()} disabled={isFetchingNextPage}>
+                    {isFetchingNextPage ? <CircularProgress size={20} /> : t('results.loadMore')}
+                  </Button>
+                </Box>
+              )}
             </TableContainer>
           )}
         </Box>
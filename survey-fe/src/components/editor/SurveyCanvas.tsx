@@ -59,6 +59,14 @@ export default function SurveyCanvas({ surveyId, questionLinks, onUpdate }: Surv
     },
   });
 
+  const reorderLinksMutation = useMutation({
+    mutationFn: (linkIds: string[]) => surveyApi.reorderLinks(surveyId, linkIds),
+    onSuccess: () => {
+      queryClient.invalidateQueries({ queryKey: ['survey', surveyId] });
+      onUpdate();
+    },
+  });
+
   const removeLinkMutation = useMutation({
     mutationFn: (linkId: string) => surveyApi.removeLink(surveyId, linkId),
     onSuccess: () => {
@@ -75,13 +83,10 @@ export default function SurveyCanvas({ surveyId, questionLinks, onUpdate }: Surv
 
     if (sourceIndex === destIndex) return;
 
-    const link = questionLinks[sourceIndex];
-    if (link.id) {
-      updateLinkMutation.mutate({
-        linkId: link.id,
-        data: { orderIndex: destIndex },
-      });
-    }
+    const linkIds = questionLinks.map((link) => link.id).filter((id): id is string => !!id);
+    const [moved] = linkIds.splice(sourceIndex, 1);
+    linkIds.splice(destIndex, 0, moved);
+    reorderLinksMutation.mutate(linkIds);
   };
 
   const toggleExpand = (linkId: string) => {
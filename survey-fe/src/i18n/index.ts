@@ -22,6 +22,8 @@ const resources = {
       'surveys.published': 'Published',
       'surveys.draft': 'Draft',
       'surveys.questions': '{{count}} question(s)',
+      'surveys.responses': '{{count}} response(s)',
+      'surveys.lastResponse': 'last {{date}}',
       
       // Survey editor
       'editor.title': 'Survey Editor',
@@ -94,6 +96,7 @@ const resources = {
       'results.viewSubmission': 'View',
       'results.submittedAt': 'Submitted at',
       'results.responses': '{{count}} response(s)',
+      'results.loadMore': 'Load more',
       
       // Public survey
       'public.notFound': 'Survey not found',
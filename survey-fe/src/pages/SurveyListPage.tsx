@@ -202,6 +202,10 @@ export default function SurveyListPage() {
                 
                 <Typography variant="caption" color="text.secondary">
                   {t('surveys.questions', { count: survey.questionCount || 0 })}
+                  {' · '}
+                  {t('surveys.responses', { count: survey.responseCount || 0 })}
+                  {survey.lastSubmittedAt &&
+                    ` (${t('surveys.lastResponse', { date: new Date(survey.lastSubmittedAt).toLocaleString() })})`}
                 </Typography>
               </CardContent>
                 
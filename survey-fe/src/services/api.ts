@@ -11,7 +11,10 @@ import type {
   SurveyResponse,
   SurveyResponseSummary,
   SurveyAnalytics,
-  Page 
+  AnswerSearchResult,
+  SurveyImportResult,
+  Page,
+  CursorPage
 } from '../types';
 
 const API_BASE_URL = `${environment.apiUrl}/survey`;
@@ -68,27 +71,54 @@ export const surveyApi = {
     return response.data;
   },
 
+  reorderLinks: async (surveyId: string, linkIds: string[]): Promise<void> => {
+    await api.put(`/v1/admin/surveys/${surveyId}/links/order`, { linkIds });
+  },
+
   removeLink: async (surveyId: string, linkId: string): Promise<void> => {
     await api.delete(`/v1/admin/surveys/${surveyId}/links/${linkId}`);
   },
 
   // Analytics
-  getAnalytics: async (surveyId: string): Promise<SurveyAnalytics> => {
-    const response = await api.get<SurveyAnalytics>(`/v1/admin/surveys/${surveyId}/results`);
+  getAnalytics: async (surveyId: string, fresh = false): Promise<SurveyAnalytics> => {
+    const query = fresh ? '?fresh=true' : '';
+    const response = await api.get<SurveyAnalytics>(`/v1/admin/surveys/${surveyId}/results${query}`);
     return response.data;
   },
 
+  // Server-Sent Events stream of analytics deltas, for EventSource
+  resultsStreamUrl: (surveyId: string): string =>
+    `${API_BASE_URL}/v1/admin/surveys/${surveyId}/results/stream`,
+
   getSubmissions: async (surveyId: string, page = 0, size = 20): Promise<Page<SurveyResponseSummary>> => {
     const params = new URLSearchParams({ page: String(page), size: String(size) });
     const response = await api.get<Page<SurveyResponseSummary>>(`/v1/admin/surveys/${surveyId}/results/submissions?${params}`);
     return response.data;
   },
 
+  scrollSubmissions: async (surveyId: string, cursor?: string, size = 50, includeTotal = false): Promise<CursorPage<SurveyResponseSummary>> => {
+    const params = new URLSearchParams({ size: String(size), includeTotal: String(includeTotal) });
+    if (cursor) params.append('cursor', cursor);
+    const response = await api.get<CursorPage<SurveyResponseSummary>>(`/v1/admin/surveys/${surveyId}/results/submissions/scroll?${params}`);
+    return response.data;
+  },
+
   getSubmission: async (surveyId: string, submissionId: string): Promise<SurveyResponse> => {
     const response = await api.get<SurveyResponse>(`/v1/admin/surveys/${surveyId}/results/submissions/${submissionId}`);
     return response.data;
   },
 
+  getSubmissionsByIds: async (surveyId: string, submissionIds: string[]): Promise<SurveyResponse[]> => {
+    const response = await api.post<SurveyResponse[]>(`/v1/admin/surveys/${surveyId}/results/submissions/batch`, submissionIds);
+    return response.data;
+  },
+
+  searchSubmissions: async (surveyId: string, query: string, limit = 20): Promise<AnswerSearchResult> => {
+    const params = new URLSearchParams({ q: query, limit: String(limit) });
+    const response = await api.get<AnswerSearchResult>(`/v1/admin/surveys/${surveyId}/results/search?${params}`);
+    return response.data;
+  },
+
   // Import/Export
   exportSurvey: async (surveyId: string): Promise<Survey> => {
     const response = await api.get<Survey>(`/v1/admin/surveys/${surveyId}/export`);
@@ -105,6 +135,17 @@ export const surveyApi = {
     });
     return response.data;
   },
+
+  importSurveyBundle: async (file: File): Promise<SurveyImportResult> => {
+    const formData = new FormData();
+    formData.append('file', file);
+    const response = await api.post<SurveyImportResult>('/v1/admin/surveys/import/bundle', formData, {
+      headers: {
+        'Content-Type': 'multipart/form-data',
+      },
+    });
+    return response.data;
+  },
 };
 
 // ==================== Questions (Admin) ====================
@@ -66,6 +66,8 @@ export interface Survey {
   archived?: boolean;
   questionLinks?: SurveyQuestionLink[];
   questionCount?: number;
+  responseCount?: number;
+  lastSubmittedAt?: string;
   createdAt?: string;
   updatedAt?: string;
 }
@@ -171,9 +173,19 @@ export interface QuestionAnalytics {
   scaleDistribution?: Record<number, number>;
   scaleAverage?: number;
   scaleMedian?: number;
+  scaleStandardDeviation?: number;
+  scalePercentiles?: Record<string, number>;
+  nps?: NpsScore;
   textSamples?: string[];
 }
 
+export interface NpsScore {
+  promoters: number;
+  passives: number;
+  detractors: number;
+  score: number;
+}
+
 export interface DailySubmissionCount {
   date: string;
   count: number;
@@ -182,11 +194,60 @@ export interface DailySubmissionCount {
 export interface SurveyAnalytics {
   surveyId: string;
   surveyTitle: string;
+  /** Sequence of the last submissions included; live deltas up to it are already counted. */
+  sequence: number;
   totalSubmissions: number;
   submissionsOverTime?: DailySubmissionCount[];
   questionAnalytics: QuestionAnalytics[];
 }
 
+export interface OptionDelta {
+  optionId: string;
+  label: string;
+  count: number;
+}
+
+export interface QuestionDelta {
+  questionId: string;
+  newResponses: number;
+  optionCounts?: OptionDelta[];
+  scaleDistribution?: Record<number, number>;
+}
+
+export interface SurveyResultsDelta {
+  surveyId: string;
+  /** Analytics with this sequence or a later one already include the delta. */
+  sequence: number;
+  newSubmissions: number;
+  submissionsOverTime?: DailySubmissionCount[];
+  questions: QuestionDelta[];
+}
+
+export interface AnswerHighlight {
+  questionId: string;
+  questionTitle?: string;
+  snippet: string;
+}
+
+export interface SubmissionMatch {
+  submissionId: string;
+  score: number;
+  highlights: AnswerHighlight[];
+}
+
+export interface AnswerSearchResult {
+  surveyId: string;
+  query: string;
+  /** Existing answers are still being indexed, so matches may be missing. */
+  indexing: boolean;
+  submissions: SubmissionMatch[];
+}
+
+export interface SurveyImportResult {
+  importedSurveys: number;
+  surveyIds: string[];
+}
+
 export interface Page<T> {
   content: T[];
   totalElements: number;
@@ -197,6 +258,14 @@ export interface Page<T> {
   last: boolean;
 }
 
+export interface CursorPage<T> {
+  content: T[];
+  size: number;
+  nextCursor?: string;
+  hasNext: boolean;
+  totalElements?: number;
+}
+
 export interface ErrorResponse {
   timestamp: string;
   status: number;